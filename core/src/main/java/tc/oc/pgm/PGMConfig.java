@@ -81,6 +81,7 @@ public final class PGMConfig implements Config {
   private final boolean woolRefill;
   private final int griefScore;
   private final float assistPercent;
+  private final float tickBudget;
 
   // votes.*
   private final boolean allowExtraVotes;
@@ -183,6 +184,7 @@ public final class PGMConfig implements Config {
         parseInteger(config.getString("gameplay.grief-score", "-10"), Range.atMost(0));
     this.assistPercent =
         parseFloat(config.getString("gameplay.assist-percent", "0.3"), Range.openClosed(0f, 1f));
+    this.tickBudget = parseFloat(config.getString("gameplay.tick-budget", "5"));
 
     this.allowExtraVotes = parseBoolean(config.getString("votes.allow-extra-votes", "true"));
     this.maxExtraVotes = parseInteger(config.getString("votes.max-extra-votes", "5"));
@@ -569,6 +571,11 @@ public final class PGMConfig implements Config {
     return assistPercent;
   }
 
+  @Override
+  public float getTickBudget() {
+    return tickBudget;
+  }
+
   @Override
   public boolean showSideBar() {
     return showSideBar;
@@ -147,7 +147,11 @@ public class PGMPlugin extends JavaPlugin implements PGM, Listener {
 
     mapSourceFactories = new ArrayList<>();
     mapIncludeProcessor = new MapIncludeProcessorImpl(gameLogger);
-    mapLibrary = new MapLibraryImpl(gameLogger, mapSourceFactories, mapIncludeProcessor);
+    mapLibrary = new MapLibraryImpl(
+        gameLogger,
+        mapSourceFactories,
+        mapIncludeProcessor,
+        getDataFolder().toPath().resolve("map-cache.json"));
 
     saveDefaultConfig(); // Writes a config file, if one does not exist.
     reloadConfig(); // Populates "this.config", if there is an error, will be null
@@ -168,7 +172,7 @@ public class PGMPlugin extends JavaPlugin implements PGM, Listener {
     UsernameResolvers.setResolvers(
         new BukkitUsernameResolver(),
         new SqlUsernameResolver((SQLDatastore) datastore),
-        new ApiUsernameResolver());
+        new ApiUsernameResolver(getDataFolder().toPath().resolve("username-cache.json")));
 
     datastore = new CacheDatastore(datastore);
 
@@ -304,6 +304,14 @@ public interface Config {
    */
   float getAssistPercent();
 
+  /**
+   * Gets how many milliseconds a match can spend ticking per tick, before any non-critical {@link
+   * tc.oc.pgm.api.match.Tickable}s are deferred to a later tick.
+   *
+   * @return A budget in milliseconds, disabled if non-positive.
+   */
+  float getTickBudget();
+
   /**
    * Gets if extra votes are allowed based on the "pgm.vote.extra.#" permission.
    *
@@ -73,6 +73,7 @@ import tc.oc.pgm.modes.ObjectiveModesModule;
 import tc.oc.pgm.modules.ArrowRemovalMatchModule;
 import tc.oc.pgm.modules.DiscardPotionBottlesMatchModule;
 import tc.oc.pgm.modules.DiscardPotionBottlesModule;
+import tc.oc.pgm.modules.EffectMatchModule;
 import tc.oc.pgm.modules.EventFilterMatchModule;
 import tc.oc.pgm.modules.FriendlyFireRefundMatchModule;
 import tc.oc.pgm.modules.FriendlyFireRefundModule;
@@ -117,6 +118,7 @@ import tc.oc.pgm.shield.ShieldMatchModule;
 import tc.oc.pgm.shops.ShopMatchModule;
 import tc.oc.pgm.shops.ShopModule;
 import tc.oc.pgm.snapshot.SnapshotMatchModule;
+import tc.oc.pgm.spatial.PlayerIndexMatchModule;
 import tc.oc.pgm.spawner.SpawnerMatchModule;
 import tc.oc.pgm.spawner.SpawnerModule;
 import tc.oc.pgm.spawns.SpawnMatchModule;
@@ -211,6 +213,8 @@ public final class Modules {
     register(MultiTradeMatchModule.class, MultiTradeMatchModule::new);
     register(DeathMessageMatchModule.class, DeathMessageMatchModule::new);
     register(TrackerMatchModule.class, TrackerMatchModule::new);
+    register(PlayerIndexMatchModule.class, PlayerIndexMatchModule::new);
+    register(EffectMatchModule.class, EffectMatchModule::new);
     register(ShieldMatchModule.class, ShieldMatchModule::new);
     register(ViewInventoryMatchModule.class, ViewInventoryMatchModule::new);
     register(CycleMatchModule.class, CycleMatchModule::new);
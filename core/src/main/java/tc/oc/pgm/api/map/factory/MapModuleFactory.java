@@ -21,4 +21,18 @@ public interface MapModuleFactory<T extends MapModule<?>> extends ModuleFactory<
    */
   @Nullable
   T parse(MapFactory factory, Logger logger, Document doc) throws InvalidXMLException;
+
+  /**
+   * Gets whether {@link #parse(MapFactory, Logger, Document)} can run in parallel with the
+   * factories registered after this one.
+   *
+   * <p>It must only look up the {@link MapModule}s it declares as dependencies, and no other
+   * factory may look up its {@link MapModule} or features while parsing without declaring it as a
+   * dependency. Features may still be referenced, since references are resolved after parsing.
+   *
+   * @return If the factory can parse in parallel, by default {@code false}.
+   */
+  default boolean canParseInParallel() {
+    return false;
+  }
 }
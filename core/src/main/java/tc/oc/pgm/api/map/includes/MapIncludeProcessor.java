@@ -36,4 +36,11 @@ public interface MapIncludeProcessor {
 
   /** Reload the processor to fetch new map includes. */
   void loadNewIncludes();
+
+  /**
+   * Get a hash of the content of every map include, which changes whenever any of them does.
+   *
+   * @return A hash of all map includes
+   */
+  String getContentHash();
 }
@@ -13,4 +13,38 @@ public interface Tickable {
    * @param tick The current {@link Tick}.
    */
   void tick(Match match, Tick tick);
+
+  /**
+   * Gets how important this {@link Tickable} is, which is only read once.
+   *
+   * @return The {@link Priority}, by default {@link Priority#CRITICAL}.
+   */
+  default Priority getTickPriority() {
+    return Priority.CRITICAL;
+  }
+
+  /**
+   * Gets how many {@link Tick}s apart this {@link Tickable} wants to be ticked, which is only read
+   * once.
+   *
+   * @return An interval of at least 1 tick, by default every tick.
+   */
+  default int getTickInterval() {
+    return 1;
+  }
+
+  /**
+   * How important a {@link Tickable} is when ticking a {@link Match} is running over budget.
+   *
+   * <p>Anything that is not {@link #CRITICAL} may be ticked later than its interval, so it should
+   * measure the time since it was last ticked instead of assuming a fixed interval.
+   */
+  enum Priority {
+    /** Always ticked exactly at its interval. */
+    CRITICAL,
+    /** May be deferred when over budget, but is ticked before any {@link #LOW} work. */
+    NORMAL,
+    /** Deferred first, for cosmetics or work that catches up on its own. */
+    LOW
+  }
 }
@@ -1,11 +1,25 @@
 package tc.oc.pgm.api.match.factory;
 
+import java.time.Duration;
+import java.util.Map;
 import java.util.concurrent.Future;
 import tc.oc.pgm.api.match.Match;
 
 /** A {@link Future} that creates a {@link Match}. */
 public interface MatchFactory extends Future<Match> {
 
-  /** Resets delays on the {@link Future} and creates the {@link Match} as quickly as possible. */
+  /**
+   * Resets delays on the {@link Future} and creates the {@link Match} as quickly as possible.
+   *
+   * <p>Players are only moved to the new {@link Match} once this is called, so a factory can be
+   * created ahead of time to prepare the match in the background.
+   */
   void await();
+
+  /**
+   * Get how long each stage of creating the {@link Match} took so far, in the order they ran.
+   *
+   * @return A map of stage names to durations.
+   */
+  Map<String, Duration> getTimings();
 }
@@ -19,4 +19,20 @@ public interface MatchModuleFactory<T extends MatchModule> extends ModuleFactory
    */
   @Nullable
   T createMatchModule(Match match) throws ModuleLoadException;
+
+  /**
+   * Gets whether {@link #createMatchModule(Match)} can be called off the main thread, in parallel
+   * with other factories.
+   *
+   * <p>It must not touch the world or any other Bukkit state, nor add anything to the {@link Match},
+   * such as features or listeners. {@link MatchModule#load()} is always called on the main thread.
+   *
+   * <p>Handing a factory to another thread has a cost of its own, so only factories whose modules
+   * do real work on creation, like building an index, should opt in.
+   *
+   * @return If the factory can create its module asynchronously, by default {@code false}.
+   */
+  default boolean canCreateAsync() {
+    return false;
+  }
 }
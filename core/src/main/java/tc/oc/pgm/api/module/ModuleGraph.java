@@ -2,11 +2,19 @@ package tc.oc.pgm.api.module;
 
 import static tc.oc.pgm.util.Assert.assertNotNull;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.jetbrains.annotations.Nullable;
 import tc.oc.pgm.api.module.exception.ModuleLoadException;
@@ -58,6 +66,160 @@ public abstract class ModuleGraph<M extends Module, F extends ModuleFactory<M>>
     }
   }
 
+  /**
+   * Loads every {@link Module} like {@link #loadAll()}, but creates them on an executor, each one
+   * as soon as the {@link Module}s it depends on are created.
+   *
+   * <p>Factories may rely on the order they are registered in, so each factory waits for the
+   * previous one that is not {@link #isParallel(ModuleFactory) parallel}. Nothing waits for a
+   * parallel factory, unless it depends on it. The {@link Module}s end up in the same order as
+   * {@link #loadAll()} would create them in.
+   *
+   * <p>The calling thread blocks until every {@link Module} is created, so it must not be one that
+   * the executor needs to run them.
+   *
+   * @param executor An executor to create {@link Module}s on.
+   * @throws ModuleLoadException If any {@link Module} failed to load.
+   */
+  protected void loadAll(Executor executor) throws ModuleLoadException {
+    if (!loaded.compareAndSet(false, true)) return;
+
+    // Other factories may look up modules from any thread while they are created
+    modules = new ConcurrentHashMap<>();
+
+    final Map<Class<? extends M>, CompletableFuture<M>> tasks = new LinkedHashMap<>();
+    try {
+      try {
+        final Plan plan = new Plan(executor, tasks);
+        for (Class<? extends M> key : factories.keySet()) {
+          plan.schedule(key, null);
+        }
+      } finally {
+        // Never leave a module being created in the background
+        CompletableFuture.allOf(tasks.values().toArray(new CompletableFuture<?>[0]))
+            .handle((v, e) -> null)
+            .join();
+      }
+
+      final Map<Class<? extends M>, M> ordered = new LinkedHashMap<>(tasks.size());
+      for (CompletableFuture<M> task : tasks.values()) {
+        final M module = join(task);
+        if (module != null) ordered.put((Class<? extends M>) module.getClass(), module);
+      }
+      modules = Collections.unmodifiableMap(ordered);
+    } catch (ModuleLoadException e) {
+      unloadAll();
+      throw e;
+    }
+  }
+
+  /**
+   * Gets whether a factory can be created by {@link #loadAll(Executor)} in parallel with the
+   * factories registered after it.
+   *
+   * <p>Such a factory must only look up the {@link Module}s it depends on, and no factory may look
+   * up its {@link Module} without depending on it.
+   *
+   * @param factory A factory.
+   * @return If the factory can be created in parallel, by default {@code false}.
+   */
+  protected boolean isParallel(F factory) {
+    return false;
+  }
+
+  private M join(CompletableFuture<M> task) throws ModuleLoadException {
+    try {
+      return task.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+      throw e;
+    }
+  }
+
+  /** Schedules the creation of each factory, in the same order as {@link #load}. */
+  private class Plan {
+    private final Executor executor;
+    private final Map<Class<? extends M>, CompletableFuture<M>> tasks;
+    private final Set<Class<? extends M>> visiting = new HashSet<>();
+    private CompletableFuture<?> previous = CompletableFuture.completedFuture(null);
+
+    private Plan(Executor executor, Map<Class<? extends M>, CompletableFuture<M>> tasks) {
+      this.executor = executor;
+      this.tasks = tasks;
+    }
+
+    private CompletableFuture<M> schedule(
+        Class<? extends M> key, @Nullable Class<? extends M> requiredBy)
+        throws ModuleLoadException {
+      final F factory = getFactory(key, requiredBy);
+      if (factory == null) return CompletableFuture.completedFuture(null);
+
+      final CompletableFuture<M> existing = tasks.get(key);
+      if (existing != null) return existing;
+      if (!visiting.add(key)) {
+        throw new ModuleLoadException(key, "Required itself (is there a circular dependency?)");
+      }
+
+      final Map<Class<? extends M>, CompletableFuture<M>> hard = schedule(
+          factory.getHardDependencies(), key);
+      final Map<Class<? extends M>, CompletableFuture<M>> soft = schedule(
+          factory.getSoftDependencies(), key);
+      final Map<Class<? extends M>, CompletableFuture<M>> weak = schedule(
+          factory.getWeakDependencies(), key);
+
+      final List<CompletableFuture<?>> waits = new ArrayList<>();
+      waits.add(previous);
+      waits.addAll(hard.values());
+      waits.addAll(soft.values());
+      waits.addAll(weak.values());
+
+      final CompletableFuture<M> task = CompletableFuture.allOf(
+              waits.toArray(new CompletableFuture<?>[0]))
+          .handle((v, e) -> null)
+          .thenApplyAsync(v -> create(key, factory, hard, soft), executor);
+
+      if (!isParallel(factory)) previous = task;
+      tasks.put(key, task);
+      return task;
+    }
+
+    private Map<Class<? extends M>, CompletableFuture<M>> schedule(
+        @Nullable Collection<Class<? extends M>> keys, Class<? extends M> requiredBy)
+        throws ModuleLoadException {
+      if (keys == null || keys.isEmpty()) return Collections.emptyMap();
+
+      final Map<Class<? extends M>, CompletableFuture<M>> scheduled = new LinkedHashMap<>();
+      for (Class<? extends M> key : keys) {
+        scheduled.put(key, schedule(key, requiredBy));
+      }
+      return scheduled;
+    }
+
+    private @Nullable M create(
+        Class<? extends M> key,
+        F factory,
+        Map<Class<? extends M>, CompletableFuture<M>> hard,
+        Map<Class<? extends M>, CompletableFuture<M>> soft)
+        throws ModuleLoadException {
+      // Every dependency is done before this runs, so joining them never blocks
+      for (Map.Entry<Class<? extends M>, CompletableFuture<M>> dependency : hard.entrySet()) {
+        if (join(dependency.getValue()) == null) {
+          throw new ModuleLoadException(
+              key,
+              dependency.getKey().getSimpleName() + " is a hard dependency that failed to load");
+        }
+      }
+
+      for (CompletableFuture<M> dependency : soft.values()) {
+        if (dependency.isCompletedExceptionally() || dependency.join() == null) return null;
+      }
+
+      final M module = createModule(factory);
+      if (module != null) modules.put((Class<? extends M>) module.getClass(), module);
+      return module;
+    }
+  }
+
   protected void unloadAll() {
     if (loaded.compareAndSet(true, false)) {
       modules = new LinkedHashMap<>(factories.size());
@@ -0,0 +1,139 @@
+package tc.oc.pgm.command;
+
+import static net.kyori.adventure.text.Component.text;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.command.CommandSender;
+import org.incendo.cloud.annotations.Argument;
+import org.incendo.cloud.annotations.Command;
+import org.incendo.cloud.annotations.CommandDescription;
+import org.incendo.cloud.annotations.Default;
+import org.incendo.cloud.annotations.Permission;
+import tc.oc.pgm.api.Datastore;
+import tc.oc.pgm.api.PGM;
+import tc.oc.pgm.api.Permissions;
+import tc.oc.pgm.db.CacheDatastore;
+import tc.oc.pgm.match.MatchProfiler;
+import tc.oc.pgm.util.Audience;
+import tc.oc.pgm.util.concurrent.ThreadSafeConnection;
+import tc.oc.pgm.util.text.BroadcastRenderer;
+import tc.oc.pgm.util.text.TextFormatter;
+
+public final class ProfilerCommand {
+
+  @Command("pgm profiler start [log-interval]")
+  @CommandDescription("Start profiling ticks and event handlers")
+  @Permission(Permissions.DEBUG)
+  public void start(Audience audience, @Argument("log-interval") Duration logInterval) {
+    MatchProfiler.get().start(logInterval);
+    audience.sendMessage(text("Profiler started", NamedTextColor.GREEN));
+  }
+
+  @Command("pgm profiler stop")
+  @CommandDescription("Stop profiling")
+  @Permission(Permissions.DEBUG)
+  public void stop(Audience audience) {
+    MatchProfiler.get().stop();
+    audience.sendMessage(text("Profiler stopped", NamedTextColor.RED));
+  }
+
+  @Command("pgm profiler reset")
+  @CommandDescription("Clear the recorded timings")
+  @Permission(Permissions.DEBUG)
+  public void reset(Audience audience) {
+    MatchProfiler.get().reset();
+    BroadcastRenderer.resetStatistics();
+    audience.sendMessage(text("Profiler reset", NamedTextColor.YELLOW));
+  }
+
+  @Command("pgm profiler broadcasts")
+  @CommandDescription("Show how many message renders were saved by broadcasting")
+  @Permission(Permissions.DEBUG)
+  public void broadcasts(Audience audience) {
+    audience.sendMessage(text(
+        String.format(
+            Locale.ROOT,
+            "%d broadcasts to %d players, %d renders, %d renders saved",
+            BroadcastRenderer.getBroadcasts(),
+            BroadcastRenderer.getViewers(),
+            BroadcastRenderer.getRenders(),
+            BroadcastRenderer.getRendersSaved()),
+        NamedTextColor.GRAY));
+  }
+
+  @Command("pgm profiler database")
+  @CommandDescription("Show the state of the database connection pool")
+  @Permission(Permissions.DEBUG)
+  public void database(Audience audience) {
+    Datastore datastore = PGM.get().getDatastore();
+    if (datastore instanceof CacheDatastore) {
+      datastore = ((CacheDatastore) datastore).getDatastore();
+    }
+
+    if (!(datastore instanceof ThreadSafeConnection)) {
+      audience.sendMessage(text("The datastore has no connection pool", NamedTextColor.RED));
+      return;
+    }
+
+    final ThreadSafeConnection pool = (ThreadSafeConnection) datastore;
+    audience.sendMessage(text(
+        String.format(
+            Locale.ROOT,
+            "%d/%d connections open, %d queries queued, %d updates pending",
+            pool.getOpenConnections(),
+            pool.getMaxConnections(),
+            pool.getQueueDepth(),
+            pool.getPendingUpdates()),
+        NamedTextColor.GRAY));
+    audience.sendMessage(text(
+        String.format(
+            Locale.ROOT,
+            "%d acquisitions, %.1fms mean wait, %.1fms max wait",
+            pool.getAcquisitions(),
+            pool.getAverageWaitTime().toNanos() / 1e6,
+            pool.getMaxWaitTime().toNanos() / 1e6),
+        NamedTextColor.GRAY));
+  }
+
+  @Command("pgm profiler show [category] [limit]")
+  @CommandDescription("Show the slowest ticks and event handlers")
+  @Permission(Permissions.DEBUG)
+  public void show(
+      Audience audience,
+      CommandSender sender,
+      @Argument("category") @Default("module") MatchProfiler.Category category,
+      @Argument("limit") @Default("10") int limit) {
+    final MatchProfiler profiler = MatchProfiler.get();
+    audience.sendMessage(TextFormatter.horizontalLineHeading(
+        sender,
+        text(
+            "Slowest " + category.name().toLowerCase(Locale.ROOT) + " timings of the last "
+                + profiler.getElapsed().getSeconds() + "s",
+            NamedTextColor.YELLOW),
+        NamedTextColor.WHITE));
+
+    if (!profiler.isEnabled()) {
+      audience.sendMessage(text("The profiler is not running", NamedTextColor.RED));
+    }
+
+    final List<MatchProfiler.Timing> timings = profiler.getTimings(category);
+    for (int i = 0; i < timings.size() && i < limit; i++) {
+      final MatchProfiler.Timing timing = timings.get(i);
+      audience.sendMessage(text()
+          .append(text(timing.getName() + ": ", NamedTextColor.AQUA))
+          .append(text(
+              String.format(
+                  Locale.ROOT,
+                  "%d calls, %.1fms total, %.1fus mean, %.1fus p99, %.1fus max",
+                  timing.getCount(),
+                  timing.getTotal() / 1e6,
+                  timing.getMean() / 1e3,
+                  timing.getPercentile(0.99) / 1e3,
+                  timing.getMax() / 1e3),
+              NamedTextColor.GRAY)));
+    }
+  }
+}
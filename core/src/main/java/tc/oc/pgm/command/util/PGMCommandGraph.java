@@ -43,6 +43,7 @@ import tc.oc.pgm.command.MapOrderCommand;
 import tc.oc.pgm.command.MapPoolCommand;
 import tc.oc.pgm.command.MatchCommand;
 import tc.oc.pgm.command.ModeCommand;
+import tc.oc.pgm.command.ProfilerCommand;
 import tc.oc.pgm.command.ProximityCommand;
 import tc.oc.pgm.command.RestartCommand;
 import tc.oc.pgm.command.SettingCommand;
@@ -122,6 +123,7 @@ public class PGMCommandGraph extends CommandGraph<PGM> {
     register(new MapPoolCommand());
     register(new MatchCommand());
     register(new ModeCommand());
+    register(new ProfilerCommand());
     register(new ProximityCommand());
     register(new RestartCommand());
     register(SettingCommand.getInstance());
@@ -55,6 +55,11 @@ public class CompassMatchModule implements MatchModule, Tickable, Listener {
     this.showDistance = showDistance;
   }
 
+  @Override
+  public Priority getTickPriority() {
+    return Priority.LOW;
+  }
+
   @Override
   public synchronized void tick(Match match, Tick tick) {
     for (Map.Entry<UUID, Long> lastRefreshEntry : lastRefresh.entrySet()) {
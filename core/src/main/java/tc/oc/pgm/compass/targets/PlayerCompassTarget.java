@@ -3,7 +3,6 @@ package tc.oc.pgm.compass.targets;
 import static net.kyori.adventure.text.Component.text;
 import static tc.oc.pgm.util.player.PlayerComponent.player;
 
-import java.util.Comparator;
 import java.util.Optional;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -12,6 +11,7 @@ import tc.oc.pgm.api.player.MatchPlayer;
 import tc.oc.pgm.compass.CompassTarget;
 import tc.oc.pgm.compass.CompassTargetResult;
 import tc.oc.pgm.filters.query.PlayerQuery;
+import tc.oc.pgm.spatial.PlayerIndexMatchModule;
 import tc.oc.pgm.util.named.NameStyle;
 
 public class PlayerCompassTarget extends CompassTarget<MatchPlayer> {
@@ -32,11 +32,13 @@ public class PlayerCompassTarget extends CompassTarget<MatchPlayer> {
 
   @Override
   protected Optional<MatchPlayer> getMatching(MatchPlayer player) {
-    return player.getMatch().getParticipants().stream()
-        .filter(target -> !target.equals(player))
-        .filter(target -> targetFilter.query(new PlayerQuery(null, target)).isAllowed())
-        .min(Comparator.comparingDouble(
-            target -> target.getLocation().distance(player.getLocation())));
+    return player
+        .getMatch()
+        .needModule(PlayerIndexMatchModule.class)
+        .getNearest(
+            player.getLocation().toVector(),
+            target -> !target.equals(player)
+                && targetFilter.query(new PlayerQuery(null, target)).isAllowed());
   }
 
   protected Optional<CompassTargetResult> buildResult(MatchPlayer target, MatchPlayer holder) {
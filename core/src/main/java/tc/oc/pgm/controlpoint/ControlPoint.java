@@ -87,7 +87,6 @@ public class ControlPoint extends SimpleGoal<ControlPointDefinition>
   }
 
   public void registerEvents() {
-    this.match.addListener(this.playerTracker, MatchScope.RUNNING);
     this.match.addListener(this.blockDisplay, MatchScope.RUNNING);
 
     this.blockDisplay.render();
@@ -95,7 +94,6 @@ public class ControlPoint extends SimpleGoal<ControlPointDefinition>
 
   public void unregisterEvents() {
     HandlerList.unregisterAll(this.blockDisplay);
-    HandlerList.unregisterAll(this.playerTracker);
   }
 
   public ControlPointBlockDisplay getBlockDisplay() {
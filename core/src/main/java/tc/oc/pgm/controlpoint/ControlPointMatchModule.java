@@ -14,6 +14,7 @@ public class ControlPointMatchModule implements MatchModule {
   private final List<ControlPoint> controlPoints = new ArrayList<>();
   private final ControlPointAnnouncer announcer;
   private final PayloadListener payloadListener;
+  private final ControlPointOccupancy occupancy;
 
   public ControlPointMatchModule(Match match, List<ControlPoint> points) {
     this.match = match;
@@ -21,6 +22,13 @@ public class ControlPointMatchModule implements MatchModule {
 
     this.announcer = new ControlPointAnnouncer(this.match);
     this.payloadListener = new PayloadListener();
+
+    List<RegionPlayerTracker> trackers = new ArrayList<>(this.controlPoints.size());
+    for (ControlPoint controlPoint : this.controlPoints) {
+      trackers.add(controlPoint.getPlayerTracker());
+    }
+    this.occupancy = new ControlPointOccupancy(this.match, trackers);
+
     match.addTickable(new ControlPointTickTask(this.controlPoints), MatchScope.RUNNING);
   }
 
@@ -28,6 +36,7 @@ public class ControlPointMatchModule implements MatchModule {
   public void load() {
     this.match.addListener(this.announcer, MatchScope.RUNNING);
     this.match.addListener(this.payloadListener, MatchScope.RUNNING);
+    this.match.addListener(this.occupancy, MatchScope.RUNNING);
     for (ControlPoint controlPoint : this.controlPoints) {
       controlPoint.registerEvents();
     }
@@ -40,5 +49,6 @@ public class ControlPointMatchModule implements MatchModule {
     }
     HandlerList.unregisterAll(this.announcer);
     HandlerList.unregisterAll(this.payloadListener);
+    HandlerList.unregisterAll(this.occupancy);
   }
 }
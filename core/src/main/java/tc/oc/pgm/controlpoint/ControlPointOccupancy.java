@@ -0,0 +1,135 @@
+package tc.oc.pgm.controlpoint;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.util.BlockVector;
+import org.bukkit.util.Vector;
+import org.jetbrains.annotations.Nullable;
+import tc.oc.pgm.api.match.Match;
+import tc.oc.pgm.api.player.MatchPlayer;
+import tc.oc.pgm.regions.Bounds;
+import tc.oc.pgm.spawns.events.ParticipantDespawnEvent;
+import tc.oc.pgm.util.MatchPlayers;
+import tc.oc.pgm.util.chunk.ChunkKeys;
+import tc.oc.pgm.util.event.PlayerCoarseMoveEvent;
+
+/**
+ * Keeps the {@link RegionPlayerTracker}s of every control point in a match up to date, from a
+ * single set of listeners.
+ *
+ * <p>Trackers with a fixed region are indexed by the chunks their bounds cover, so a move only
+ * checks the regions near the player, plus the ones the player was already in. Trackers whose
+ * region can move are checked on every move.
+ */
+public class ControlPointOccupancy implements Listener {
+  // Regions spanning more chunks than this are checked on every move instead of being indexed
+  private static final int MAX_INDEXED_CHUNKS = 1024;
+
+  private static final RegionPlayerTracker[] NO_TRACKERS = new RegionPlayerTracker[0];
+
+  private final Match match;
+  private final RegionPlayerTracker[] unindexed;
+  private final Long2ObjectMap<RegionPlayerTracker[]> byChunk = new Long2ObjectOpenHashMap<>();
+
+  // Indexed trackers that each player is currently tracked by
+  private final Map<MatchPlayer, List<RegionPlayerTracker>> occupied = new HashMap<>();
+
+  public ControlPointOccupancy(Match match, List<RegionPlayerTracker> trackers) {
+    this.match = match;
+
+    final List<RegionPlayerTracker> unindexed = new ArrayList<>();
+    final Long2ObjectMap<List<RegionPlayerTracker>> byChunk = new Long2ObjectOpenHashMap<>();
+
+    for (RegionPlayerTracker tracker : trackers) {
+      final long[] chunks = getIndexedChunks(tracker);
+      if (chunks == null) {
+        unindexed.add(tracker);
+        continue;
+      }
+
+      for (long key : chunks) {
+        byChunk.computeIfAbsent(key, k -> new ArrayList<>()).add(tracker);
+      }
+    }
+
+    this.unindexed = unindexed.toArray(NO_TRACKERS);
+    for (Long2ObjectMap.Entry<List<RegionPlayerTracker>> entry : byChunk.long2ObjectEntrySet()) {
+      this.byChunk.put(entry.getLongKey(), entry.getValue().toArray(NO_TRACKERS));
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onPlayerMove(final PlayerCoarseMoveEvent event) {
+    this.handlePlayerMove(event.getPlayer(), event.getTo().toVector());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onPlayerTeleport(final PlayerTeleportEvent event) {
+    this.handlePlayerMove(event.getPlayer(), event.getTo().toVector());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onPlayerDespawn(final ParticipantDespawnEvent event) {
+    final List<RegionPlayerTracker> current = occupied.remove(event.getPlayer());
+    if (current != null) {
+      for (RegionPlayerTracker tracker : current) {
+        tracker.removePlayer(event.getPlayer());
+      }
+    }
+
+    for (RegionPlayerTracker tracker : unindexed) {
+      tracker.removePlayer(event.getPlayer());
+    }
+  }
+
+  private void handlePlayerMove(Player bukkit, Vector to) {
+    final MatchPlayer player = this.match.getPlayer(bukkit);
+    if (!MatchPlayers.canInteract(player)) return;
+
+    final BlockVector block = to.toBlockVector();
+    List<RegionPlayerTracker> current = occupied.get(player);
+
+    // Leave the indexed regions the player is no longer in
+    if (current != null) {
+      for (int i = current.size() - 1; i >= 0; i--) {
+        if (!current.get(i).handlePlayerMove(player, block)) current.remove(i);
+      }
+    }
+
+    // Enter the indexed regions near the player
+    final RegionPlayerTracker[] candidates =
+        byChunk.get(ChunkKeys.ofBlock(block.getBlockX(), block.getBlockZ()));
+    if (candidates != null) {
+      for (RegionPlayerTracker tracker : candidates) {
+        if (current != null && current.contains(tracker)) continue;
+
+        if (tracker.handlePlayerMove(player, block)) {
+          if (current == null) occupied.put(player, current = new ArrayList<>(2));
+          current.add(tracker);
+        }
+      }
+    }
+
+    if (current != null && current.isEmpty()) occupied.remove(player);
+
+    for (RegionPlayerTracker tracker : unindexed) {
+      tracker.handlePlayerMove(player, block);
+    }
+  }
+
+  private static long @Nullable [] getIndexedChunks(RegionPlayerTracker tracker) {
+    if (tracker.isDynamic() || tracker.getRegion() == null) return null;
+
+    final Bounds bounds = Bounds.of(tracker.getRegion());
+    return ChunkKeys.covering(bounds.getMin(), bounds.getMax(), MAX_INDEXED_CHUNKS);
+  }
+}
@@ -3,22 +3,20 @@ package tc.oc.pgm.controlpoint;
 import com.google.common.collect.Sets;
 import java.util.Set;
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.EventPriority;
-import org.bukkit.event.Listener;
-import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.util.BlockVector;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.Nullable;
 import tc.oc.pgm.api.filter.Filter;
 import tc.oc.pgm.api.match.Match;
 import tc.oc.pgm.api.player.MatchPlayer;
 import tc.oc.pgm.api.region.Region;
-import tc.oc.pgm.spawns.events.ParticipantDespawnEvent;
 import tc.oc.pgm.util.MatchPlayers;
-import tc.oc.pgm.util.event.PlayerCoarseMoveEvent;
 
-/** Tracks which players are on a control point and answers some queries about them */
-public class RegionPlayerTracker implements Listener {
+/**
+ * Tracks which players are on a control point and answers some queries about them. Kept up to date
+ * by {@link ControlPointOccupancy}.
+ */
+public class RegionPlayerTracker {
   private final Match match;
   private final Set<MatchPlayer> players = Sets.newHashSet();
 
@@ -26,6 +24,8 @@ public class RegionPlayerTracker implements Listener {
   private Region region;
   // A static filter players must match when entering
   private @Nullable Filter staticFilter;
+  // If the region has been replaced since this tracker was created, so its bounds can change
+  private boolean dynamic;
 
   public RegionPlayerTracker(Match match, Region region) {
     this(match, region, null);
@@ -41,38 +41,48 @@ public class RegionPlayerTracker implements Listener {
     return this.players;
   }
 
+  public Region getRegion() {
+    return this.region;
+  }
+
+  /** Whether the region of this tracker has been replaced, and may keep changing */
+  public boolean isDynamic() {
+    return this.dynamic;
+  }
+
   public void setRegion(Region region) {
     this.region = region;
+    this.dynamic = true;
     for (MatchPlayer player : match.getPlayers()) {
       handlePlayerMove(player.getBukkit(), player.getLocation().toVector());
     }
   }
 
-  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
-  public void onPlayerMove(final PlayerCoarseMoveEvent event) {
-    this.handlePlayerMove(event.getPlayer(), event.getTo().toVector());
-  }
-
-  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
-  public void onPlayerTeleport(final PlayerTeleportEvent event) {
-    this.handlePlayerMove(event.getPlayer(), event.getTo().toVector());
-  }
-
   public void handlePlayerMove(Player bukkit, Vector to) {
     MatchPlayer player = this.match.getPlayer(bukkit);
     if (!MatchPlayers.canInteract(player)) return;
 
+    this.handlePlayerMove(player, to.toBlockVector());
+  }
+
+  /**
+   * Add or remove an interacting player, depending on if they are in the region at the given block.
+   *
+   * @return whether the player is now tracked
+   */
+  public boolean handlePlayerMove(MatchPlayer player, BlockVector to) {
     if (!player.getBukkit().isDead()
-        && this.region.contains(to.toBlockVector())
+        && this.region.contains(to)
         && (this.staticFilter == null || this.staticFilter.query(player).isAllowed())) {
       this.players.add(player);
+      return true;
     } else {
       this.players.remove(player);
+      return false;
     }
   }
 
-  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
-  public void onPlayerDespawn(final ParticipantDespawnEvent event) {
-    players.remove(event.getPlayer());
+  public void removePlayer(MatchPlayer player) {
+    players.remove(player);
   }
 }
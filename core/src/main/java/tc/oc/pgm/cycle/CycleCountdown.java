@@ -21,8 +21,9 @@ import tc.oc.pgm.util.text.TextParser;
 public class CycleCountdown extends MatchCountdown {
 
   // Number of seconds before a cycle occurs to start loading the next match.
-  // This eases stress on the main thread when handling lots of players.
-  private int preloadSecs;
+  // This eases stress on the main thread when handling lots of players, and lets the map be
+  // parsed and copied while the countdown runs. Players are only moved once it ends.
+  private int preloadSecs = 5;
 
   private MapInfo nextMap;
   private MatchFactory nextMatch;
@@ -87,6 +88,19 @@ public class CycleCountdown extends MatchCountdown {
     checkSetNext();
   }
 
+  @Override
+  public void onCancel(Duration remaining, Duration total) {
+    super.onCancel(remaining, total);
+    if (nextMatch == null) return;
+
+    // Discard the preloaded match, and give its map back unless another one was picked since
+    nextMatch.cancel(true);
+    nextMatch = null;
+
+    final MapOrder mapOrder = PGM.get().getMapOrder();
+    if (mapOrder.getNextMap() == null) mapOrder.setNextMap(nextMap);
+  }
+
   @Override
   public void onEnd(Duration total) {
     super.onEnd(total);
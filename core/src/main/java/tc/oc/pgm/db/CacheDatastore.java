@@ -60,6 +60,15 @@ public class CacheDatastore implements Datastore {
                 });
   }
 
+  /**
+   * Get the datastore that values are cached from.
+   *
+   * @return The underlying datastore.
+   */
+  public Datastore getDatastore() {
+    return datastore;
+  }
+
   @Override
   public Username getUsername(UUID id) {
     return usernames.getUnchecked(id);
@@ -77,23 +77,22 @@ public class SQLDatastore extends ThreadSafeConnection implements Datastore {
         // Only update names with about over a week of validity
         if (response.getSource() != SqlUsernameResolver.class
             && validUntil.isAfter(Instant.now().plus(ONE_WEEK))) {
-          submitQuery(new UpdateQuery());
+          submitUpdate("usernames/" + id, new UpdateQuery());
         }
       }
     }
 
-    private class UpdateQuery implements Query {
+    private class UpdateQuery implements Update {
       @Override
       public String getFormat() {
         return "REPLACE INTO usernames VALUES (?, ?, ?)";
       }
 
       @Override
-      public void query(PreparedStatement statement) throws SQLException {
+      public void bind(PreparedStatement statement) throws SQLException {
         statement.setString(1, id.toString());
         statement.setString(2, name);
         statement.setLong(3, validUntil.toEpochMilli());
-        statement.executeUpdate();
       }
     }
   }
@@ -116,7 +115,12 @@ public class SQLDatastore extends ThreadSafeConnection implements Datastore {
       super.setValue(key, value);
 
       if (oldBit == getBit()) return;
-      submitQuery(oldBit <= 0 ? new InsertQuery(value) : new UpdateQuery(value));
+      if (oldBit <= 0) {
+        submitUpdate("settings/" + getId(), new InsertQuery());
+      } else {
+        // Only write the bits of this setting, other servers may change other settings
+        submitUpdate("settings/" + getId() + "/" + key.name(), new UpdateQuery(key));
+      }
     }
 
     private class SelectQuery implements Query {
@@ -137,34 +141,25 @@ public class SQLDatastore extends ThreadSafeConnection implements Datastore {
       }
     }
 
-    private class InsertQuery implements Query {
-
-      private final SettingValue value;
-
-      private InsertQuery(SettingValue value) {
-        this.value = value;
-      }
-
+    private class InsertQuery implements Update {
       @Override
       public String getFormat() {
         return "REPLACE INTO settings VALUES (?, ?)";
       }
 
       @Override
-      public void query(PreparedStatement statement) throws SQLException {
+      public void bind(PreparedStatement statement) throws SQLException {
         statement.setString(1, getId().toString());
-        statement.setLong(2, bitSettings(value));
-
-        statement.executeUpdate();
+        statement.setLong(2, getBit());
       }
     }
 
-    private class UpdateQuery implements Query {
+    private class UpdateQuery implements Update {
 
-      private final SettingValue value;
+      private final SettingKey key;
 
-      private UpdateQuery(SettingValue value) {
-        this.value = value;
+      private UpdateQuery(SettingKey key) {
+        this.key = key;
       }
 
       @Override
@@ -173,17 +168,17 @@ public class SQLDatastore extends ThreadSafeConnection implements Datastore {
       }
 
       @Override
-      public void query(PreparedStatement statement) throws SQLException {
-        statement.setLong(2, bitSettings(value));
-        statement.setString(3, getId().toString());
+      public void bind(PreparedStatement statement) throws SQLException {
+        final SettingValue value = getValue(key);
 
-        for (SettingValue unset : value.getKey().getPossibleValues()) {
-          if (unset == value) continue;
-          statement.setLong(1, bitSettings(unset));
-          statement.addBatch();
+        long unset = 0;
+        for (SettingValue other : key.getPossibleValues()) {
+          if (other != value) unset |= bitSettings(other);
         }
 
-        statement.executeBatch();
+        statement.setLong(1, unset);
+        statement.setLong(2, bitSettings(value));
+        statement.setString(3, getId().toString());
       }
     }
   }
@@ -222,7 +217,7 @@ public class SQLDatastore extends ThreadSafeConnection implements Datastore {
     @Override
     public void update(@Nullable String nextMap, boolean active) {
       super.update(nextMap, active);
-      submitQuery(new UpdateQuery());
+      submitUpdate("pools/" + getPoolName(), new UpdateQuery());
     }
 
     private class SelectQuery implements Query {
@@ -246,7 +241,7 @@ public class SQLDatastore extends ThreadSafeConnection implements Datastore {
       }
     }
 
-    private class UpdateQuery implements Query {
+    private class UpdateQuery implements Update {
 
       @Override
       public String getFormat() {
@@ -254,12 +249,10 @@ public class SQLDatastore extends ThreadSafeConnection implements Datastore {
       }
 
       @Override
-      public void query(PreparedStatement statement) throws SQLException {
+      public void bind(PreparedStatement statement) throws SQLException {
         statement.setString(1, getPoolName());
         statement.setString(2, getMapName());
         statement.setBoolean(3, isActive());
-
-        statement.executeUpdate();
       }
     }
   }
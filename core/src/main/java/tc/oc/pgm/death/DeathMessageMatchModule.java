@@ -1,5 +1,7 @@
 package tc.oc.pgm.death;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.BiPredicate;
 import java.util.logging.Logger;
 import net.kyori.adventure.text.Component;
@@ -19,6 +21,7 @@ import tc.oc.pgm.api.player.MatchPlayer;
 import tc.oc.pgm.api.player.event.MatchPlayerDeathEvent;
 import tc.oc.pgm.api.setting.SettingKey;
 import tc.oc.pgm.events.ListenerScope;
+import tc.oc.pgm.util.text.BroadcastRenderer;
 
 @ListenerScope(MatchScope.RUNNING)
 public class DeathMessageMatchModule implements MatchModule, Listener {
@@ -41,6 +44,8 @@ public class DeathMessageMatchModule implements MatchModule, Listener {
     DeathMessageBuilder builder = new DeathMessageBuilder(event, logger);
     Component message = builder.getMessage().color(NamedTextColor.GRAY);
 
+    // Viewers are grouped by how the message is decorated for them, to broadcast each version once
+    List<Player> plain = new ArrayList<>(), bold = new ArrayList<>(), italic = new ArrayList<>();
     for (MatchPlayer viewer : event.getMatch().getPlayers()) {
       boolean involved = event.isInvolved(viewer) || event.isInvolved(viewer.getSpectatorTarget());
       boolean isStaff = event.isTeamKill() && viewer.getBukkit().hasPermission(Permissions.STAFF);
@@ -56,12 +61,17 @@ public class DeathMessageMatchModule implements MatchModule, Listener {
           };
 
       if (show) {
-        var messageToSend = message;
-        if (involved) messageToSend = message.decoration(TextDecoration.BOLD, true);
-        else if (isStaff) messageToSend = message.decoration(TextDecoration.ITALIC, true);
-        viewer.sendMessage(messageToSend);
+        if (involved) bold.add(viewer.getBukkit());
+        else if (isStaff) italic.add(viewer.getBukkit());
+        else plain.add(viewer.getBukkit());
       }
     }
+
+    if (!plain.isEmpty()) BroadcastRenderer.broadcast(plain, message);
+    if (!bold.isEmpty())
+      BroadcastRenderer.broadcast(bold, message.decoration(TextDecoration.BOLD, true));
+    if (!italic.isEmpty())
+      BroadcastRenderer.broadcast(italic, message.decoration(TextDecoration.ITALIC, true));
   }
 
   private boolean isSquadInvolved(Player viewer, MatchPlayerDeathEvent event) {
@@ -1,5 +1,6 @@
 package tc.oc.pgm.features;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -17,6 +18,13 @@ import tc.oc.pgm.util.collection.ContextStore;
 import tc.oc.pgm.util.xml.InvalidXMLException;
 import tc.oc.pgm.util.xml.Node;
 
+/**
+ * The features defined by a map. It is thread-safe, since map modules may be parsed in parallel,
+ * except for {@link #getAll()} which must only be used once parsing is done.
+ *
+ * <p>{@link #getAll(Class)} only copies the definitions while the context is {@link
+ * #setConcurrent(boolean) concurrent}, and otherwise returns a view of them.
+ */
 public class FeatureDefinitionContext extends ContextStore<FeatureDefinition> {
 
   private final Set<FeatureDefinition> definitions = new HashSet<>();
@@ -25,24 +33,26 @@ public class FeatureDefinitionContext extends ContextStore<FeatureDefinition> {
 
   private final List<PendingValidation<?>> validations = new ArrayList<>();
 
+  private volatile boolean concurrent;
+
   public static String parseId(Element node) {
     return node == null ? null : node.getAttributeValue("id");
   }
 
   /** Return the XML element associated with the given feature */
-  public Element getNode(FeatureDefinition definition) {
+  public synchronized Element getNode(FeatureDefinition definition) {
     return definitionNodes.get(definition);
   }
 
   @Override
-  public String add(FeatureDefinition obj) {
+  public synchronized String add(FeatureDefinition obj) {
     String id = super.add(obj);
     definitions.add(obj);
     return id;
   }
 
   @Override
-  public void add(String name, FeatureDefinition obj) {
+  public synchronized void add(String name, FeatureDefinition obj) {
     super.add(name, obj);
     this.definitions.add(obj);
   }
@@ -52,7 +62,8 @@ public class FeatureDefinitionContext extends ContextStore<FeatureDefinition> {
    * retrieve the feature from the context. However, it can still be passed to {@link #getNode} to
    * retrieve the element passed here.
    */
-  public void addFeature(@Nullable Element node, @Nullable String id, FeatureDefinition definition)
+  public synchronized void addFeature(
+      @Nullable Element node, @Nullable String id, FeatureDefinition definition)
       throws InvalidXMLException {
     if (definitions.add(definition)) {
       if (id != null) {
@@ -92,7 +103,7 @@ public class FeatureDefinitionContext extends ContextStore<FeatureDefinition> {
    * Add an {@link XMLFeatureReference} to the internal list of references which are resolved after
    * all modules have loaded.
    */
-  public <T extends XMLFeatureReference<?>> T addReference(T reference) {
+  public synchronized <T extends XMLFeatureReference<?>> T addReference(T reference) {
     references.add(reference);
     return reference;
   }
@@ -156,12 +167,12 @@ public class FeatureDefinitionContext extends ContextStore<FeatureDefinition> {
     return val;
   }
 
-  public <T extends FeatureDefinition> void validate(
+  public synchronized <T extends FeatureDefinition> void validate(
       T definition, FeatureValidation<T> validation, Node node) throws InvalidXMLException {
     validations.add(new PendingValidation<>(definition, validation, node));
   }
 
-  public <T extends FeatureDefinition> void validate(
+  public synchronized <T extends FeatureDefinition> void validate(
       FeatureReference<T> reference, FeatureValidation<T> validation) throws InvalidXMLException {
     validations.add(new PendingValidation<>(reference, validation, reference.getNode()));
   }
@@ -190,9 +201,22 @@ public class FeatureDefinitionContext extends ContextStore<FeatureDefinition> {
     return this.definitions;
   }
 
+  /**
+   * Set whether definitions may be added from other threads, while map modules are parsed in
+   * parallel.
+   */
+  public void setConcurrent(boolean concurrent) {
+    this.concurrent = concurrent;
+  }
+
   @Override
   public <T extends FeatureDefinition> Iterable<T> getAll(Class<T> type) {
-    return Iterables.filter(definitions, type);
+    if (!concurrent) return Iterables.filter(definitions, type);
+
+    // Copied, since modules may be adding definitions in parallel
+    synchronized (this) {
+      return ImmutableList.copyOf(Iterables.filter(definitions, type));
+    }
   }
 
   private static class PendingValidation<T extends FeatureDefinition> {
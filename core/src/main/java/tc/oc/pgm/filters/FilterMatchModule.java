@@ -5,11 +5,14 @@ import static tc.oc.pgm.util.bukkit.MiscUtils.MISC_UTILS;
 import static tc.oc.pgm.util.nms.NMSHacks.NMS_HACKS;
 
 import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Sets;
 import com.google.common.collect.Table;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import java.lang.invoke.MethodHandle;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -35,7 +38,6 @@ import tc.oc.pgm.api.filter.Filter;
 import tc.oc.pgm.api.filter.FilterListener;
 import tc.oc.pgm.api.filter.Filterables;
 import tc.oc.pgm.api.filter.ReactorFactory;
-import tc.oc.pgm.api.filter.query.Query;
 import tc.oc.pgm.api.match.Match;
 import tc.oc.pgm.api.match.MatchModule;
 import tc.oc.pgm.api.match.MatchScope;
@@ -48,7 +50,6 @@ import tc.oc.pgm.api.time.Tick;
 import tc.oc.pgm.events.ListenerScope;
 import tc.oc.pgm.events.PlayerPartyChangeEvent;
 import tc.oc.pgm.flag.event.FlagStateChangeEvent;
-import tc.oc.pgm.util.MapUtils;
 import tc.oc.pgm.util.MethodHandleUtils;
 import tc.oc.pgm.util.collection.ContextStore;
 import tc.oc.pgm.util.event.PlayerCoarseMoveEvent;
@@ -92,21 +93,90 @@ public class FilterMatchModule implements MatchModule, FilterDispatcher, Tickabl
   public FilterMatchModule(Match match, ContextStore<? super Filter> filterContext) {
     this.match = match;
     this.filterContext = filterContext;
+    this.filterIds.defaultReturnValue(-1);
+    this.filterableIds.defaultReturnValue(-1);
   }
 
   private static class ListenerSet {
     final Set<FilterListener<?>> rise = new HashSet<>();
     final Set<FilterListener<?>> fall = new HashSet<>();
+
+    // Array copies of the sets, so dispatching does not allocate iterators
+    FilterListener<?>[] riseArray;
+    FilterListener<?>[] fallArray;
   }
 
+  private static final FilterListener<?>[] NO_LISTENERS = new FilterListener<?>[0];
+
+  private static final byte RESPONSE_UNKNOWN = -1, RESPONSE_FALSE = 0, RESPONSE_TRUE = 1;
+
   private final Table<Filter, Class<? extends Filterable<?>>, ListenerSet> listeners =
       HashBasedTable.create();
 
-  // Most recent responses for each filter with listeners (used to detect changes)
-  private final Table<Filter, Filterable<?>, Boolean> lastResponses = HashBasedTable.create();
-
-  // Filterables that need a check in the next tick (cleared every tick)
-  private final Set<Filterable<?>> dirtySet = new HashSet<>();
+  // Filters with listeners, indexed by an id given when they are first registered
+  private final List<Filter> filters = new ArrayList<>();
+  private final Object2IntMap<Filter> filterIds = new Object2IntOpenHashMap<>();
+
+  // Ids of every filter with listeners, used to mark a filterable as dirty for all filters
+  private final BitSet allFilters = new BitSet();
+
+  // Filters with listeners that may change their response when the given event is fired
+  private final Map<Class<? extends Event>, BitSet> filtersByEvent = new HashMap<>();
+
+  // Filters with listeners that may change their response on an event of the given runtime type
+  private final Map<Class<?>, BitSet> filtersByEventType = new HashMap<>();
+
+  // Filters with listeners that depend on the given filter, including itself (lazily computed)
+  private final Map<Filter, BitSet> dependentFilters = new HashMap<>();
+
+  // For each scope in Filterables#SCOPES, ids of the filters with listeners in that scope and the
+  // listeners indexed by filter id. Rebuilt when listeners are registered.
+  private int[][] scopeFilters;
+  private ListenerSet[][] scopeListeners;
+
+  // Filterables seen by this module, indexed by an id given when they are first seen. Ids
+  // are released when players leave the match, and reused.
+  private final Object2IntMap<Filterable<?>> filterableIds = new Object2IntOpenHashMap<>();
+  private final IntArrayList freeFilterableIds = new IntArrayList();
+  private Filterable<?>[] filterables = new Filterable<?>[16];
+  // Bitmask of the scopes in Filterables#SCOPES that each filterable belongs to
+  private int[] filterableScopes = new int[16];
+  // Filters that need a check in the next tick for each filterable (cleared every tick)
+  private BitSet[] dirtyFilters = new BitSet[16];
+  // Most recent responses of each filter with listeners for each filterable (used to detect
+  // changes). A response is only meaningful if the filter is also set in respondedFilters.
+  private BitSet[] respondedFilters = new BitSet[16];
+  private BitSet[] responses = new BitSet[16];
+  // Whether each filterable is in the dirty queue, and the last check round it was checked in
+  private boolean[] queued = new boolean[16];
+  private int[] checkedRound = new int[16];
+  private int round;
+
+  // Ids of the filterables that need a check in the next tick
+  private final IntArrayList dirtyQueue = new IntArrayList();
+
+  // Scratch buffers reused by every tick, so a steady state tick does not allocate
+  private final IntArrayList checking = new IntArrayList();
+  private final BitSet checkingFilters = new BitSet();
+  private final List<Filterable<?>> dispatchFilterables = new ArrayList<>();
+  // (scope index, filter id, response) for each dispatch in dispatchFilterables
+  private final IntArrayList dispatches = new IntArrayList();
+  // Responses of each filter before and after the current check, and the check they belong to
+  private byte[] beforeResponses = new byte[0];
+  private boolean[] afterResponses = new boolean[0];
+  private int[] evaluatedIn = new int[0];
+  private int lastCheckId;
+
+  // If a tick has been posted to the main thread for player movement and not run yet
+  private boolean movementTickPosted;
+  private final Runnable movementTick =
+      () -> {
+        movementTickPosted = false;
+        tick();
+      };
+
+  // Number of filter evaluations done by the last tick, for debugging
+  private int evaluations;
 
   // cleanup players from onPartyChange for non SportPaper servers
   private Set<MatchPlayer> nonSportCleanUpSet = new HashSet<>();
@@ -125,6 +195,13 @@ public class FilterMatchModule implements MatchModule, FilterDispatcher, Tickabl
         .getAll(Filter.class)
         .forEach(this::findAndCreateReactorFactories);
 
+    // Index which filters each event can affect, so events only invalidate those filters
+    for (Filter filter : this.listeners.rowKeySet()) {
+      for (Class<? extends Event> event : filter.getRelevantEvents()) {
+        this.filtersByEvent.computeIfAbsent(event, e -> new BitSet()).set(filterIds.getInt(filter));
+      }
+    }
+
     // Then register all event listeners
     this.listeners
         .rowKeySet()
@@ -216,6 +293,38 @@ public class FilterMatchModule implements MatchModule, FilterDispatcher, Tickabl
         this.listeners.row(filter).computeIfAbsent(scope, s -> new ListenerSet());
 
     (response ? listenerSet.rise : listenerSet.fall).add(listener);
+
+    if (!filterIds.containsKey(filter)) {
+      filterIds.put(filter, filters.size());
+      allFilters.set(filters.size());
+      filters.add(filter);
+    }
+    this.scopeFilters = null;
+  }
+
+  /** Build the per-scope arrays of filters and listeners used by {@link #check(int)} */
+  private void compileListeners() {
+    final int scopeCount = Filterables.SCOPES.size();
+    this.scopeFilters = new int[scopeCount][];
+    this.scopeListeners = new ListenerSet[scopeCount][filters.size()];
+
+    for (int s = 0; s < scopeCount; s++) {
+      final IntArrayList ids = new IntArrayList();
+      for (int id = 0; id < filters.size(); id++) {
+        final ListenerSet set = this.listeners.get(filters.get(id), Filterables.SCOPES.get(s));
+        if (set == null) continue;
+
+        set.riseArray = set.rise.toArray(NO_LISTENERS);
+        set.fallArray = set.fall.toArray(NO_LISTENERS);
+        scopeListeners[s][id] = set;
+        ids.add(id);
+      }
+      scopeFilters[s] = ids.toIntArray();
+    }
+
+    this.beforeResponses = new byte[filters.size()];
+    this.afterResponses = new boolean[filters.size()];
+    this.evaluatedIn = new int[filters.size()];
   }
 
   /**
@@ -286,7 +395,14 @@ public class FilterMatchModule implements MatchModule, FilterDispatcher, Tickabl
 
   /** Returns the last response a given filter gave to a given filterable */
   private boolean lastResponse(Filter filter, Filterable<?> filterable) {
-    return MapUtils.computeIfAbsent(this.lastResponses.row(filter), filterable, filter::response);
+    final int id = getFilterableId(filterable);
+    final int filterId = filterIds.getInt(filter);
+
+    if (!respondedFilters[id].get(filterId)) {
+      respondedFilters[id].set(filterId);
+      responses[id].set(filterId, filter.response(filterable));
+    }
+    return responses[id].get(filterId);
   }
 
   /**
@@ -316,72 +432,89 @@ public class FilterMatchModule implements MatchModule, FilterDispatcher, Tickabl
   }
 
   /**
-   * Checks the response for a query for all filters that fits a scope, if any response is different
-   * than the last cached response and the filter cares about the change a runnable where the
-   * dispatching of the new response is done is created and stored in the provided list.
+   * Checks the response of the dirty filters for a filterable, in every scope it applies to. If any
+   * response is different than the last cached response and the filter cares about the change, the
+   * dispatch of the new response is queued in {@link #dispatches}.
    *
-   * @param filterable the scope for this check
-   * @param query the query to check against some filters
-   * @param dispatches will get a runnable for each matching filter that has a new response
+   * @param id the id of the filterable to check
    */
-  private <F extends Filterable<?>, Q extends Query> void check(
-      F filterable, Q query, List<Runnable> dispatches) {
-    final Map<Filter, Boolean> beforeCache = new HashMap<>();
-    final Map<Filter, Boolean> afterCache = this.lastResponses.column(filterable);
+  private void check(int id) {
+    final Filterable<?> filterable = filterables[id];
+
+    // Take the dirty filters, so invalidations from here on are handled by a later check
+    checkingFilters.clear();
+    checkingFilters.or(dirtyFilters[id]);
+    dirtyFilters[id].clear();
+    queued[id] = false;
+
+    if (filterable == null || checkingFilters.isEmpty()) return;
+
+    final int checkId = ++lastCheckId;
+    final int scopes = filterableScopes[id];
+    final BitSet responded = respondedFilters[id];
+    final BitSet responses = this.responses[id];
 
     // For each scope that the given filterable applies to
-    this.listeners
-        .columnMap()
-        .forEach(
-            (scope, column) -> {
-              if (scope.isInstance(filterable)) {
-                // For each filter in this scope
-                column.forEach(
-                    (filter, filterListeners) -> {
-                      final Boolean before;
-                      final boolean after;
-                      if (beforeCache.containsKey(filter)) {
-                        // If the filter has already been checked, we have both responses saved.
-                        before = beforeCache.get(filter);
-                        after = afterCache.get(filter);
-                      } else {
-                        // The first time a particular filter is checked, move the old response to
-                        // a local temporary cache and save the new response to the permanent cache.
-                        before = afterCache.get(filter);
-                        beforeCache.put(filter, before);
-                        after = filter.response(query);
-                        afterCache.put(filter, after);
-                      }
-
-                      if (before == null || before != after) {
-                        dispatches.add(
-                            () ->
-                                (after ? filterListeners.rise : filterListeners.fall)
-                                    .forEach(
-                                        listener ->
-                                            dispatch(
-                                                (FilterListener<? super F>) listener,
-                                                filter,
-                                                filterable,
-                                                after)));
-                      }
-                    });
-              }
-            });
+    for (int s = 0; s < scopeFilters.length; s++) {
+      if ((scopes & (1 << s)) == 0) continue;
+
+      // For each dirty filter in this scope
+      for (int filterId : scopeFilters[s]) {
+        if (!checkingFilters.get(filterId)) continue;
+
+        final byte before;
+        final boolean after;
+        if (evaluatedIn[filterId] == checkId) {
+          // If the filter has already been checked, we have both responses saved.
+          before = beforeResponses[filterId];
+          after = afterResponses[filterId];
+        } else {
+          // The first time a particular filter is checked, move the old response to the scratch
+          // buffer and save the new response to the permanent cache.
+          before =
+              !responded.get(filterId)
+                  ? RESPONSE_UNKNOWN
+                  : responses.get(filterId) ? RESPONSE_TRUE : RESPONSE_FALSE;
+          after = filters.get(filterId).response(filterable);
+          evaluations++;
+          responded.set(filterId);
+          responses.set(filterId, after);
+
+          evaluatedIn[filterId] = checkId;
+          beforeResponses[filterId] = before;
+          afterResponses[filterId] = after;
+        }
+
+        if (before != (after ? RESPONSE_TRUE : RESPONSE_FALSE)) {
+          dispatchFilterables.add(filterable);
+          dispatches.add(s);
+          dispatches.add(filterId);
+          dispatches.add(after ? 1 : 0);
+        }
+      }
+    }
   }
 
-  /**
-   * Checks the response for a query for all filters that fits a scope. If the response is different
-   * from the last cached response and the filters cares about the change the responses are
-   * dispatched to all the filters after the check is done.
-   *
-   * @param filterable the scope for this check
-   * @param query the query to check against some filters
-   */
-  private <F extends Filterable<?>, Q extends Query> void check(F filterable, Q query) {
-    final List<Runnable> dispatches = new ArrayList<>();
-    check(filterable, query, dispatches);
-    dispatches.forEach(Runnable::run);
+  /** Dispatch and clear the responses queued by {@link #check(int)} */
+  @SuppressWarnings("unchecked")
+  private void dispatchAll() {
+    for (int i = 0; i < dispatchFilterables.size(); i++) {
+      final Filterable<?> filterable = dispatchFilterables.get(i);
+      final int scope = dispatches.getInt(i * 3);
+      final int filterId = dispatches.getInt(i * 3 + 1);
+      final boolean response = dispatches.getInt(i * 3 + 2) != 0;
+
+      final ListenerSet set = scopeListeners[scope][filterId];
+      for (FilterListener<?> listener : response ? set.riseArray : set.fallArray) {
+        dispatch(
+            (FilterListener<Filterable<?>>) listener,
+            filters.get(filterId),
+            filterable,
+            response);
+      }
+    }
+    dispatchFilterables.clear();
+    dispatches.clear();
   }
 
   @Override
@@ -395,43 +528,172 @@ public class FilterMatchModule implements MatchModule, FilterDispatcher, Tickabl
     // Always empty when the server is running sportpaper
     if (!nonSportCleanUpSet.isEmpty()) {
       for (MatchPlayer matchPlayer : nonSportCleanUpSet) {
-        dirtySet.remove(matchPlayer);
-        this.lastResponses.columnKeySet().remove(matchPlayer);
+        release(matchPlayer);
       }
       nonSportCleanUpSet.clear();
     }
 
-    final Set<Filterable<?>> checked = new HashSet<>();
-    Set<Filterable<?>> checking;
-    // Collect Filterables that are dirty, and have not already been checked in this tick
-    while (!(checking = ImmutableSet.copyOf(Sets.difference(dirtySet, checked))).isEmpty()) {
-      // Remove what we are about to check from the dirty set, and add them to the checked set
-      dirtySet.removeAll(checking);
-      checked.addAll(checking);
+    if (dirtyQueue.isEmpty()) return;
+    if (scopeFilters == null) compileListeners();
+
+    evaluations = 0;
+    int checked = 0;
+
+    final int currentRound = ++round;
+    while (true) {
+      // Collect Filterables that are dirty, and have not already been checked in this tick.
+      // Those that have been checked stay in the queue until the next tick.
+      checking.clear();
+      int kept = 0;
+      for (int i = 0; i < dirtyQueue.size(); i++) {
+        final int id = dirtyQueue.getInt(i);
+        if (checkedRound[id] != currentRound) {
+          checkedRound[id] = currentRound;
+          checking.add(id);
+        } else {
+          dirtyQueue.set(kept++, id);
+        }
+      }
+      dirtyQueue.size(kept);
+      if (checking.isEmpty()) break;
+      checked += checking.size();
 
-      // Do all the filter checks and collect the notifications in a list to dispatch afterward.
+      // Do all the filter checks and collect the notifications to dispatch afterward.
       // This prevents listeners from altering the results of filters for other listeners that
       // were invalidated at the same time.
-      final List<Runnable> dispatches = new ArrayList<>();
-      checking.forEach(f -> check(f, f, dispatches));
+      for (int i = 0; i < checking.size(); i++) {
+        check(checking.getInt(i));
+      }
 
       // The Listeners might invalidate more Filterables, which is why we have to loop around
-      // and empty the dirtySet again after this. We keep looping until there is nothing more
+      // and empty the dirty queue again after this. We keep looping until there is nothing more
       // we can check in this tick. If they invalidate something that has already been checked
-      // in this tick, it will remain in the dirtySet until the next tick.
-      dispatches.forEach(Runnable::run);
+      // in this tick, it will remain in the dirty queue until the next tick.
+      dispatchAll();
+    }
+
+    if (evaluations > 0 && match.getLogger().isLoggable(Level.FINER)) {
+      match
+          .getLogger()
+          .finer("Evaluated " + evaluations + " filters for " + checked + " filterables");
     }
   }
 
+  /** Mark the filterable and its children as needing a check of every filter */
   public void invalidate(Filterable<?> filterable) {
-    if (dirtySet.add(Objects.requireNonNull(filterable))) {
-      filterable.getFilterableChildren().forEach(this::invalidate);
-    }
+    invalidate(filterable, allFilters);
   }
 
-  /** TODO: optimize using the filter parameter */
+  /**
+   * Mark the filterable and its children as needing a check of the given filter, and every filter
+   * with listeners that depends on it.
+   */
   public void invalidate(Filter filter, Filterable<?> filterable) {
-    invalidate(filterable);
+    BitSet dependents = dependentFilters.get(filter);
+    if (dependents == null) dependentFilters.put(filter, dependents = findDependentFilters(filter));
+    invalidate(filterable, dependents);
+  }
+
+  /** Mark the filterable and its children as needing a check of the filters the event affects */
+  private void invalidate(Event event, Filterable<?> filterable) {
+    BitSet eventFilters = filtersByEventType.get(event.getClass());
+    if (eventFilters == null) {
+      filtersByEventType.put(event.getClass(), eventFilters = findEventFilters(event.getClass()));
+    }
+    invalidate(filterable, eventFilters);
+  }
+
+  private void invalidate(Filterable<?> filterable, BitSet filters) {
+    final int id = getFilterableId(Objects.requireNonNull(filterable));
+    final BitSet dirty = dirtyFilters[id];
+
+    // Children were already invalidated for these filters along with this filterable
+    if (!containsNew(dirty, filters)) return;
+
+    dirty.or(filters);
+    if (!queued[id]) {
+      queued[id] = true;
+      dirtyQueue.add(id);
+    }
+
+    for (Filterable<?> child : filterable.getFilterableChildren()) {
+      invalidate(child, filters);
+    }
+  }
+
+  /** Check if any of the bits is not set in the target */
+  private static boolean containsNew(BitSet target, BitSet bits) {
+    for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+      if (!target.get(i)) return true;
+    }
+    return false;
+  }
+
+  private BitSet findEventFilters(Class<?> eventType) {
+    final BitSet filters = new BitSet();
+    filtersByEvent.forEach(
+        (event, eventFilters) -> {
+          if (event.isAssignableFrom(eventType)) filters.or(eventFilters);
+        });
+    return filters;
+  }
+
+  private BitSet findDependentFilters(Filter filter) {
+    final BitSet dependents = new BitSet();
+    for (int id = 0; id < filters.size(); id++) {
+      if (filters.get(id).deepDependencies(Filter.class).anyMatch(filter::equals)) {
+        dependents.set(id);
+      }
+    }
+    return dependents;
+  }
+
+  /** Get the id of the filterable, giving it one if it has none */
+  private int getFilterableId(Filterable<?> filterable) {
+    int id = filterableIds.getInt(filterable);
+    if (id >= 0) return id;
+
+    if (!freeFilterableIds.isEmpty()) {
+      id = freeFilterableIds.popInt();
+    } else {
+      id = filterableIds.size();
+      if (id >= filterables.length) {
+        final int length = filterables.length * 2;
+        filterables = Arrays.copyOf(filterables, length);
+        filterableScopes = Arrays.copyOf(filterableScopes, length);
+        dirtyFilters = Arrays.copyOf(dirtyFilters, length);
+        respondedFilters = Arrays.copyOf(respondedFilters, length);
+        responses = Arrays.copyOf(responses, length);
+        queued = Arrays.copyOf(queued, length);
+        checkedRound = Arrays.copyOf(checkedRound, length);
+      }
+      dirtyFilters[id] = new BitSet();
+      respondedFilters[id] = new BitSet();
+      responses[id] = new BitSet();
+    }
+
+    int scopes = 0;
+    for (int s = 0; s < Filterables.SCOPES.size(); s++) {
+      if (Filterables.SCOPES.get(s).isInstance(filterable)) scopes |= 1 << s;
+    }
+
+    filterableIds.put(filterable, id);
+    filterables[id] = filterable;
+    filterableScopes[id] = scopes;
+    return id;
+  }
+
+  /** Forget everything about a filterable that is leaving the match, and release its id */
+  private void release(Filterable<?> filterable) {
+    final int id = filterableIds.removeInt(filterable);
+    if (id < 0) return;
+
+    // The id may still be in the dirty queue, where it will be skipped or reused
+    filterables[id] = null;
+    dirtyFilters[id].clear();
+    respondedFilters[id].clear();
+    responses[id].clear();
+    freeFilterableIds.add(id);
   }
 
   private void registerListenersFor(Collection<Class<? extends Event>> relevantEvents) {
@@ -466,10 +728,10 @@ public class FilterMatchModule implements MatchModule, FilterDispatcher, Tickabl
                 final Object o = handle.invoke(e);
                 if (o instanceof Player) {
                   MatchPlayer mp = this.match.getPlayer((Player) o);
-                  if (mp != null) invalidate(mp);
+                  if (mp != null) invalidate(e, mp);
                   else match.getLogger().warning("MatchPlayer not found for player " + o);
                 } else if (o instanceof Filterable) {
-                  this.invalidate((Filterable<?>) o);
+                  this.invalidate(e, (Filterable<?>) o);
                 } else {
                   throw new IllegalStateException(
                       "A cached MethodHandle returned a non-expected type. Was: " + o.getClass());
@@ -497,17 +759,22 @@ public class FilterMatchModule implements MatchModule, FilterDispatcher, Tickabl
     MatchPlayer player = match.getPlayer(event.getPlayer());
 
     if (player != null) {
-      this.invalidate(player);
-      NMS_HACKS.postToMainThread(PGM.get(), true, this::tick);
+      this.invalidate(event, player);
+
+      // Several moves before the posted tick runs are all handled by it
+      if (!movementTickPosted) {
+        movementTickPosted = true;
+        NMS_HACKS.postToMainThread(PGM.get(), true, movementTick);
+      }
     }
   }
 
   public void onPlayerDeath(MatchPlayerDeathEvent event) {
-    invalidate(event.getVictim());
+    invalidate(event, event.getVictim());
     ParticipantState killer = event.getKiller();
 
     if (killer != null && killer.getPlayer().isPresent()) {
-      invalidate(killer.getPlayer().get());
+      invalidate(event, killer.getPlayer().get());
     }
   }
 
@@ -522,6 +789,7 @@ public class FilterMatchModule implements MatchModule, FilterDispatcher, Tickabl
       //
       // Example: a countdown filter with a bossbar doesn't delete the bossbar if you /cycle 0 -f,
       // due to the player matching the filter even while the player is leaving that match.
+      final int id = filterableIds.getInt(event.getPlayer());
       this.listeners
           .columnMap()
           .forEach(
@@ -531,8 +799,10 @@ public class FilterMatchModule implements MatchModule, FilterDispatcher, Tickabl
                   column.forEach(
                       (filter, filterListeners) -> {
                         // If player joined very recently, they may not have a cached response yet
-                        final Boolean response = this.lastResponses.get(filter, event.getPlayer());
-                        if (response != null && response) {
+                        final int filterId = filterIds.getInt(filter);
+                        if (id >= 0
+                            && respondedFilters[id].get(filterId)
+                            && responses[id].get(filterId)) {
                           filterListeners.fall.forEach(
                               listener ->
                                   dispatch(
@@ -547,8 +817,7 @@ public class FilterMatchModule implements MatchModule, FilterDispatcher, Tickabl
 
       if (MISC_UTILS.yield(event)) {
         // Wait until after the event to remove them, in case they get invalidated during the event.
-        dirtySet.remove(event.getPlayer());
-        this.lastResponses.columnKeySet().remove(event.getPlayer());
+        release(event.getPlayer());
       } else {
         // Clean up at the start of the next tick. Most platforms don't include event.yield()
         nonSportCleanUpSet.add(event.getPlayer());
@@ -557,7 +826,7 @@ public class FilterMatchModule implements MatchModule, FilterDispatcher, Tickabl
   }
 
   public void onFlagStateChange(FlagStateChangeEvent event) {
-    this.invalidate(match);
+    this.invalidate(event, match);
   }
 
   /**
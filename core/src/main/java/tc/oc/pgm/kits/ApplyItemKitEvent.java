@@ -9,6 +9,10 @@ import tc.oc.pgm.api.player.MatchPlayer;
  * Fired when an {@link ItemKit} is applied to a player. The kit can be modified through the
  * containers returned by the various getter methods. Note that {@link ArmorKit}s fire a generic
  * {@link ApplyKitEvent}, not this one.
+ *
+ * <p>The items of the kit already have the modifications for the player's party applied (eg:
+ * team-colors), so listeners see the items the player will get. Items added by listeners are
+ * modified once the event is done.
  */
 public class ApplyItemKitEvent extends ApplyKitEvent {
   private final Map<Slot, ItemStack> slotItems;
@@ -17,15 +21,29 @@ public class ApplyItemKitEvent extends ApplyKitEvent {
 
   public ApplyItemKitEvent(
       MatchPlayer player, ItemKit kit, boolean force, List<ItemStack> displacedItems) {
+    this(player, kit, force, displacedItems, kit.getSlotItems(), kit.getFreeItems());
+  }
+
+  /**
+   * Create an event that applies the given items instead of the ones of the kit, such as the items
+   * of the kit already modified for the player's party. The items are copied.
+   */
+  public ApplyItemKitEvent(
+      MatchPlayer player,
+      ItemKit kit,
+      boolean force,
+      List<ItemStack> displacedItems,
+      Map<Slot, ItemStack> slotItems,
+      List<ItemStack> freeItems) {
     super(player, kit, force);
 
-    this.slotItems = new HashMap<>(kit.getSlotItems().size());
-    for (Map.Entry<Slot, ItemStack> entry : kit.getSlotItems().entrySet()) {
+    this.slotItems = new HashMap<>(slotItems.size());
+    for (Map.Entry<Slot, ItemStack> entry : slotItems.entrySet()) {
       this.slotItems.put(entry.getKey(), entry.getValue().clone());
     }
 
-    this.freeItems = new ArrayList<>(kit.getFreeItems().size());
-    for (ItemStack stack : kit.getFreeItems()) {
+    this.freeItems = new ArrayList<>(freeItems.size());
+    for (ItemStack stack : freeItems) {
       this.freeItems.add(stack.clone());
     }
     this.displacedItems = displacedItems;
@@ -3,12 +3,14 @@ package tc.oc.pgm.kits;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import org.bukkit.entity.HumanEntity;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
+import tc.oc.pgm.api.party.Party;
 import tc.oc.pgm.api.player.MatchPlayer;
 import tc.oc.pgm.kits.tag.ItemModifier;
 import tc.oc.pgm.util.inventory.InventoryUtils;
@@ -54,6 +56,31 @@ public class ItemKit implements KitDefinition {
     return Iterables.concat(slotItems.values(), freeItems);
   }
 
+  /** Copy the items of this kit and apply the modifications for a party (eg: team-colors). */
+  public Template compile(Party party) {
+    ImmutableMap.Builder<Slot, ItemStack> slotted = ImmutableMap.builder();
+    for (Entry<Slot, ItemStack> entry : slotItems.entrySet()) {
+      slotted.put(entry.getKey(), modify(entry.getValue(), party));
+    }
+
+    ImmutableList.Builder<ItemStack> free = ImmutableList.builder();
+    for (ItemStack item : freeItems) {
+      free.add(modify(item, party));
+    }
+    return new Template(slotted.build(), free.build());
+  }
+
+  private static ItemStack modify(ItemStack item, Party party) {
+    ItemStack modified = item.clone();
+    ItemModifier.apply(modified, party);
+    return modified;
+  }
+
+  private Template getTemplate(MatchPlayer player) {
+    KitMatchModule kits = player.getMatch().getModule(KitMatchModule.class);
+    return kits != null ? kits.getTemplate(this, player.getParty()) : compile(player.getParty());
+  }
+
   /**
    * If force is true, the kit will replace any items in the player's inventory that conflict with
    * the kit, otherwise a smart algorithm is used to fill existing stacks and repair tools.
@@ -63,7 +90,10 @@ public class ItemKit implements KitDefinition {
    */
   @Override
   public void apply(MatchPlayer player, boolean force, List<ItemStack> displacedItems) {
-    ApplyItemKitEvent event = new ApplyItemKitEvent(player, this, force, displacedItems);
+    // Items come with all item modifications (eg: team-colors) already applied
+    final Template template = getTemplate(player);
+    ApplyItemKitEvent event = new ApplyItemKitEvent(
+        player, this, force, displacedItems, template.slotItems, template.freeItems);
     player.getMatch().callEvent(event);
     if (event.isCancelled()) {
       return;
@@ -72,12 +102,15 @@ public class ItemKit implements KitDefinition {
     final HumanEntity holder = player.getBukkit();
     final PlayerInventory inv = player.getBukkit().getInventory();
 
-    // Apply all item modifications (eg: team-colors)
+    // Apply item modifications to items added by listeners, template items were already modified
     for (ItemStack item : event.getItems()) {
       ItemModifier.apply(item, player);
     }
 
-    if (force) {
+    if ((force || isEmpty(inv)) && isFixedPlayerSlots(event.getSlotItems().keySet())) {
+      // Nothing to merge with, so the whole inventory can be written at once
+      putItems(inv, event.getSlotItems(), force);
+    } else if (force) {
       for (Entry<Slot, ItemStack> kitEntry : event.getSlotItems().entrySet()) {
         kitEntry.getKey().putItem(holder, kitEntry.getValue().clone());
       }
@@ -154,6 +187,45 @@ public class ItemKit implements KitDefinition {
     displacedItems.addAll(event.getFreeItems());
   }
 
+  private static boolean isEmpty(PlayerInventory inv) {
+    for (ItemStack item : inv.getContents()) {
+      if (!InventoryUtils.isNothing(item)) return false;
+    }
+    for (ItemStack item : inv.getArmorContents()) {
+      if (!InventoryUtils.isNothing(item)) return false;
+    }
+    return true;
+  }
+
+  private static boolean isFixedPlayerSlots(Collection<Slot> slots) {
+    for (Slot slot : slots) {
+      if (!(slot instanceof Slot.Player) || slot.isAuto()) return false;
+    }
+    return true;
+  }
+
+  private static void putItems(PlayerInventory inv, Map<Slot, ItemStack> items, boolean force) {
+    // Depending on the platform, armor is either part of the contents or only of the armor
+    ItemStack[] contents = inv.getContents();
+    ItemStack[] armor = null;
+
+    for (Entry<Slot, ItemStack> entry : items.entrySet()) {
+      ItemStack item = entry.getValue();
+      if (!force && item.getAmount() <= 0) continue;
+
+      int index = entry.getKey().getIndex();
+      if (index < contents.length) {
+        contents[index] = item;
+      } else {
+        if (armor == null) armor = inv.getArmorContents();
+        armor[index - contents.length] = item;
+      }
+    }
+
+    inv.setContents(contents);
+    if (armor != null) inv.setArmorContents(armor);
+  }
+
   @Override
   public void applyLeftover(MatchPlayer player, List<ItemStack> leftover) {
     if (!dropOverflow || leftover.isEmpty()) return;
@@ -170,4 +242,23 @@ public class ItemKit implements KitDefinition {
   public void remove(MatchPlayer player) {
     throw new UnsupportedOperationException(this + " is not removable");
   }
+
+  /** The items of an {@link ItemKit}, already modified for a party. They must not be changed. */
+  public static class Template {
+    private final ImmutableMap<Slot, ItemStack> slotItems;
+    private final ImmutableList<ItemStack> freeItems;
+
+    private Template(ImmutableMap<Slot, ItemStack> slotItems, ImmutableList<ItemStack> freeItems) {
+      this.slotItems = slotItems;
+      this.freeItems = freeItems;
+    }
+
+    public ImmutableMap<Slot, ItemStack> getSlotItems() {
+      return slotItems;
+    }
+
+    public ImmutableList<ItemStack> getFreeItems() {
+      return freeItems;
+    }
+  }
 }
@@ -3,6 +3,9 @@ package tc.oc.pgm.kits;
 import static net.kyori.adventure.text.Component.translatable;
 import static tc.oc.pgm.util.bukkit.MiscUtils.MISC_UTILS;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import org.bukkit.Material;
 import org.bukkit.entity.HumanEntity;
@@ -23,6 +26,8 @@ import tc.oc.pgm.api.match.Match;
 import tc.oc.pgm.api.match.MatchModule;
 import tc.oc.pgm.api.match.MatchScope;
 import tc.oc.pgm.api.module.exception.ModuleLoadException;
+import tc.oc.pgm.api.party.Party;
+import tc.oc.pgm.api.party.event.PartyRemoveEvent;
 import tc.oc.pgm.api.player.MatchPlayer;
 import tc.oc.pgm.events.ListenerScope;
 import tc.oc.pgm.filters.FilterMatchModule;
@@ -35,14 +40,25 @@ public class KitMatchModule implements MatchModule, Listener {
 
   private final Match match;
   private final Set<KitRule> kitRules;
+  private final Collection<ItemKit> itemKits;
+  // Items of each kit already modified for each party, so they are not modified on every spawn
+  private final Map<ItemKit, Map<Party, ItemKit.Template>> templates = new HashMap<>();
 
-  public KitMatchModule(Match match, Set<KitRule> kitRules) {
+  public KitMatchModule(Match match, Set<KitRule> kitRules, Collection<ItemKit> itemKits) {
     this.match = match;
     this.kitRules = kitRules;
+    this.itemKits = itemKits;
   }
 
   @Override
   public void load() throws ModuleLoadException {
+    // Parties that join later, like free-for-all tributes, are compiled on their first spawn
+    for (ItemKit kit : itemKits) {
+      for (Party party : match.getParties()) {
+        getTemplate(kit, party);
+      }
+    }
+
     FilterMatchModule fmm = match.needModule(FilterMatchModule.class);
 
     for (KitRule kitRule : kitRules) {
@@ -69,6 +85,24 @@ public class KitMatchModule implements MatchModule, Listener {
     }
   }
 
+  @Override
+  public void unload() {
+    templates.clear();
+  }
+
+  ItemKit.Template getTemplate(ItemKit kit, Party party) {
+    return templates
+        .computeIfAbsent(kit, k -> new HashMap<>())
+        .computeIfAbsent(party, kit::compile);
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPartyRemove(PartyRemoveEvent event) {
+    for (Map<Party, ItemKit.Template> partyTemplates : templates.values()) {
+      partyTemplates.remove(event.getParty());
+    }
+  }
+
   private boolean isLocked(ItemStack item) {
     return item != null && ItemTags.LOCKED.has(item);
   }
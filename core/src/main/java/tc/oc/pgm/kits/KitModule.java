@@ -4,8 +4,10 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.logging.Logger;
 import org.bukkit.Material;
@@ -35,6 +37,7 @@ public class KitModule implements MapModule<KitMatchModule> {
 
   private static final MapTag TNT = new MapTag("tnt", "TNT");
   private final Set<KitRule> kitRules;
+  private final List<ItemKit> itemKits = new ArrayList<>();
   private boolean hasTnt;
 
   public KitModule(Set<KitRule> kitRules) {
@@ -54,7 +57,7 @@ public class KitModule implements MapModule<KitMatchModule> {
 
   @Override
   public KitMatchModule createMatchModule(Match match) {
-    return new KitMatchModule(match, kitRules);
+    return new KitMatchModule(match, kitRules, itemKits);
   }
 
   @Override
@@ -69,6 +72,11 @@ public class KitModule implements MapModule<KitMatchModule> {
       return ImmutableList.of(ActionModule.class, TeamModule.class);
     }
 
+    @Override
+    public boolean canParseInParallel() {
+      return true;
+    }
+
     @Override
     public KitModule parse(MapFactory factory, Logger logger, Document doc)
         throws InvalidXMLException {
@@ -110,6 +118,7 @@ public class KitModule implements MapModule<KitMatchModule> {
       // Apply any item-mods rules to item kits
       if (kit instanceof ItemKit) {
         ItemKit itKit = (ItemKit) kit;
+        itemKits.add(itKit);
         for (ItemStack is : Iterables.concat(itKit.getSlotItems().values(), itKit.getFreeItems())) {
           if (!hasTnt && is.getType() == Material.TNT && is.getAmount() >= 16) {
             hasTnt = true;
@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import org.bukkit.Color;
 import org.bukkit.FireworkEffect;
@@ -71,7 +72,8 @@ import tc.oc.pgm.util.xml.XMLUtils;
 
 public abstract class KitParser {
   protected final MapFactory factory;
-  protected final Set<Kit> kits = new HashSet<>();
+  // Kits are parsed by modules that may be running in parallel
+  protected final Set<Kit> kits = ConcurrentHashMap.newKeySet();
 
   public KitParser(MapFactory factory) {
     this.factory = factory;
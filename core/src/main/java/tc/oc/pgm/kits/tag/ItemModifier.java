@@ -5,6 +5,7 @@ import static tc.oc.pgm.util.material.ColorUtils.COLOR_UTILS;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.inventory.meta.LeatherArmorMeta;
+import tc.oc.pgm.api.party.Party;
 import tc.oc.pgm.api.player.MatchPlayer;
 import tc.oc.pgm.util.inventory.tag.ItemTag;
 
@@ -16,16 +17,21 @@ public class ItemModifier {
   // This may be expanded on the future but currently only handles coloring armor & blocks.
   // The method is explicitly mutate-only, if you don't want side effects pass a clone.
   public static void apply(ItemStack item, MatchPlayer player) {
+    apply(item, player.getParty());
+  }
+
+  // Customizations only depend on the party, so items can be modified once for each party.
+  public static void apply(ItemStack item, Party party) {
     if (!TEAM_COLOR.has(item)) return;
     TEAM_COLOR.clear(item);
 
     ItemMeta meta = item.getItemMeta();
 
     if (meta instanceof LeatherArmorMeta leather) {
-      leather.setColor(player.getParty().getFullColor());
+      leather.setColor(party.getFullColor());
       item.setItemMeta(meta);
     } else if (COLOR_UTILS.isColorAffected(item.getType())) {
-      COLOR_UTILS.setColor(item, player.getParty().getDyeColor());
+      COLOR_UTILS.setColor(item, party.getDyeColor());
     }
   }
 }
@@ -10,8 +10,10 @@ import static tc.oc.pgm.util.text.TextException.exception;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -56,6 +58,7 @@ import tc.oc.pgm.util.bukkit.OnlinePlayerMapAdapter;
 import tc.oc.pgm.util.channels.Channel;
 import tc.oc.pgm.util.event.ChannelMessageEvent;
 import tc.oc.pgm.util.named.NameStyle;
+import tc.oc.pgm.util.text.BroadcastRenderer;
 import tc.oc.pgm.util.text.TextException;
 import tc.oc.pgm.util.text.TextTranslations;
 
@@ -380,9 +383,7 @@ public class ChatDispatcher implements Listener {
 
     Identity senderId = identity(sender.getId());
 
-    event.getRecipients().stream()
-        .map(Audience::get)
-        .forEach(player -> player.sendMessage(senderId, componentMsg));
+    BroadcastRenderer.broadcast(event.getRecipients(), senderId, componentMsg);
   }
 
   private void throwMuted(MatchPlayer player) {
@@ -405,11 +406,13 @@ public class ChatDispatcher implements Listener {
   public static void broadcastAdminChatMessage(
       Component message, Match match, Optional<Sound> sound) {
     TextComponent formatted = ADMIN_CHAT_PREFIX.append(message);
+    List<Player> recipients = new ArrayList<>();
     match.getPlayers().stream().filter(AC_FILTER).forEach(mp -> {
       // If provided a sound, play if setting allows
       sound.ifPresent(s -> playSound(mp, s));
-      mp.sendMessage(formatted);
+      recipients.add(mp.getBukkit());
     });
+    BroadcastRenderer.broadcast(recipients, formatted);
     Audience.console().sendMessage(formatted);
   }
 
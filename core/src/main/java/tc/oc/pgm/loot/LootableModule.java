@@ -59,6 +59,11 @@ public class LootableModule implements MapModule<LootableMatchModule> {
 
   public static class Factory implements MapModuleFactory<LootableModule> {
 
+    @Override
+    public boolean canParseInParallel() {
+      return true;
+    }
+
     @Nullable
     @Override
     public LootableModule parse(MapFactory factory, Logger logger, Document doc)
@@ -2,10 +2,13 @@ package tc.oc.pgm.map;
 
 import static tc.oc.pgm.util.Assert.assertNotNull;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jdom2.Document;
@@ -43,6 +46,12 @@ import tc.oc.pgm.util.xml.XMLUtils;
 public class MapFactoryImpl extends ModuleGraph<MapModule<?>, MapModuleFactory<?>>
     implements MapFactory {
 
+  // Maps are loaded from the common pool, so modules are parsed on their own threads to never wait
+  // for a task queued behind the map that is waiting on them
+  private static final ExecutorService PARSER_EXECUTOR = Executors.newFixedThreadPool(
+      Runtime.getRuntime().availableProcessors(),
+      new ThreadFactoryBuilder().setNameFormat("PGM Map Parser #%d").setDaemon(true).build());
+
   private final Logger logger;
   private final MapSource source;
   private final MapIncludeProcessor includes;
@@ -60,6 +69,11 @@ public class MapFactoryImpl extends ModuleGraph<MapModule<?>, MapModuleFactory<?
     this.includes = includes;
   }
 
+  @Override
+  protected boolean isParallel(MapModuleFactory<?> factory) {
+    return factory.canParseInParallel();
+  }
+
   @Override
   protected MapModule<?> createModule(MapModuleFactory<?> factory) throws ModuleLoadException {
     try {
@@ -76,7 +90,17 @@ public class MapFactoryImpl extends ModuleGraph<MapModule<?>, MapModuleFactory<?
 
       info = new MapInfoImpl(source, document.getRootElement());
       try {
-        loadAll();
+        // Legacy parsers resolve names as they parse, so they depend on the order of modules
+        if (isLegacy()) {
+          loadAll();
+        } else {
+          getFeatures().setConcurrent(true);
+          try {
+            loadAll(PARSER_EXECUTOR);
+          } finally {
+            getFeatures().setConcurrent(false);
+          }
+        }
       } catch (ModuleLoadException e) {
         if (e.getCause() instanceof InvalidXMLException) {
           throw e.getCause();
@@ -138,7 +162,7 @@ public class MapFactoryImpl extends ModuleGraph<MapModule<?>, MapModuleFactory<?
   }
 
   @Override
-  public RegionParser getRegions() {
+  public synchronized RegionParser getRegions() {
     if (regions == null) {
       regions = isLegacy() ? new LegacyRegionParser(this) : new FeatureRegionParser(this);
     }
@@ -146,7 +170,7 @@ public class MapFactoryImpl extends ModuleGraph<MapModule<?>, MapModuleFactory<?
   }
 
   @Override
-  public FilterParser getFilters() {
+  public synchronized FilterParser getFilters() {
     if (filters == null) {
       filters = isLegacy() ? new LegacyFilterParser(this) : new FeatureFilterParser(this);
     }
@@ -154,7 +178,7 @@ public class MapFactoryImpl extends ModuleGraph<MapModule<?>, MapModuleFactory<?
   }
 
   @Override
-  public KitParser getKits() {
+  public synchronized KitParser getKits() {
     if (kits == null) {
       kits = isLegacy() ? new LegacyKitParser(this) : new FeatureKitParser(this);
     }
@@ -162,7 +186,7 @@ public class MapFactoryImpl extends ModuleGraph<MapModule<?>, MapModuleFactory<?
   }
 
   @Override
-  public FeatureDefinitionContext getFeatures() {
+  public synchronized FeatureDefinitionContext getFeatures() {
     if (features == null) {
       features = new FeatureDefinitionContext();
     }
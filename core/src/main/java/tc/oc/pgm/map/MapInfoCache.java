@@ -0,0 +1,307 @@
+package tc.oc.pgm.map;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.jetbrains.annotations.Nullable;
+import tc.oc.pgm.api.PGM;
+import tc.oc.pgm.api.map.Contributor;
+import tc.oc.pgm.api.map.Gamemode;
+import tc.oc.pgm.api.map.MapInfo;
+import tc.oc.pgm.api.map.MapSource;
+import tc.oc.pgm.api.map.MapTag;
+import tc.oc.pgm.api.map.Phase;
+import tc.oc.pgm.api.map.exception.MapMissingException;
+import tc.oc.pgm.map.contrib.PlayerContributor;
+import tc.oc.pgm.map.contrib.PseudonymContributor;
+import tc.oc.pgm.util.Version;
+import tc.oc.pgm.util.text.TextException;
+import tc.oc.pgm.util.text.TextParser;
+
+/**
+ * An on-disk cache of parsed {@link MapInfo}s, so the map library can be listed without parsing
+ * every map document and running every module factory on startup.
+ *
+ * <p>Entries are keyed by a hash of the map document, the content of every include, the variant and
+ * the plugin version, so any change to them is a cache miss. A cached {@link MapInfo} has no
+ * context, which is compiled from the document the first time the map is loaded.
+ */
+class MapInfoCache {
+  // Bump when the format of an entry changes
+  private static final int FORMAT = 1;
+  private static final Gson GSON = new Gson();
+
+  private final Logger logger;
+  private final @Nullable Path file;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final Set<String> used = ConcurrentHashMap.newKeySet();
+  private volatile boolean loaded;
+
+  MapInfoCache(Logger logger, @Nullable Path file) {
+    this.logger = logger;
+    this.file = file;
+  }
+
+  /**
+   * Get the key of the current document of a map source.
+   *
+   * @param source The map source
+   * @param includesHash The hash of every map include
+   * @return A key for the document, or null if the cache is disabled
+   * @throws MapMissingException If the document could not be read
+   */
+  @Nullable
+  String getKey(MapSource source, String includesHash) throws MapMissingException {
+    if (file == null) return null;
+
+    final Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putInt(FORMAT);
+    hasher.putString(PGM.get().getDescription().getVersion(), StandardCharsets.UTF_8);
+    hasher.putString(includesHash, StandardCharsets.UTF_8);
+    hasher.putString(source.getVariantId(), StandardCharsets.UTF_8);
+
+    try (InputStream stream = source.getDocument()) {
+      hasher.putBytes(ByteStreams.toByteArray(stream));
+    } catch (IOException e) {
+      throw new MapMissingException(source.getId(), "Unable to read map document", e);
+    }
+    return hasher.hash().toString();
+  }
+
+  /** Get the cached info for a key, or null if there is none. */
+  @Nullable
+  MapInfo get(MapSource source, @Nullable String key) {
+    if (key == null) return null;
+    load();
+
+    final Entry entry = entries.get(key);
+    if (entry == null) return null;
+
+    try {
+      final MapInfoImpl info = new MapInfoImpl(source, entry);
+      used.add(key);
+      return info;
+    } catch (RuntimeException | TextException e) {
+      // Likely an entry from an older version with a stale tag or game-mode
+      entries.remove(key);
+      return null;
+    }
+  }
+
+  /** Store the info of a map that was fully loaded. */
+  void put(@Nullable String key, MapInfo info) {
+    if (key == null) return;
+    load();
+
+    entries.put(key, new Entry(info));
+    used.add(key);
+  }
+
+  /**
+   * Write the cache to disk.
+   *
+   * @param prune Whether to drop entries that were not used since the cache was read, which is only
+   *     correct after every map was loaded.
+   */
+  void save(boolean prune) {
+    if (file == null || !loaded) return;
+    if (prune) entries.keySet().retainAll(used);
+
+    final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(file.getParent());
+      try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+        GSON.toJson(entries, writer);
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Unable to save map cache to " + file, e);
+    }
+  }
+
+  private synchronized void load() {
+    if (loaded || file == null) return;
+    loaded = true;
+    if (!Files.isRegularFile(file)) return;
+
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      Map<String, Entry> read =
+          GSON.fromJson(reader, new TypeToken<Map<String, Entry>>() {}.getType());
+      if (read != null) entries.putAll(read);
+    } catch (IOException | JsonParseException e) {
+      logger.log(Level.WARNING, "Unable to read map cache from " + file + ", discarding it", e);
+    }
+  }
+
+  /** The serialized form of a {@link MapInfo}. */
+  static class Entry {
+    String id;
+    String worldFolder;
+    String proto;
+    String version;
+    String phase;
+    String name;
+    String description;
+    @Nullable String created;
+    List<Variant> variants;
+    List<Author> authors;
+    List<Author> contributors;
+    List<String> rules;
+    @Nullable String gamemode;
+    int difficulty;
+    long seed;
+    boolean terrain;
+    int environment;
+    boolean friendlyFire;
+    List<String> gamemodes;
+    List<Tag> tags;
+    List<Integer> players;
+
+    // For deserialization
+    private Entry() {}
+
+    private Entry(MapInfo info) {
+      this.id = info.getId();
+      this.worldFolder = info.getWorldFolder();
+      this.proto = info.getProto().toString();
+      this.version = info.getVersion().toString();
+      this.phase = info.getPhase().name();
+      this.name = info.getName();
+      this.description = info.getDescription();
+      this.created = info.getCreated() == null ? null : info.getCreated().toString();
+      this.variants = new ArrayList<>();
+      for (MapInfo.VariantInfo variant : info.getVariants().values()) {
+        variants.add(new Variant(variant));
+      }
+      this.authors = Author.of(info.getAuthors());
+      this.contributors = Author.of(info.getContributors());
+      this.rules = new ArrayList<>(info.getRules());
+      this.gamemode = info.getGamemode() == null
+          ? null
+          : GsonComponentSerializer.gson().serialize(info.getGamemode());
+      this.difficulty = info.getDifficulty();
+      this.seed = ((WorldInfoImpl) info.getWorld()).getRawSeed();
+      this.terrain = info.getWorld().hasTerrain();
+      this.environment = info.getWorld().getEnvironment();
+      this.friendlyFire = info.getFriendlyFire();
+      this.gamemodes = new ArrayList<>();
+      for (Gamemode gamemode : info.getGamemodes()) {
+        gamemodes.add(gamemode.getId());
+      }
+      this.tags = new ArrayList<>();
+      for (MapTag tag : info.getTags()) {
+        tags.add(new Tag(tag));
+      }
+      this.players = new ArrayList<>(info.getMaxPlayers());
+    }
+
+    Phase getPhase() {
+      return Phase.valueOf(phase);
+    }
+
+    @Nullable
+    LocalDate getCreated() {
+      return created == null ? null : LocalDate.parse(created);
+    }
+
+    Version getProto() throws TextException {
+      return TextParser.parseVersion(proto);
+    }
+
+    Version getVersion() throws TextException {
+      return TextParser.parseVersion(version);
+    }
+  }
+
+  static class Variant {
+    String variantId;
+    String mapId;
+    String mapName;
+    @Nullable String world;
+
+    private Variant() {}
+
+    private Variant(MapInfo.VariantInfo info) {
+      this.variantId = info.getVariantId();
+      this.mapId = info.getMapId();
+      this.mapName = info.getMapName();
+      this.world = info.getWorld();
+    }
+  }
+
+  static class Author {
+    @Nullable String uuid;
+    @Nullable String name;
+    @Nullable String contribution;
+
+    private Author() {}
+
+    private static List<Author> of(Collection<Contributor> contributors) {
+      final List<Author> authors = new ArrayList<>(contributors.size());
+      for (Contributor contributor : contributors) {
+        Author author = new Author();
+        if (contributor instanceof PlayerContributor) {
+          author.uuid = ((PlayerContributor) contributor).getId().toString();
+        } else {
+          author.name = contributor.getNameLegacy();
+        }
+        author.contribution = contributor.getContribution();
+        authors.add(author);
+      }
+      return authors;
+    }
+
+    Contributor toContributor() {
+      return uuid != null
+          ? new PlayerContributor(UUID.fromString(uuid), contribution)
+          : new PseudonymContributor(name, contribution);
+    }
+  }
+
+  static class Tag {
+    String id;
+    String name;
+    @Nullable String gamemode;
+    boolean auxiliary;
+
+    private Tag() {}
+
+    private Tag(MapTag tag) {
+      this.id = tag.getId();
+      this.name = PlainTextComponentSerializer.plainText().serialize(tag.getName());
+      this.gamemode = tag.isGamemode() ? tag.getGamemode().getId() : null;
+      this.auxiliary = tag.isAuxiliary();
+    }
+
+    MapTag toTag() {
+      if (gamemode == null) return new MapTag(id, name);
+
+      final Gamemode gm = Gamemode.byId(gamemode);
+      if (gm == null) throw new IllegalArgumentException("Unknown gamemode " + gamemode);
+      return new MapTag(id, gm, auxiliary);
+    }
+  }
+}
@@ -17,6 +17,7 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
 import org.bukkit.Difficulty;
 import org.jdom2.Element;
 import org.jetbrains.annotations.NotNull;
@@ -40,6 +41,7 @@ import tc.oc.pgm.util.StringUtils;
 import tc.oc.pgm.util.Version;
 import tc.oc.pgm.util.named.MapNameStyle;
 import tc.oc.pgm.util.named.NameStyle;
+import tc.oc.pgm.util.text.TextException;
 import tc.oc.pgm.util.text.TextFormatter;
 import tc.oc.pgm.util.xml.InvalidXMLException;
 import tc.oc.pgm.util.xml.Node;
@@ -118,6 +120,54 @@ public class MapInfoImpl implements MapInfo {
             Node.fromLastChildOrAttr(root, "friendlyfire", "friendly-fire"), false);
   }
 
+  /** Create the info of a map from the cache, without its context. */
+  MapInfoImpl(MapSource source, MapInfoCache.Entry entry) throws TextException {
+    this.source = source;
+    this.variantId = source.getVariantId();
+
+    ImmutableMap.Builder<String, VariantInfo> variants = ImmutableMap.builder();
+    for (MapInfoCache.Variant variant : entry.variants) {
+      variants.put(
+          variant.variantId,
+          new VariantData(variant.variantId, variant.mapId, variant.mapName, variant.world));
+    }
+    this.variants = variants.build();
+
+    this.id = assertNotNull(entry.id);
+    this.worldFolder = entry.worldFolder;
+    this.name = assertNotNull(entry.name);
+    this.normalizedName = StringUtils.normalize(name);
+    this.proto = entry.getProto();
+    this.version = entry.getVersion();
+    this.description = assertNotNull(entry.description);
+    this.created = entry.getCreated();
+    this.authors = ImmutableList.copyOf(Iterables.transform(
+        entry.authors, MapInfoCache.Author::toContributor));
+    this.contributors = ImmutableList.copyOf(Iterables.transform(
+        entry.contributors, MapInfoCache.Author::toContributor));
+    this.rules = ImmutableList.copyOf(entry.rules);
+    this.difficulty = entry.difficulty;
+    this.world = new WorldInfoImpl(entry.seed, entry.terrain, entry.environment);
+    this.gamemode = entry.gamemode == null
+        ? null
+        : GsonComponentSerializer.gson().deserialize(entry.gamemode);
+    this.phase = entry.getPhase();
+    this.friendlyFire = entry.friendlyFire;
+
+    ImmutableList.Builder<Gamemode> gamemodes = ImmutableList.builder();
+    for (String gamemode : entry.gamemodes) {
+      gamemodes.add(assertNotNull(Gamemode.byId(gamemode), "Unknown gamemode " + gamemode));
+    }
+    this.gamemodes = gamemodes.build();
+
+    ImmutableSortedSet.Builder<MapTag> tags = ImmutableSortedSet.naturalOrder();
+    for (MapInfoCache.Tag tag : entry.tags) {
+      tags.add(tag.toTag());
+    }
+    this.tags = tags.build();
+    this.players = ImmutableList.copyOf(entry.players);
+  }
+
   @NotNull
   private static Map<String, VariantInfo> createVariantMap(Element root)
       throws InvalidXMLException {
@@ -368,6 +418,13 @@ public class MapInfoImpl implements MapInfo {
     private final String mapId;
     private final String world;
 
+    public VariantData(String variantId, String mapId, String mapName, @Nullable String world) {
+      this.variantId = variantId;
+      this.mapId = mapId;
+      this.mapName = mapName;
+      this.world = world;
+    }
+
     public VariantData(Element root, @Nullable Element variantEl) throws InvalidXMLException {
       String name = assertNotNull(Node.fromRequiredChildOrAttr(root, "name").getValueNormalize());
       String slug = assertNotNull(root).getChildTextNormalize("slug");
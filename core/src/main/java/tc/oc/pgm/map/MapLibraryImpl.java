@@ -3,6 +3,7 @@ package tc.oc.pgm.map;
 import static tc.oc.pgm.api.map.MapSource.DEFAULT_VARIANT;
 import static tc.oc.pgm.util.Assert.assertNotNull;
 
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -18,6 +19,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.bukkit.ChatColor;
 import org.jetbrains.annotations.Nullable;
+import tc.oc.pgm.api.PGM;
 import tc.oc.pgm.api.map.MapContext;
 import tc.oc.pgm.api.map.MapInfo;
 import tc.oc.pgm.api.map.MapLibrary;
@@ -27,6 +29,7 @@ import tc.oc.pgm.api.map.exception.MapMissingException;
 import tc.oc.pgm.api.map.factory.MapFactory;
 import tc.oc.pgm.api.map.factory.MapSourceFactory;
 import tc.oc.pgm.api.map.includes.MapIncludeProcessor;
+import tc.oc.pgm.map.source.WorldTemplateCache;
 import tc.oc.pgm.util.LiquidMetal;
 import tc.oc.pgm.util.StringUtils;
 import tc.oc.pgm.util.usernames.UsernameResolvers;
@@ -38,14 +41,30 @@ public class MapLibraryImpl implements MapLibrary {
   private final SortedMap<String, MapInfo> maps;
   private final Set<MapSource> failed;
   private final MapIncludeProcessor includes;
+  private final MapInfoCache cache;
+  private volatile String includesHash = "";
 
   public MapLibraryImpl(
       Logger logger, List<MapSourceFactory> factories, MapIncludeProcessor includes) {
+    this(logger, factories, includes, null);
+  }
+
+  /**
+   * Create a map library.
+   *
+   * @param cacheFile A file to cache map info in, or null to always parse every map
+   */
+  public MapLibraryImpl(
+      Logger logger,
+      List<MapSourceFactory> factories,
+      MapIncludeProcessor includes,
+      @Nullable Path cacheFile) {
     this.logger = assertNotNull(logger); // Logger should be visible in-game
     this.factories = Collections.synchronizedList(assertNotNull(factories));
     this.maps = Collections.synchronizedSortedMap(new ConcurrentSkipListMap<>());
     this.failed = Collections.synchronizedSet(new HashSet<>());
     this.includes = includes;
+    this.cache = new MapInfoCache(logger, cacheFile);
   }
 
   @Override
@@ -120,6 +139,7 @@ public class MapLibraryImpl implements MapLibrary {
   public CompletableFuture<?> loadNewMaps(boolean reset) {
     // Try to search new includes before searching for new maps
     includes.loadNewIncludes();
+    includesHash = includes.getContentHash();
 
     if (reset) {
       failed.clear();
@@ -169,6 +189,14 @@ public class MapLibraryImpl implements MapLibrary {
               }
             })
         .thenRunAsync(() -> logMapSuccess(oldFail, oldOk))
+        // Unused entries can only be told apart when every map was just loaded
+        .thenRunAsync(() -> cache.save(oldOk == 0))
+        .thenRunAsync(() -> {
+          if (oldOk == 0) {
+            WorldTemplateCache.INSTANCE.prune(
+                PGM.get().getServer().getWorldContainer(), maps.values());
+          }
+        })
         .thenRunAsync(UsernameResolvers::endBatch);
   }
 
@@ -193,12 +221,32 @@ public class MapLibraryImpl implements MapLibrary {
             throw new RuntimeException(e);
           }
 
-          logger.info(ChatColor.GREEN + "XML changes detected, reloading");
+          // Maps read from the cache have no context until they are first loaded
+          if (context != null) logger.info(ChatColor.GREEN + "XML changes detected, reloading");
           return loadMapSafe(info.getSource(), info.getId());
         });
   }
 
-  private MapContext loadMap(MapSource source, @Nullable String mapId) throws MapException {
+  private @Nullable MapContext loadMap(MapSource source, @Nullable String mapId)
+      throws MapException {
+    final String key;
+    try {
+      key = cache.getKey(source, includesHash);
+    } catch (MapMissingException e) {
+      failed.remove(source);
+      if (mapId != null) maps.remove(mapId);
+      throw e;
+    }
+
+    // When not loading a specific map, its cached info is enough until the map is picked
+    if (mapId == null) {
+      final MapInfo cached = cache.get(source, key);
+      if (cached != null) {
+        loadCachedMap(source, cached);
+        return null;
+      }
+    }
+
     final MapContext context;
     try (final MapFactory factory = new MapFactoryImpl(logger, source, includes)) {
       context = factory.load();
@@ -229,10 +277,23 @@ public class MapLibraryImpl implements MapLibrary {
     maps.merge(
         info.getId(), info, (m1, m2) -> m2.getVersion().isOlderThan(m1.getVersion()) ? m1 : m2);
     failed.remove(source);
+    cache.put(key, info);
 
     return context;
   }
 
+  private void loadCachedMap(MapSource source, MapInfo info) {
+    if (DEFAULT_VARIANT.equals(source.getVariantId())) {
+      for (String variant : info.getVariants().keySet()) {
+        if (!DEFAULT_VARIANT.equals(variant)) loadMapSafe(source.asVariant(variant), null);
+      }
+    }
+
+    maps.merge(
+        info.getId(), info, (m1, m2) -> m2.getVersion().isOlderThan(m1.getVersion()) ? m1 : m2);
+    failed.remove(source);
+  }
+
   private @Nullable MapContext loadMapSafe(MapSource source, @Nullable String mapId) {
     try {
       return loadMap(source, mapId);
@@ -43,6 +43,11 @@ public class WorldInfoImpl implements WorldInfo {
     return seed == 0 ? random.nextLong() : seed;
   }
 
+  /** Get the seed of the world, which is 0 when a random seed is used every time. */
+  long getRawSeed() {
+    return seed;
+  }
+
   @Override
   public boolean hasTerrain() {
     return terrain;
@@ -1,10 +1,12 @@
 package tc.oc.pgm.map.includes;
 
+import com.google.common.hash.Hasher;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
@@ -58,6 +60,14 @@ public class MapIncludeImpl implements MapInclude {
     return source.getRootElement().cloneContent();
   }
 
+  void hashContent(Hasher hasher) {
+    try {
+      hasher.putBytes(Files.readAllBytes(file.toPath()));
+    } catch (IOException e) {
+      hasher.putLong(getLastModified());
+    }
+  }
+
   @Override
   public boolean equals(Object other) {
     return other instanceof MapIncludeImpl && file.equals(((MapIncludeImpl) other).file);
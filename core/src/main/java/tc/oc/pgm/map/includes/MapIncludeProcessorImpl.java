@@ -1,11 +1,15 @@
 package tc.oc.pgm.map.includes;
 
 import com.google.common.collect.Maps;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jdom2.Element;
@@ -25,7 +29,7 @@ import tc.oc.pgm.util.xml.XMLUtils;
 public class MapIncludeProcessorImpl implements MapIncludeProcessor {
 
   private final Logger logger;
-  private final Map<String, MapInclude> includes;
+  private final Map<String, MapIncludeImpl> includes;
 
   protected static final ThreadLocal<SAXBuilder> DOCUMENT_FACTORY =
       ThreadLocal.withInitial(
@@ -69,6 +73,16 @@ public class MapIncludeProcessorImpl implements MapIncludeProcessor {
     return include;
   }
 
+  @Override
+  public String getContentHash() {
+    final Hasher hasher = Hashing.sha256().newHasher();
+    for (Map.Entry<String, MapIncludeImpl> entry : new TreeMap<>(includes).entrySet()) {
+      hasher.putString(entry.getKey(), StandardCharsets.UTF_8);
+      entry.getValue().hashContent(hasher);
+    }
+    return hasher.hash().toString();
+  }
+
   @Override
   public void loadNewIncludes() {
     Config config = PGM.get().getConfiguration();
@@ -17,7 +17,6 @@ import org.jetbrains.annotations.Nullable;
 import tc.oc.pgm.api.map.MapSource;
 import tc.oc.pgm.api.map.exception.MapMissingException;
 import tc.oc.pgm.api.map.includes.MapInclude;
-import tc.oc.pgm.util.FileUtils;
 
 class SystemMapSource implements MapSource {
 
@@ -81,7 +80,7 @@ class SystemMapSource implements MapSource {
   public void downloadTo(String worldDir, File dst) throws MapMissingException {
     final File src = getDirectory(worldDir);
     try {
-      FileUtils.copy(src, dst, true);
+      WorldTemplateCache.INSTANCE.materialize(src, dst);
     } catch (IOException e) {
       throw new MapMissingException(dir.toString(), "Unable to copy map folder", e);
     }
@@ -0,0 +1,132 @@
+package tc.oc.pgm.map.source;
+
+import com.google.common.hash.Hashing;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import tc.oc.pgm.api.map.MapInfo;
+import tc.oc.pgm.util.FileUtils;
+
+/**
+ * Materializes match worlds from a pristine copy of each map's region files, by hard linking them
+ * instead of copying. Every other file, like the level.dat, is still copied.
+ *
+ * <p>Match worlds never save chunks, so the linked region files are not written to. As a
+ * safeguard, a template file whose size or modification time no longer matches the map is copied
+ * again, which also picks up changes to the map itself. If hard links are not supported, the
+ * region files are copied from the map as before.
+ *
+ * <p>Templates of maps that are no longer loaded are deleted by {@link #prune(File, Collection)}.
+ */
+public class WorldTemplateCache {
+  public static final WorldTemplateCache INSTANCE = new WorldTemplateCache();
+
+  private static final String TEMPLATE_DIR = "pgm-templates";
+
+  private final Map<Path, Object> locks = new ConcurrentHashMap<>();
+  private volatile boolean linksUnsupported;
+
+  private WorldTemplateCache() {}
+
+  /**
+   * Create a world in a directory from a map world folder.
+   *
+   * @param source the world folder of the map
+   * @param destination an existent, but empty directory
+   */
+  void materialize(File source, File destination) throws IOException {
+    final Path dst = destination.toPath().toAbsolutePath();
+    final Path template = dst.getParent().resolve(TEMPLATE_DIR).resolve(getTemplateName(source));
+
+    synchronized (locks.computeIfAbsent(template, path -> new Object())) {
+      materialize(source.toPath(), template, dst);
+    }
+  }
+
+  /**
+   * Delete every template that none of the maps would create worlds from, such as the templates of
+   * maps that were removed, moved or renamed.
+   *
+   * @param container the directory match worlds are created in
+   * @param maps every loaded map
+   */
+  public void prune(File container, Collection<MapInfo> maps) {
+    final File[] templates = new File(container.getAbsoluteFile(), TEMPLATE_DIR).listFiles();
+    if (templates == null) return;
+
+    final Set<String> used = new HashSet<>();
+    for (MapInfo map : maps) {
+      final String folder = map.getWorldFolder();
+      final Path world = map.getSource().getAbsoluteDir();
+      used.add(getTemplateName((folder == null ? world : world.resolve(folder)).toFile()));
+    }
+
+    for (File template : templates) {
+      if (used.contains(template.getName())) continue;
+
+      final Path path = template.toPath().toAbsolutePath();
+      synchronized (locks.computeIfAbsent(path, p -> new Object())) {
+        FileUtils.delete(template);
+      }
+      locks.remove(path);
+    }
+  }
+
+  private void materialize(Path source, Path template, Path destination) throws IOException {
+    Files.createDirectories(destination);
+
+    final File[] files = source.toFile().listFiles();
+    if (files == null) throw new IOException("Unable to list files of " + source);
+
+    for (File file : files) {
+      final Path src = file.toPath();
+      final Path dst = destination.resolve(file.getName());
+
+      if (file.isDirectory()) {
+        materialize(src, template.resolve(file.getName()), dst);
+      } else if (!linksUnsupported && isRegionFile(file)) {
+        link(src, template.resolve(file.getName()), dst);
+      } else {
+        Files.copy(src, dst, StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+  }
+
+  private void link(Path source, Path template, Path destination) throws IOException {
+    final FileTime modified = Files.getLastModifiedTime(source);
+    if (!Files.isRegularFile(template)
+        || Files.size(template) != Files.size(source)
+        || !Files.getLastModifiedTime(template).equals(modified)) {
+      Files.createDirectories(template.getParent());
+      Files.copy(source, template, StandardCopyOption.REPLACE_EXISTING);
+      Files.setLastModifiedTime(template, modified);
+    }
+
+    try {
+      Files.createLink(destination, template);
+    } catch (IOException | UnsupportedOperationException e) {
+      // Likely a different file system, or one without hard links
+      linksUnsupported = true;
+      Files.copy(source, destination, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static boolean isRegionFile(File file) {
+    final String name = file.getName();
+    return name.endsWith(".mca") || name.endsWith(".mcr");
+  }
+
+  private static String getTemplateName(File source) {
+    final String path = source.getAbsolutePath();
+    return source.getName() + "-" + Hashing.sha1().hashString(path, StandardCharsets.UTF_8);
+  }
+}
@@ -4,19 +4,25 @@ import static tc.oc.pgm.util.Assert.assertNotNull;
 import static tc.oc.pgm.util.nms.NMSHacks.NMS_HACKS;
 import static tc.oc.pgm.util.nms.Packets.TAB_PACKETS;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Range;
 import java.io.File;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
@@ -26,6 +32,7 @@ import org.bukkit.Difficulty;
 import org.bukkit.World;
 import org.bukkit.WorldCreator;
 import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
 import tc.oc.pgm.api.PGM;
 import tc.oc.pgm.api.map.MapContext;
 import tc.oc.pgm.api.map.WorldInfo;
@@ -39,7 +46,7 @@ import tc.oc.pgm.util.chunk.NullChunkGenerator;
 import tc.oc.pgm.util.text.TextException;
 import tc.oc.pgm.util.text.TextParser;
 
-public class MatchFactoryImpl implements MatchFactory, Callable<Match> {
+public class MatchFactoryImpl implements MatchFactory {
   private static final AtomicLong counter = new AtomicLong();
   private static final Difficulty[] difficulties = Difficulty.values();
   private static final World.Environment[] environments = World.Environment.values();
@@ -47,88 +54,172 @@ public class MatchFactoryImpl implements MatchFactory, Callable<Match> {
   private static final String DUMMY_TEAM = "dummy";
 
   private final Stack<Stage> stages;
-  private final Future<Match> future;
+  private final CompletableFuture<Match> future;
   private final AtomicBoolean timedOut;
+  // If the current stage is waiting for the factory to be awaited before advancing
+  private final AtomicBoolean waiting;
+  // If the stages were already reverted, since cancelling and advancing can race to revert them
+  private final AtomicBoolean reverted;
+  private final Map<String, Duration> timings;
+  private final long startTime;
 
   protected MatchFactoryImpl(String mapId) {
+    this(new InitMapStage(assertNotNull(mapId)));
+  }
+
+  MatchFactoryImpl(Stage stage) {
     this.stages = new Stack<>();
-    this.stages.push(new InitMapStage(assertNotNull(mapId)));
+    this.stages.push(assertNotNull(stage));
+    this.future = new CompletableFuture<>();
     this.timedOut = new AtomicBoolean(false);
-    this.future = Executors.newSingleThreadExecutor().submit(this);
+    this.waiting = new AtomicBoolean(false);
+    this.reverted = new AtomicBoolean(false);
+    this.timings = Collections.synchronizedMap(new LinkedHashMap<>());
+    this.startTime = System.nanoTime();
+    advance();
   }
 
-  public Match call() {
+  /** Advance the current stage, and schedule the next one as soon as it completes. */
+  private void advance() {
+    if (future.isCancelled()) {
+      revertQuietly();
+      return;
+    }
+
+    final Stage stage = stages.peek();
+    final long start = System.nanoTime();
+
+    final CompletableFuture<? extends Stage> next;
     try {
-      return run();
-    } catch (Exception e) {
-      // Match creation was cancelled, no need to show an error
-      if (e.getCause() instanceof InterruptedException) throw e;
+      next = stage.advance();
+    } catch (RuntimeException e) {
+      fail(e);
+      return;
+    }
 
-      Throwable err = e.getCause();
-      PGM.get().getGameLogger().log(Level.SEVERE, err.getMessage(), err.getCause());
-      throw e;
+    next.whenComplete((done, err) -> {
+      timings.merge(stage.getName(), Duration.ofNanos(System.nanoTime() - start), Duration::plus);
+
+      if (err != null) {
+        fail(err);
+      } else if (future.isCancelled()) {
+        revertQuietly();
+      } else if (done == null) {
+        // If there is no other stage, commit the match.
+        commit(stage);
+      } else {
+        if (done != stage) stages.push(done);
+        schedule(done);
+      }
+    });
+  }
+
+  private void schedule(Stage stage) {
+    final Duration delay = stage.delay(timedOut.get());
+
+    if (delay == null) {
+      // Wait for await(), unless it was called in the meantime
+      waiting.set(true);
+      if (timedOut.get()) wake();
+      // If cancelled while this stage was being pushed, cancel() could not see it waiting
+      else if (future.isCancelled() && waiting.compareAndSet(true, false)) revertQuietly();
+    } else if (delay.isZero()) {
+      advance();
+    } else {
+      PGM.get()
+          .getAsyncExecutor()
+          .schedule(this::advance, delay.toMillis(), TimeUnit.MILLISECONDS);
     }
   }
 
-  private Match run() {
-    Stage stage;
-    Future<? extends Stage> next;
+  private void wake() {
+    if (waiting.compareAndSet(true, false)) advance();
+  }
 
-    while (!stages.empty()) {
-      stage = stages.peek();
-      next = stage.advance();
+  private void commit(Stage stage) {
+    stages.clear();
+    if (!(stage instanceof Commitable)) {
+      fail(new IllegalStateException("Unable to load match with an incomplete stage"));
+      return;
+    }
 
-      // Only wait if the next stage is not done, or
-      // the entire factory is not timed out.
-      final long delay = stage.delay(timedOut.get()).toMillis();
-      while (!next.isDone() && delay > 0) {
-        try {
-          Thread.sleep(delay);
-        } catch (InterruptedException e) {
-          return revert(e);
-        }
-      }
+    final Match match = ((Commitable) stage).commit();
+    timings.put("Total", Duration.ofNanos(System.nanoTime() - startTime));
+    PGM.get()
+        .getLogger()
+        .info("Created match-" + match.getId() + " (" + match.getMap().getId() + ") in "
+            + formatTimings());
 
-      // Get the next stage and capture its exception
-      final Stage done;
-      try {
-        done = next.get();
-      } catch (ExecutionException | InterruptedException e) {
-        return revert(e);
-      }
+    future.complete(match);
+  }
 
-      // If there is no other stage, commit the match.
-      if (done == null) {
-        stages.clear();
-        if (stage instanceof Commitable) {
-          return ((Commitable) stage).commit();
-        }
-        return revert(new IllegalStateException("Unable to load match with an incomplete stage"));
-      } else {
-        stages.push(done);
-      }
+  private void fail(Throwable err) {
+    if (err instanceof CompletionException && err.getCause() != null) err = err.getCause();
+
+    // Match creation was cancelled, no need to show an error
+    if (!(err instanceof CancellationException || err.getCause() instanceof InterruptedException)) {
+      PGM.get().getGameLogger().log(Level.SEVERE, err.getMessage(), err.getCause());
     }
 
-    return revert(new IllegalStateException("Unable to load match without an initial stage"));
+    try {
+      revert();
+    } catch (IllegalStateException e) {
+      err.addSuppressed(e);
+    }
+    future.completeExceptionally(err);
   }
 
-  private Match revert(Exception err) {
+  private void revertQuietly() {
+    try {
+      revert();
+    } catch (IllegalStateException e) {
+      PGM.get().getGameLogger().log(Level.SEVERE, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Revert every stage, from the last one to the first one. Each stage is only reverted once the
+   * stage after it is done reverting, and this does nothing if the stages were already reverted.
+   */
+  private void revert() {
+    if (!reverted.compareAndSet(false, true)) return;
+
+    CompletableFuture<?> reverting = CompletableFuture.completedFuture(null);
     while (!stages.empty()) {
       final Stage stage = stages.pop();
       if (stage instanceof Revertable) {
-        ((Revertable) stage).revert();
+        reverting = reverting.thenCompose(v -> ((Revertable) stage).revert());
       } else {
         throw new IllegalStateException("Unable to revert a loaded match");
       }
     }
 
-    throw new RuntimeException(err);
+    reverting.whenComplete((v, err) -> {
+      if (err != null) PGM.get().getGameLogger().log(Level.SEVERE, err.getMessage(), err);
+    });
+  }
+
+  private String formatTimings() {
+    final StringBuilder text = new StringBuilder();
+    synchronized (timings) {
+      for (Map.Entry<String, Duration> entry : timings.entrySet()) {
+        if (text.length() > 0) text.append(", ");
+        text.append(entry.getKey()).append(' ').append(entry.getValue().toMillis()).append("ms");
+      }
+    }
+    return text.toString();
   }
 
   @Override
   public boolean cancel(boolean mayInterruptIfRunning) {
     if (isDone()) return false;
-    return future.cancel(mayInterruptIfRunning);
+    if (!future.cancel(mayInterruptIfRunning)) return false;
+
+    // A stage waiting for await() will never complete on its own, so revert it now
+    if (waiting.compareAndSet(true, false)) {
+      PGM.get().getAsyncExecutor().execute(this::revertQuietly);
+    }
+    return true;
   }
 
   @Override
@@ -143,49 +234,69 @@ public class MatchFactoryImpl implements MatchFactory, Callable<Match> {
 
   @Override
   public Match get() throws InterruptedException, ExecutionException {
-    return get(0, TimeUnit.MILLISECONDS);
+    await();
+    return future.get();
   }
 
   @Override
-  public Match get(long duration, TimeUnit unit) throws InterruptedException, ExecutionException {
-    return future.get();
+  public Match get(long duration, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    await();
+    return future.get(duration, unit);
   }
 
   @Override
   public void await() {
     timedOut.set(true); // Will disable all delays from any stage
+    wake();
+  }
+
+  @Override
+  public Map<String, Duration> getTimings() {
+    synchronized (timings) {
+      return ImmutableMap.copyOf(timings);
+    }
   }
 
   /** An execution stage for creating a {@link Match}. */
-  private interface Stage {
+  interface Stage {
 
     /**
      * Advance to the next stage of {@link Match} creation.
      *
      * @return A future with the next {@link Stage} or {@code null} to finish.
      */
-    Future<? extends Stage> advance();
+    CompletableFuture<? extends Stage> advance();
 
     /**
-     * Get the duration to wait before the next {@link Stage}.
+     * Get the duration to wait before advancing this {@link Stage}.
      *
      * @param timedOut If the factory has timed out, meaning it needs to move quickly.
-     * @return Duration to wait.
+     * @return Duration to wait, or {@code null} to wait until the factory is awaited.
      */
-    default Duration delay(boolean timedOut) {
-      return timedOut ? Duration.ZERO : Duration.ofMillis(100);
+    default @Nullable Duration delay(boolean timedOut) {
+      return Duration.ZERO;
+    }
+
+    /** Get the name of this stage, used to report timings. */
+    default String getName() {
+      return getClass().getSimpleName().replace("Stage", "");
     }
   }
 
   /** An execution {@link Stage} that can revert its changes. */
-  private interface Revertable {
+  interface Revertable {
 
-    /** Revert any changes after attempting to {@link Stage#advance()}. */
-    void revert();
+    /**
+     * Revert any changes after attempting to {@link Stage#advance()}.
+     *
+     * @return A future that completes once the changes are reverted.
+     */
+    CompletableFuture<?> revert();
   }
 
   /** An execution {@link Stage} that can return a {@link Match}. */
-  private interface Commitable {
+  interface Commitable {
 
     /**
      * Returns the completed {@link Match}.
@@ -196,7 +307,7 @@ public class MatchFactoryImpl implements MatchFactory, Callable<Match> {
   }
 
   /** Stage #1: ensures that a {@link MapContext} is loaded. */
-  private static class InitMapStage implements Stage {
+  private static class InitMapStage implements Stage, Revertable {
     private final String mapId;
 
     private InitMapStage(String mapId) {
@@ -204,9 +315,15 @@ public class MatchFactoryImpl implements MatchFactory, Callable<Match> {
     }
 
     @Override
-    public Future<DownloadMapStage> advance() {
+    public CompletableFuture<DownloadMapStage> advance() {
       return PGM.get().getMapLibrary().loadExistingMap(mapId).thenApply(DownloadMapStage::new);
     }
+
+    @Override
+    public CompletableFuture<?> revert() {
+      // The map context is shared with the map library, so there is nothing to revert
+      return CompletableFuture.completedFuture(null);
+    }
   }
 
   /** Stage #2: downloads a {@link MapContext} to a local directory. */
@@ -242,14 +359,19 @@ public class MatchFactoryImpl implements MatchFactory, Callable<Match> {
     }
 
     @Override
-    public Future<InitWorldStage> advance() {
+    public CompletableFuture<InitWorldStage> advance() {
       return runAsyncThread(this::advanceSync);
     }
 
+    private boolean revertSync() {
+      FileUtils.delete(getDirectory());
+      return true;
+    }
+
     @Override
-    public void revert() {
+    public CompletableFuture<?> revert() {
       counter.getAndDecrement();
-      FileUtils.delete(getDirectory());
+      return runAsyncThread(this::revertSync);
     }
   }
 
@@ -288,7 +410,7 @@ public class MatchFactoryImpl implements MatchFactory, Callable<Match> {
     }
 
     @Override
-    public Future<Stage> advance() {
+    public CompletableFuture<Stage> advance() {
       return runMainThread(this::advanceSync);
     }
 
@@ -297,19 +419,14 @@ public class MatchFactoryImpl implements MatchFactory, Callable<Match> {
     }
 
     @Override
-    public void revert() {
-      runMainThread(this::revertSync);
-    }
-
-    @Override
-    public Duration delay(boolean timedOut) {
-      return timedOut ? Duration.ZERO : Duration.ofSeconds(3);
+    public CompletableFuture<?> revert() {
+      return runMainThread(this::revertSync);
     }
   }
 
   /** Stage #4: initializes and loads the {@link Match}. */
   private static class InitMatchStage implements Stage, Revertable, Commitable {
-    private final Match match;
+    private final MatchImpl match;
 
     private InitMatchStage(World world, MapContext map) {
       this.match =
@@ -328,8 +445,11 @@ public class MatchFactoryImpl implements MatchFactory, Callable<Match> {
     }
 
     @Override
-    public Future<? extends Stage> advance() {
-      return runMainThread(this::advanceSync);
+    public CompletableFuture<? extends Stage> advance() {
+      // Create modules that do not need the world in parallel, then load on the main thread
+      return match
+          .createAsyncModules(PGM.get().getAsyncExecutor())
+          .thenCompose(v -> runMainThread(this::advanceSync));
     }
 
     private boolean revertSync() {
@@ -339,8 +459,8 @@ public class MatchFactoryImpl implements MatchFactory, Callable<Match> {
     }
 
     @Override
-    public void revert() {
-      runMainThread(this::revertSync);
+    public CompletableFuture<?> revert() {
+      return runMainThread(this::revertSync);
     }
 
     @Override
@@ -349,10 +469,14 @@ public class MatchFactoryImpl implements MatchFactory, Callable<Match> {
     }
   }
 
-  /** Stage #5: teleport {@link Player}s to the {@link Match}, with time delays. */
-  private static class MoveMatchStage implements Stage, Commitable {
+  /**
+   * Stage #5: teleport {@link Player}s to the {@link Match}, with time delays. Waits for the
+   * factory to be awaited, so players are only moved once the previous match is done.
+   */
+  private static class MoveMatchStage implements Stage, Revertable, Commitable {
     private final Match match;
     private final int teleportsPerSecond;
+    private volatile boolean started;
 
     private MoveMatchStage(Match match) {
       this.match = assertNotNull(match);
@@ -386,6 +510,8 @@ public class MatchFactoryImpl implements MatchFactory, Callable<Match> {
     }
 
     private Stage advanceSync() {
+      started = true;
+
       // Create copy to avoid CME on mach unload
       for (Match otherMatch : Lists.newArrayList(PGM.get().getMatchManager().getMatches())) {
         if (match.equals(otherMatch)) continue;
@@ -411,13 +537,28 @@ public class MatchFactoryImpl implements MatchFactory, Callable<Match> {
     }
 
     @Override
-    public Future<? extends Stage> advance() {
+    public CompletableFuture<? extends Stage> advance() {
       return runMainThread(this::advanceSync);
     }
 
     @Override
-    public Duration delay(boolean timedOut) {
-      return Duration.ofSeconds(1);
+    public @Nullable Duration delay(boolean timedOut) {
+      if (started) return Duration.ofSeconds(1);
+      return timedOut ? Duration.ZERO : null;
+    }
+
+    private boolean revertSync() {
+      TAB_PACKETS.teamRemovePacket(DUMMY_TEAM).broadcast();
+      return true;
+    }
+
+    @Override
+    public CompletableFuture<?> revert() {
+      // Once players started moving, the previous match may already be unloaded
+      if (started) throw new IllegalStateException("Unable to revert a match players moved to");
+
+      // Nobody moved yet, so only remove the dummy team. The stages below unload the match
+      return runMainThread(this::revertSync);
     }
 
     @Override
@@ -426,18 +567,23 @@ public class MatchFactoryImpl implements MatchFactory, Callable<Match> {
     }
   }
 
-  private static <V> Future<V> runMainThread(Callable<V> task) {
-    return PGM.get().getServer().getScheduler().callSyncMethod(PGM.get(), task);
+  private static <V> CompletableFuture<V> runMainThread(Callable<V> task) {
+    return supply(task, PGM.get().getExecutor());
   }
 
   private static <V> CompletableFuture<V> runAsyncThread(Callable<V> task) {
+    return supply(task, PGM.get().getAsyncExecutor());
+  }
+
+  private static <V> CompletableFuture<V> supply(Callable<V> task, Executor executor) {
     return CompletableFuture.supplyAsync(
         () -> {
           try {
             return task.call();
           } catch (Exception e) {
-            throw new RuntimeException(e);
+            throw new CompletionException(e);
           }
-        });
+        },
+        executor);
   }
 }
@@ -9,8 +9,11 @@ import java.io.File;
 import java.lang.ref.WeakReference;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -19,7 +22,12 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import net.kyori.adventure.audience.MessageType;
+import net.kyori.adventure.chat.ChatType;
+import net.kyori.adventure.identity.Identified;
+import net.kyori.adventure.identity.Identity;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.ComponentLike;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
@@ -85,9 +93,13 @@ import tc.oc.pgm.util.TimeUtils;
 import tc.oc.pgm.util.bukkit.Events;
 import tc.oc.pgm.util.collection.RankedSet;
 import tc.oc.pgm.util.concurrent.BukkitExecutorService;
+import tc.oc.pgm.util.text.BroadcastRenderer;
 
 public class MatchImpl implements Match {
 
+  // Modules slower than this to create and load are named when the match loads
+  private static final long SLOW_MODULE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
   private final String id;
   private final MapContext map;
   private final WeakReference<World> world;
@@ -117,6 +129,10 @@ public class MatchImpl implements Match {
   private final ObserverParty observers;
   private final MatchFeatureContext features;
   private Boolean friendlyFireOverride;
+  private final Map<Object, Class<? extends MatchModule>> owners;
+  private @Nullable Class<? extends MatchModule> loadingModule;
+  private final Map<MatchModuleFactory<?>, CompletableFuture<MatchModule>> asyncModules;
+  private long asyncNanos;
 
   protected MatchImpl(String id, MapContext map, World world) {
     this.id = assertNotNull(id);
@@ -161,6 +177,8 @@ public class MatchImpl implements Match {
     this.queuedParticipants = new AtomicReference<>();
     this.observers = new ObserverParty(this);
     this.features = new MatchFeatureContext();
+    this.owners = new IdentityHashMap<>();
+    this.asyncModules = new ConcurrentHashMap<>();
   }
 
   @Override
@@ -287,6 +305,7 @@ public class MatchImpl implements Match {
 
   @Override
   public void addListener(Listener listener, MatchScope scope) {
+    if (loadingModule != null) owners.put(listener, loadingModule);
     if (listeners.get(scope).add(listener) && getScope() == scope) {
       startListener(listener);
     }
@@ -320,21 +339,127 @@ public class MatchImpl implements Match {
     return Audience.get(audiences);
   }
 
+  // Every message overload is broadcast, so none of them render the message once per player
+
+  @Override
+  public void sendMessage(@NotNull Component message) {
+    broadcast(null, message);
+  }
+
+  @Override
+  public void sendMessage(@NotNull ComponentLike message) {
+    broadcast(null, message.asComponent());
+  }
+
+  @Override
+  public void sendMessage(@NotNull Component message, ChatType.@NotNull Bound boundChatType) {
+    broadcast(null, message);
+  }
+
+  @Override
+  @Deprecated
+  public void sendMessage(@NotNull Identified source, @NotNull Component message) {
+    broadcast(source.identity(), message);
+  }
+
+  @Override
+  @Deprecated
+  public void sendMessage(@NotNull Identity source, @NotNull Component message) {
+    broadcast(source, message);
+  }
+
+  @Override
+  @Deprecated
+  public void sendMessage(@NotNull Component message, @NotNull MessageType type) {
+    broadcast(type == MessageType.CHAT ? Identity.nil() : null, message);
+  }
+
+  @Override
+  @Deprecated
+  public void sendMessage(
+      @NotNull Identified source, @NotNull Component message, @NotNull MessageType type) {
+    broadcast(type == MessageType.CHAT ? source.identity() : null, message);
+  }
+
+  @Override
+  @Deprecated
+  public void sendMessage(
+      @NotNull Identity source, @NotNull Component message, @NotNull MessageType type) {
+    broadcast(type == MessageType.CHAT ? source : null, message);
+  }
+
+  private void broadcast(@Nullable Identity source, Component message) {
+    final List<Player> players = new ArrayList<>(getPlayers().size());
+    for (MatchPlayer player : getPlayers()) {
+      players.add(player.getBukkit());
+    }
+    BroadcastRenderer.broadcast(players, source, message);
+    Audience.console().sendMessage(message);
+  }
+
   private class EventExecutor implements org.bukkit.plugin.EventExecutor {
     private final RegisteredListener listener;
+    private final MatchProfiler.Probe probe;
 
-    private EventExecutor(RegisteredListener listener) {
+    private EventExecutor(RegisteredListener listener, MatchProfiler.Probe probe) {
       this.listener = assertNotNull(listener);
+      this.probe = assertNotNull(probe);
     }
 
     @Override
     public void execute(Listener other, Event event) throws EventException {
       if (((MatchEvent) event).getMatch() == MatchImpl.this) {
-        listener.callEvent(event);
+        callProfiled(listener, probe, event);
       }
     }
   }
 
+  /** A listener that records the time spent in another listener, if the profiler is enabled. */
+  private static class ProfiledListener extends RegisteredListener {
+    private final RegisteredListener listener;
+    private final MatchProfiler.Probe probe;
+
+    private ProfiledListener(RegisteredListener listener, MatchProfiler.Probe probe) {
+      super(
+          listener.getListener(),
+          (other, event) -> listener.callEvent(event),
+          listener.getPriority(),
+          listener.getPlugin(),
+          listener.isIgnoringCancelled());
+      this.listener = listener;
+      this.probe = probe;
+    }
+
+    @Override
+    public void callEvent(Event event) throws EventException {
+      callProfiled(listener, probe, event);
+    }
+  }
+
+  private static void callProfiled(
+      RegisteredListener listener, MatchProfiler.Probe probe, Event event) throws EventException {
+    if (!probe.isEnabled()) {
+      listener.callEvent(event);
+      return;
+    }
+
+    final long start = System.nanoTime();
+    try {
+      listener.callEvent(event);
+    } finally {
+      probe.record(System.nanoTime() - start);
+    }
+  }
+
+  private MatchProfiler.Probe probe(
+      MatchProfiler.Category category, Object thing, @Nullable String detail) {
+    final Class<? extends MatchModule> owner = thing instanceof MatchModule
+        ? ((MatchModule) thing).getClass()
+        : owners.get(thing);
+    final String name = MatchProfiler.nameOf(thing.getClass());
+    return MatchProfiler.get().probe(category, detail == null ? name : name + " " + detail, owner);
+  }
+
   private void startListener(Listener listener) {
     for (Map.Entry<Class<? extends Event>, Set<RegisteredListener>> entry : PGM.get()
         .getPluginLoader()
@@ -353,17 +478,30 @@ public class MatchImpl implements Match {
                   eventClass,
                   listener,
                   registeredListener.getPriority(),
-                  new EventExecutor(registeredListener),
+                  new EventExecutor(
+                      registeredListener, probe(listener, eventClass, registeredListener)),
                   PGM.get());
         }
       } else {
-        handlerList.registerAll(entry.getValue());
+        for (final RegisteredListener registeredListener : entry.getValue()) {
+          handlerList.register(new ProfiledListener(
+              registeredListener, probe(listener, eventClass, registeredListener)));
+        }
       }
     }
   }
 
+  private MatchProfiler.Probe probe(
+      Listener listener, Class<? extends Event> eventClass, RegisteredListener registered) {
+    return probe(
+        MatchProfiler.Category.HANDLER,
+        listener,
+        MatchProfiler.nameOf(eventClass) + " " + registered.getPriority());
+  }
+
   @Override
   public void addTickable(Tickable tickable, MatchScope scope) {
+    if (loadingModule != null) owners.put(tickable, loadingModule);
     tickables.get(scope).add(tickable);
   }
 
@@ -736,24 +874,104 @@ public class MatchImpl implements Match {
     this.friendlyFireOverride = allow;
   }
 
+  /**
+   * Ticks every {@link Tickable} of a scope at its interval.
+   *
+   * <p>Critical tickables are always ticked on time. Any other tickable that is due only runs while
+   * the time spent this tick is within the configured budget, normal priority first, and is
+   * deferred to the next tick otherwise. Nothing is deferred for longer than {@link
+   * #MAX_DEFERRED_TICKS}.
+   */
   private class TickableTask implements Runnable {
+    private static final int MAX_DEFERRED_TICKS = 20;
+
     private final MatchScope scope;
+    private final long budget;
+    private final Map<Tickable, TickableState> states = new IdentityHashMap<>();
+    private final List<TickableState> deferrable = new ArrayList<>();
 
     private TickableTask(MatchScope scope) {
       this.scope = assertNotNull(scope);
+      this.budget = (long) (PGM.get().getConfiguration().getTickBudget() * 1_000_000);
     }
 
     @Override
     public void run() {
       final Tick tick = getTick();
+      final long start = System.nanoTime();
+      final boolean profile = MatchProfiler.get().isEnabled();
+
+      int count = 0;
       for (Tickable tickable : MatchImpl.this.tickables.get(scope)) {
-        try {
-          tickable.tick(MatchImpl.this, tick);
-        } catch (Throwable t) {
-          logger.log(Level.SEVERE, "Could not tick " + tickable, t);
-          tickables.remove(tickable);
+        final TickableState state =
+            states.computeIfAbsent(tickable, t -> new TickableState(t, tick));
+        state.lastSeen = tick.tick;
+        count++;
+        if (tick.tick < state.nextTick) continue;
+
+        if (state.priority == Tickable.Priority.CRITICAL || budget <= 0) {
+          tick(state, tick, profile);
+        } else {
+          deferrable.add(state);
+        }
+      }
+
+      // Forget the state of tickables that have been removed
+      if (states.size() > count) {
+        states.values().removeIf(state -> state.lastSeen != tick.tick);
+      }
+
+      if (deferrable.isEmpty()) return;
+      deferrable.sort(null);
+      for (TickableState state : deferrable) {
+        if (System.nanoTime() - start < budget
+            || tick.tick - state.nextTick >= MAX_DEFERRED_TICKS) {
+          tick(state, tick, profile);
         }
       }
+      deferrable.clear();
+    }
+
+    private void tick(TickableState state, Tick tick, boolean profile) {
+      final long start = profile ? System.nanoTime() : 0;
+      try {
+        state.tickable.tick(MatchImpl.this, tick);
+      } catch (Throwable t) {
+        logger.log(Level.SEVERE, "Could not tick " + state.tickable, t);
+        removeTickable(state.tickable);
+        states.remove(state.tickable);
+      }
+      state.nextTick = tick.tick + state.interval;
+
+      if (profile) {
+        if (state.probe == null) {
+          state.probe = probe(MatchProfiler.Category.TICKABLE, state.tickable, null);
+        }
+        state.probe.record(System.nanoTime() - start);
+      }
+    }
+  }
+
+  private static class TickableState implements Comparable<TickableState> {
+    private final Tickable tickable;
+    private final Tickable.Priority priority;
+    private final int interval;
+    private long nextTick;
+    private long lastSeen;
+    private @Nullable MatchProfiler.Probe probe;
+
+    private TickableState(Tickable tickable, Tick tick) {
+      this.tickable = tickable;
+      this.priority = assertNotNull(tickable.getTickPriority());
+      this.interval = Math.max(1, tickable.getTickInterval());
+      // Spread tickables with the same interval across ticks
+      this.nextTick = tick.tick + Math.floorMod(System.identityHashCode(tickable), interval);
+    }
+
+    @Override
+    public int compareTo(TickableState other) {
+      final int result = priority.compareTo(other.priority);
+      return result != 0 ? result : Long.compare(nextTick, other.nextTick);
     }
   }
 
@@ -776,9 +994,81 @@ public class MatchImpl implements Match {
     return builder.build();
   }
 
+  /**
+   * Creates every module that can be created off the main thread, in parallel. A module is only
+   * created once all of its dependencies are, so a factory that depends on any module created on
+   * the main thread is left for {@link #load()}.
+   *
+   * @param executor The executor to create modules on.
+   * @return A future that completes once every module was created, even if some failed.
+   */
+  CompletableFuture<Void> createAsyncModules(Executor executor) {
+    final long start = System.nanoTime();
+    final Map<Class<? extends MatchModule>, MatchModuleFactory<?>> factories = buildModuleMap();
+    final Set<MatchModuleFactory<?>> visiting = new HashSet<>();
+    for (MatchModuleFactory<?> factory : factories.values()) {
+      createAsyncModule(factory, factories, visiting, executor);
+    }
+
+    return CompletableFuture.allOf(asyncModules.values().toArray(new CompletableFuture<?>[0]))
+        .handle((v, e) -> {
+          asyncNanos = System.nanoTime() - start;
+          return null;
+        });
+  }
+
+  private @Nullable CompletableFuture<MatchModule> createAsyncModule(
+      MatchModuleFactory<?> factory,
+      Map<Class<? extends MatchModule>, MatchModuleFactory<?>> factories,
+      Set<MatchModuleFactory<?>> visiting,
+      Executor executor) {
+    if (!factory.canCreateAsync()) return null;
+
+    CompletableFuture<MatchModule> future = asyncModules.get(factory);
+    if (future != null || !visiting.add(factory)) return future;
+
+    final List<CompletableFuture<MatchModule>> dependencies = new ArrayList<>();
+    for (Collection<Class<? extends MatchModule>> keys : Arrays.asList(
+        factory.getHardDependencies(),
+        factory.getSoftDependencies(),
+        factory.getWeakDependencies())) {
+      if (keys == null) continue;
+      for (Class<? extends MatchModule> key : keys) {
+        MatchModuleFactory<?> dependency = factories.get(key);
+        if (dependency == null) dependency = Modules.MATCH_DEPENDENCY_ONLY.get(key);
+        if (dependency == null) continue; // Missing dependencies are handled by the loader
+
+        final CompletableFuture<MatchModule> created =
+            createAsyncModule(dependency, factories, visiting, executor);
+        if (created == null) return null;
+        dependencies.add(created);
+      }
+    }
+
+    future = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+        .thenApplyAsync(
+            v -> {
+              try {
+                final MatchModule module = factory.createMatchModule(this);
+                // Dependent modules may look it up while they are created
+                if (module != null) matchModules.put(module.getClass(), module);
+                return module;
+              } catch (ModuleLoadException e) {
+                throw new CompletionException(e);
+              }
+            },
+            executor);
+    asyncModules.put(factory, future);
+    return future;
+  }
+
   private class ModuleLoader
       extends ModuleGraph<MatchModule, MatchModuleFactory<? extends MatchModule>> {
 
+    private long createNanos;
+    private long loadNanos;
+    private final Map<String, Long> slowModules = new LinkedHashMap<>();
+
     private ModuleLoader() throws ModuleLoadException {
       super(buildModuleMap(), Modules.MATCH_DEPENDENCY_ONLY);
       loadAll();
@@ -804,10 +1094,31 @@ public class MatchImpl implements Match {
 
     @Override
     protected MatchModule createModule(MatchModuleFactory<?> factory) throws ModuleLoadException {
-      final MatchModule module = factory.createMatchModule(MatchImpl.this);
-      if (module == null) return null;
+      final long start = System.nanoTime();
+      final MatchModule module;
+      final long loadStart;
+      try {
+        // Anything the module registers while it loads is charged to it by the profiler
+        loadingModule = Modules.MAP_TO_MATCH.get(factory.getClass());
+        final CompletableFuture<MatchModule> created = asyncModules.remove(factory);
+        module = created != null
+            ? getAsyncModule(created)
+            : factory.createMatchModule(MatchImpl.this);
+        if (module == null) return null;
+
+        loadStart = System.nanoTime();
+        loadingModule = module.getClass();
+        module.load();
+      } finally {
+        loadingModule = null;
+      }
 
-      module.load();
+      final long end = System.nanoTime();
+      createNanos += loadStart - start;
+      loadNanos += end - loadStart;
+      if (end - start >= SLOW_MODULE_NANOS) {
+        slowModules.put(module.getClass().getSimpleName(), (end - start) / 1_000_000);
+      }
 
       matchModules.put(module.getClass(), module);
 
@@ -828,11 +1139,34 @@ public class MatchImpl implements Match {
     }
   }
 
+  private MatchModule getAsyncModule(CompletableFuture<MatchModule> future)
+      throws ModuleLoadException {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof ModuleLoadException) throw (ModuleLoadException) e.getCause();
+      if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+      throw e;
+    }
+  }
+
   @Override
   public void load() throws ModuleLoadException {
     try {
-      new ModuleLoader(); // Will load all map and match modules and throw any errors
+      final long start = System.nanoTime();
+      final ModuleLoader loader;
+      try {
+        loader = new ModuleLoader(); // Will load all map and match modules and throw any errors
+      } finally {
+        // Forget modules that were created early, but skipped because of their dependencies
+        for (CompletableFuture<MatchModule> future : asyncModules.values()) {
+          final MatchModule module = future.isCompletedExceptionally() ? null : future.join();
+          if (module != null) matchModules.remove(module.getClass(), module);
+        }
+        asyncModules.clear();
+      }
 
+      final long featuresStart = System.nanoTime();
       for (Feature feature : getFeatureContext().getAll()) {
         if (feature instanceof Listener) {
           addListener((Listener) feature, getListenerScope((Listener) feature, MatchScope.RUNNING));
@@ -843,9 +1177,23 @@ public class MatchImpl implements Match {
         }
       }
 
+      final long startStart = System.nanoTime();
       startListeners(MatchScope.LOADED);
       startTickables(MatchScope.LOADED);
       addParty(observers);
+      final long end = System.nanoTime();
+
+      logger.info(String.format(
+          "Loaded %d modules in %dms: %dms off the main thread, %dms creating, %dms loading,"
+              + " %dms registering features, %dms starting%s",
+          matchModules.size(),
+          (end - start) / 1_000_000,
+          asyncNanos / 1_000_000,
+          loader.createNanos / 1_000_000,
+          loader.loadNanos / 1_000_000,
+          (startStart - featuresStart) / 1_000_000,
+          (end - startStart) / 1_000_000,
+          loader.slowModules.isEmpty() ? "" : " (slowest: " + loader.slowModules + ")"));
 
       loaded.set(true);
       callEvent(new MatchLoadEvent(this));
@@ -887,6 +1235,7 @@ public class MatchImpl implements Match {
     matchModules.clear();
     listeners.clear();
     tickables.clear();
+    owners.clear();
     players.clear();
     partyChanges.clear();
     parties.clear();
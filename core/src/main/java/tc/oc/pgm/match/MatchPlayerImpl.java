@@ -360,7 +360,20 @@ public class MatchPlayerImpl implements MatchPlayer, Comparable<MatchPlayer> {
   @Override
   public void applyKit(Kit kit, boolean force) {
     List<ItemStack> displacedItems = new ArrayList<>();
-    kit.apply(this, force, displacedItems);
+    // Spawn waves apply a kit to every player at once, so the time spent is worth profiling
+    final MatchProfiler profiler = MatchProfiler.get();
+    if (profiler.isEnabled()) {
+      final long start = System.nanoTime();
+      try {
+        kit.apply(this, force, displacedItems);
+      } finally {
+        profiler
+            .probe(MatchProfiler.Category.KIT, MatchProfiler.nameOf(kit.getClass()), null)
+            .record(System.nanoTime() - start);
+      }
+    } else {
+      kit.apply(this, force, displacedItems);
+    }
 
     if (!displacedItems.isEmpty()) {
       Collection<ItemStack> leftover =
@@ -0,0 +1,238 @@
+package tc.oc.pgm.match;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.jetbrains.annotations.Nullable;
+import tc.oc.pgm.api.PGM;
+import tc.oc.pgm.api.match.MatchModule;
+import tc.oc.pgm.api.match.Tickable;
+
+/**
+ * An opt-in profiler of the time spent in each {@link Tickable} and event handler of a match.
+ *
+ * <p>Time is recorded in nanosecond histograms, one per tickable class, per event handler and per
+ * {@link MatchModule}. A module is charged for itself and for any listener or tickable it
+ * registers while it loads, such as trackers. Kits applied to players are timed per kit class, to
+ * measure the cost of spawn waves. Timings are only recorded from the main thread.
+ */
+public final class MatchProfiler {
+
+  private static final MatchProfiler INSTANCE = new MatchProfiler();
+
+  public static MatchProfiler get() {
+    return INSTANCE;
+  }
+
+  public enum Category {
+    MODULE,
+    TICKABLE,
+    HANDLER,
+    KIT
+  }
+
+  private final Map<String, Timing> timings = new ConcurrentHashMap<>();
+  private volatile boolean enabled;
+  private volatile long since;
+  private @Nullable ScheduledFuture<?> logTask;
+
+  private MatchProfiler() {}
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Reset and start profiling.
+   *
+   * @param logInterval How often to log a report, or null to never log
+   */
+  public synchronized void start(@Nullable Duration logInterval) {
+    stopLogging();
+    reset();
+    enabled = true;
+
+    if (logInterval != null && !logInterval.isZero() && !logInterval.isNegative()) {
+      final long millis = logInterval.toMillis();
+      logTask = PGM.get()
+          .getExecutor()
+          .scheduleAtFixedRate(this::log, millis, millis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /** Stop profiling, keeping the timings recorded so far. */
+  public synchronized void stop() {
+    enabled = false;
+    stopLogging();
+  }
+
+  public void reset() {
+    for (Timing timing : timings.values()) {
+      timing.reset();
+    }
+    since = System.currentTimeMillis();
+  }
+
+  /** Get the time since profiling was last reset. */
+  public Duration getElapsed() {
+    return Duration.ofMillis(since == 0 ? 0 : System.currentTimeMillis() - since);
+  }
+
+  /** Get the timings of a category that were recorded at least once, slowest in total first. */
+  public List<Timing> getTimings(Category category) {
+    final List<Timing> result = new ArrayList<>();
+    for (Timing timing : timings.values()) {
+      if (timing.category == category && timing.count > 0) result.add(timing);
+    }
+    result.sort(Comparator.comparingLong(Timing::getTotal).reversed());
+    return result;
+  }
+
+  /**
+   * Get a probe to record the time spent in something.
+   *
+   * @param category The category of the thing
+   * @param name The name of the thing
+   * @param module The module that owns the thing, if any
+   */
+  Probe probe(Category category, String name, @Nullable Class<? extends MatchModule> module) {
+    return new Probe(
+        timing(category, name), module == null ? null : timing(Category.MODULE, nameOf(module)));
+  }
+
+  private Timing timing(Category category, String name) {
+    return timings.computeIfAbsent(category + ":" + name, k -> new Timing(category, name));
+  }
+
+  private void log() {
+    final Logger logger = PGM.get().getLogger();
+    logger.info("Match profile of the last " + getElapsed().getSeconds() + "s:");
+    for (Category category : Category.values()) {
+      final List<Timing> top = getTimings(category);
+      for (int i = 0; i < top.size() && i < 10; i++) {
+        logger.info("  " + category.name().toLowerCase(Locale.ROOT) + " " + top.get(i));
+      }
+    }
+  }
+
+  private synchronized void stopLogging() {
+    if (logTask != null) {
+      logTask.cancel(false);
+      logTask = null;
+    }
+  }
+
+  static String nameOf(Class<?> type) {
+    final String name = type.getName();
+    return name.substring(name.lastIndexOf('.') + 1);
+  }
+
+  /** Records the time spent in one thing, and in the module that owns it. */
+  final class Probe {
+    private final Timing timing;
+    private final @Nullable Timing module;
+
+    private Probe(Timing timing, @Nullable Timing module) {
+      this.timing = timing;
+      this.module = module;
+    }
+
+    boolean isEnabled() {
+      return enabled;
+    }
+
+    void record(long nanos) {
+      timing.record(nanos);
+      if (module != null) module.record(nanos);
+    }
+  }
+
+  /** A histogram of durations, bucketed by powers of two nanoseconds. */
+  public static final class Timing {
+    private static final int BUCKETS = 40;
+
+    private final Category category;
+    private final String name;
+    private final long[] buckets = new long[BUCKETS];
+    private long count;
+    private long total;
+    private long max;
+
+    private Timing(Category category, String name) {
+      this.category = category;
+      this.name = name;
+    }
+
+    private void record(long nanos) {
+      buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(nanos, 0)))]++;
+      count++;
+      total += nanos;
+      if (nanos > max) max = nanos;
+    }
+
+    private void reset() {
+      for (int i = 0; i < BUCKETS; i++) buckets[i] = 0;
+      count = total = max = 0;
+    }
+
+    public Category getCategory() {
+      return category;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getTotal() {
+      return total;
+    }
+
+    public long getMax() {
+      return max;
+    }
+
+    public long getMean() {
+      return count == 0 ? 0 : total / count;
+    }
+
+    /**
+     * Get an upper bound of a percentile of the durations.
+     *
+     * @param percentile A percentile between 0 and 1
+     * @return The upper bound of the bucket holding the percentile, in nanoseconds
+     */
+    public long getPercentile(double percentile) {
+      final long target = (long) Math.ceil(count * percentile);
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += buckets[i];
+        if (seen >= target && seen > 0) return Math.min(max, (1L << i) - 1);
+      }
+      return max;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          Locale.ROOT,
+          "%s: count=%d total=%.1fms mean=%.1fus p99=%.1fus max=%.1fus",
+          name,
+          count,
+          total / 1e6,
+          getMean() / 1e3,
+          getPercentile(0.99) / 1e3,
+          max / 1e3);
+    }
+  }
+}
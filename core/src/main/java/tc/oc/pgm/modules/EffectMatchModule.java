@@ -0,0 +1,106 @@
+package tc.oc.pgm.modules;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.Nullable;
+import tc.oc.pgm.api.match.Match;
+import tc.oc.pgm.api.match.MatchModule;
+import tc.oc.pgm.api.match.Tickable;
+import tc.oc.pgm.api.player.MatchPlayer;
+import tc.oc.pgm.api.setting.SettingKey;
+import tc.oc.pgm.api.setting.SettingValue;
+import tc.oc.pgm.api.time.Tick;
+import tc.oc.pgm.util.nms.packets.Packet;
+
+/**
+ * Dispatches particles and other effects to the players of a match.
+ *
+ * <p>Effects are queued during a tick and sent at the end of it, each only to the players within
+ * its range. Players with {@link SettingKey#EFFECTS} off are only sent the fallback of an effect,
+ * if it has one. The queue is flushed every tick, outside of the tick budget, since a deferred
+ * effect would show up late and at a stale position.
+ */
+public class EffectMatchModule implements MatchModule, Tickable {
+
+  // How far away, in blocks, an effect is shown by default
+  public static final double DEFAULT_RANGE = 64;
+
+  private final Match match;
+  private final List<QueuedEffect> queue = new ArrayList<>();
+
+  public EffectMatchModule(Match match) {
+    this.match = match;
+  }
+
+  @Override
+  public void unload() {
+    queue.clear();
+  }
+
+  /**
+   * Show an effect to players with effects on that are near it.
+   *
+   * @param location Where the effect is
+   * @param effect The effect
+   */
+  public void play(Location location, Packet effect) {
+    play(location, DEFAULT_RANGE, effect, null);
+  }
+
+  /**
+   * Show an effect to players near it.
+   *
+   * @param location Where the effect is
+   * @param range How far away the effect can be seen from, in blocks
+   * @param effect The effect, for players with effects on
+   * @param fallback The effect for players with effects off, or null to not show them anything
+   */
+  public void play(Location location, double range, Packet effect, @Nullable Packet fallback) {
+    queue.add(new QueuedEffect(location, range, effect, fallback));
+  }
+
+  @Override
+  public void tick(Match match, Tick tick) {
+    if (queue.isEmpty()) return;
+
+    final World world = match.getWorld();
+    for (MatchPlayer player : match.getPlayers()) {
+      final Location location = player.getBukkit().getLocation();
+      if (!world.equals(location.getWorld())) continue;
+
+      final boolean effects =
+          player.getSettings().getValue(SettingKey.EFFECTS) == SettingValue.EFFECTS_ON;
+      for (QueuedEffect queued : queue) {
+        final Packet packet = effects ? queued.effect : queued.fallback;
+        if (packet != null && queued.isInRange(location)) packet.send(player.getBukkit());
+      }
+    }
+    queue.clear();
+  }
+
+  private static class QueuedEffect {
+    private final double x, y, z;
+    private final double rangeSquared;
+    private final Packet effect;
+    private final @Nullable Packet fallback;
+
+    private QueuedEffect(
+        Location location, double range, Packet effect, @Nullable Packet fallback) {
+      this.x = location.getX();
+      this.y = location.getY();
+      this.z = location.getZ();
+      this.rangeSquared = range * range;
+      this.effect = effect;
+      this.fallback = fallback;
+    }
+
+    private boolean isInRange(Location location) {
+      final double dx = location.getX() - x;
+      final double dy = location.getY() - y;
+      final double dz = location.getZ() - z;
+      return dx * dx + dy * dy + dz * dz <= rangeSquared;
+    }
+  }
+}
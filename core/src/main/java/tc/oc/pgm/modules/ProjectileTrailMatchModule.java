@@ -2,13 +2,12 @@ package tc.oc.pgm.modules;
 
 import static tc.oc.pgm.util.bukkit.Effects.EFFECTS;
 
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import org.bukkit.Color;
+import org.bukkit.Location;
 import org.bukkit.entity.Arrow;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Projectile;
@@ -17,27 +16,19 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.ProjectileHitEvent;
 import org.bukkit.event.entity.ProjectileLaunchEvent;
-import org.bukkit.metadata.MetadataValue;
 import org.bukkit.projectiles.ProjectileSource;
-import tc.oc.pgm.api.PGM;
 import tc.oc.pgm.api.match.Match;
 import tc.oc.pgm.api.match.MatchModule;
 import tc.oc.pgm.api.match.MatchScope;
 import tc.oc.pgm.api.player.MatchPlayer;
-import tc.oc.pgm.api.setting.SettingKey;
-import tc.oc.pgm.api.setting.SettingValue;
 import tc.oc.pgm.events.ListenerScope;
-import tc.oc.pgm.util.bukkit.MetadataUtils;
 
 @ListenerScope(MatchScope.RUNNING)
 public class ProjectileTrailMatchModule implements MatchModule, Listener {
 
-  private static final String TRAIL_KEY = "projectile_trail_color";
-  private static final String CRITICAL_KEY = "arrow_is_critical";
-
   private final Match match;
-  private final MetadataValue criticalValue = MetadataUtils.createMetadataValue(PGM.get(), true);
-  private final Map<Color, MetadataValue> trailValues = new HashMap<>();
+  // Projectiles shot by players, which are the only ones with a trail
+  private final Map<Projectile, Trail> trails = new HashMap<>();
 
   public ProjectileTrailMatchModule(Match match) {
     this.match = match;
@@ -46,38 +37,33 @@ public class ProjectileTrailMatchModule implements MatchModule, Listener {
         .scheduleAtFixedRate(this::checkMatchProjectiles, 0L, 50, TimeUnit.MILLISECONDS);
   }
 
-  public void checkMatchProjectiles() {
-    Collection<Projectile> projectiles = match.getWorld().getEntitiesByClass(Projectile.class);
-    if (projectiles.isEmpty()) return;
+  @Override
+  public void unload() {
+    trails.clear();
+  }
 
-    // Pre-compute the list of players to show and hide arrow trails from. This avoids each arrow
-    // re-calculating settings
-    List<MatchPlayer> particleViewers = new ArrayList<>(match.getPlayers().size());
-    List<MatchPlayer> noParticleViewers = new ArrayList<>(match.getPlayers().size());
-    for (MatchPlayer player : match.getPlayers()) {
-      (player.getSettings().getValue(SettingKey.EFFECTS).equals(SettingValue.EFFECTS_ON)
-              ? particleViewers
-              : noParticleViewers)
-          .add(player);
-    }
+  public void checkMatchProjectiles() {
+    if (trails.isEmpty()) return;
 
-    for (Projectile projectile : projectiles) {
-      if (!projectile.hasMetadata(TRAIL_KEY)) continue;
+    final EffectMatchModule effects = match.needModule(EffectMatchModule.class);
+    final Iterator<Map.Entry<Projectile, Trail>> iterator = trails.entrySet().iterator();
+    while (iterator.hasNext()) {
+      final Map.Entry<Projectile, Trail> entry = iterator.next();
+      final Projectile projectile = entry.getKey();
       if (projectile.isDead() || projectile.isOnGround()) {
-        projectile.removeMetadata(TRAIL_KEY, PGM.get());
-        return;
-      }
-      Color color = MetadataUtils.getMetadataValue(projectile, TRAIL_KEY, PGM.get());
-      for (MatchPlayer player : particleViewers) {
-        EFFECTS.coloredDust(player.getBukkit(), projectile.getLocation(), color);
+        iterator.remove();
+        continue;
       }
 
       // Play the critical effect to those who have effects off, to replicate original
       // arrow behavior
-      if (!projectile.hasMetadata(CRITICAL_KEY)) continue;
-      for (MatchPlayer player : noParticleViewers) {
-        EFFECTS.criticalArrow(player.getBukkit(), projectile.getLocation());
-      }
+      final Trail trail = entry.getValue();
+      final Location location = projectile.getLocation();
+      effects.play(
+          location,
+          EffectMatchModule.DEFAULT_RANGE,
+          EFFECTS.coloredDust(location, trail.color),
+          trail.critical ? EFFECTS.criticalArrow(location) : null);
     }
   }
 
@@ -91,28 +77,28 @@ public class ProjectileTrailMatchModule implements MatchModule, Listener {
     MatchPlayer player = match.getPlayer(getShooter(event.getEntity()));
     if (player == null) return;
     final Projectile projectile = event.getEntity();
-    projectile.setMetadata(TRAIL_KEY, getOrCreateColorValue(player.getParty().getFullColor()));
-    // Set critical metadata to false in order to remove default particle trail.
-    // The metadata will be restored just before the arrow hits something.
-    if (projectile instanceof Arrow && ((Arrow) projectile).isCritical()) {
-      projectile.setMetadata(CRITICAL_KEY, criticalValue);
-      ((Arrow) projectile).setCritical(false);
-    }
+    // Remove the default particle trail of critical arrows.
+    // It will be restored just before the arrow hits something.
+    final boolean critical = projectile instanceof Arrow && ((Arrow) projectile).isCritical();
+    if (critical) ((Arrow) projectile).setCritical(false);
+    trails.put(projectile, new Trail(player.getParty().getFullColor(), critical));
   }
 
   @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
   public void onProjectileHit(ProjectileHitEvent event) {
-    MatchPlayer player = match.getPlayer(getShooter(event.getEntity()));
-    if (player == null) return;
     final Projectile projectile = event.getEntity();
-    projectile.removeMetadata(TRAIL_KEY, PGM.get());
-    // Restore critical metadata to arrows if applicable
-    if (projectile instanceof Arrow && projectile.hasMetadata(CRITICAL_KEY)) {
-      ((Arrow) projectile).setCritical(true);
-    }
+    final Trail trail = trails.remove(projectile);
+    // Restore critical arrows if applicable
+    if (trail != null && trail.critical) ((Arrow) projectile).setCritical(true);
   }
 
-  private MetadataValue getOrCreateColorValue(Color color) {
-    return trailValues.computeIfAbsent(color, c -> MetadataUtils.createMetadataValue(PGM.get(), c));
+  private static class Trail {
+    private final Color color;
+    private final boolean critical;
+
+    private Trail(Color color, boolean critical) {
+      this.color = color;
+      this.critical = critical;
+    }
   }
 }
@@ -16,7 +16,9 @@ import tc.oc.pgm.api.match.Match;
 import tc.oc.pgm.api.party.Competitor;
 import tc.oc.pgm.api.region.Region;
 import tc.oc.pgm.controlpoint.ControlPoint;
+import tc.oc.pgm.modules.EffectMatchModule;
 import tc.oc.pgm.payload.track.Track;
+import tc.oc.pgm.util.nms.packets.Packet;
 
 public class Payload extends ControlPoint {
 
@@ -101,6 +103,7 @@ public class Payload extends ControlPoint {
     double offset = (double) tick * diff / PARTICLE_ROTATION;
 
     Location loc = new Location(match.getWorld(), 0, 0, 0);
+    Packet[] particles = new Packet[PARTICLE_AMOUNT];
     for (int i = 0; i < PARTICLE_AMOUNT; i++) {
       double angle = i * diff + offset;
       // Height between 0.2 and 0.8
@@ -110,9 +113,19 @@ public class Payload extends ControlPoint {
       loc.setY(height);
       loc.setZ(definition.getRadius() * Math.sin(angle));
       loc.add(position);
-      EFFECTS.coloredDust(match.getWorld(), loc, color);
+      particles[i] = EFFECTS.coloredDust(loc, color);
     }
 
+    // The ring shows who controls the payload, so it is shown even with effects off
+    Packet ring = Packet.of(particles);
+    match
+        .needModule(EffectMatchModule.class)
+        .play(
+            position.toLocation(match.getWorld()),
+            EffectMatchModule.DEFAULT_RANGE + definition.getRadius(),
+            ring,
+            ring);
+
     if (definition.showBeam()) {
       DyeColor dyeColor = display != null ? display.getDyeColor() : DyeColor.WHITE;
       EFFECTS.beam(match.getWorld(), loc, dyeColor);
@@ -8,6 +8,7 @@ import org.bukkit.entity.Entity;
 import org.jetbrains.annotations.Nullable;
 import tc.oc.pgm.api.match.Match;
 import tc.oc.pgm.api.player.MatchPlayer;
+import tc.oc.pgm.spatial.PlayerIndexMatchModule;
 
 /** Get 16 points from each child and choose the farthest point from any enemy */
 public class SpreadPointProvider extends AggregatePointProvider {
@@ -27,23 +28,23 @@ public class SpreadPointProvider extends AggregatePointProvider {
     List<Location> bestPoints = new ArrayList<>(SAMPLE_COUNT);
     double bestDistance = Double.NEGATIVE_INFINITY;
     MatchPlayer player = match.getPlayer(entity);
+    PlayerIndexMatchModule index = match.needModule(PlayerIndexMatchModule.class);
 
     for (int i = 0; i < SAMPLE_COUNT; i++) {
       for (PointProvider child : children) {
         Location pos = child.getPoint(match, entity);
         if (pos == null) continue;
 
-        double nearest = Double.POSITIVE_INFINITY;
-
-        for (MatchPlayer enemy : match.getParticipants()) {
-          if (enemy.isParticipating()
-              && !enemy.isDead()
-              && (player == null
-                  || player.getParty() != enemy.getParty()
-                  || this.spreadTeammates)) {
-            nearest = Math.min(nearest, pos.distanceSquared(enemy.getBukkit().getLocation()));
-          }
-        }
+        double nearest = index
+            .getNearest(
+                pos.toVector(),
+                enemy -> enemy.isParticipating()
+                    && !enemy.isDead()
+                    && (player == null
+                        || player.getParty() != enemy.getParty()
+                        || this.spreadTeammates))
+            .map(enemy -> pos.distanceSquared(enemy.getBukkit().getLocation()))
+            .orElse(Double.POSITIVE_INFINITY);
 
         if (bestDistance <= nearest) {
           if (bestDistance != nearest) {
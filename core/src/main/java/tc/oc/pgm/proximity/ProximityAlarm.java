@@ -6,6 +6,7 @@ import static net.kyori.adventure.text.Component.text;
 import static tc.oc.pgm.util.nms.NMSHacks.NMS_HACKS;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
 import java.util.Set;
 import net.kyori.adventure.sound.Sound;
@@ -16,8 +17,9 @@ import org.bukkit.Location;
 import org.bukkit.entity.Firework;
 import tc.oc.pgm.api.match.Match;
 import tc.oc.pgm.api.player.MatchPlayer;
-import tc.oc.pgm.controlpoint.RegionPlayerTracker;
 import tc.oc.pgm.fireworks.FireworkMatchModule;
+import tc.oc.pgm.regions.Bounds;
+import tc.oc.pgm.spatial.PlayerIndexMatchModule;
 
 public class ProximityAlarm {
   private static final long MESSAGE_INTERVAL = 5000;
@@ -31,24 +33,39 @@ public class ProximityAlarm {
   protected final ProximityAlarmDefinition definition;
   protected long lastMessageTime = 0;
 
-  protected final RegionPlayerTracker playerTracker;
-
   public ProximityAlarm(Match match, ProximityAlarmDefinition definition, Random random) {
     this.random = random;
     this.match = match;
     this.definition = definition;
-    this.playerTracker =
-        new RegionPlayerTracker(match, definition.detectRegion, definition.detectFilter);
   }
 
   public void showAlarm() {
-    if (this.random.nextFloat() < FLARE_CHANCE && !this.playerTracker.getPlayers().isEmpty()) {
-      this.showFlare();
+    if (this.random.nextFloat() >= FLARE_CHANCE) return;
+
+    List<MatchPlayer> players = this.getDetectedPlayers();
+    if (!players.isEmpty()) {
+      this.showFlare(players);
       this.showMessage();
     }
   }
 
-  private void showFlare() {
+  /**
+   * Get the players in the detect region, only looking at the players near it. Regions without
+   * bounds, like negative ones, look at every player instead.
+   */
+  private List<MatchPlayer> getDetectedPlayers() {
+    List<MatchPlayer> players = match
+        .needModule(PlayerIndexMatchModule.class)
+        .getInBounds(Bounds.of(this.definition.detectRegion));
+    players.removeIf(player -> !player.canInteract()
+        || player.getBukkit().isDead()
+        || !this.definition.detectRegion.contains(player.getLocation())
+        || (this.definition.detectFilter != null
+            && !this.definition.detectFilter.query(player).isAllowed()));
+    return players;
+  }
+
+  private void showFlare(List<MatchPlayer> players) {
     if (!definition.flares) return;
 
     float angle = (float) (this.random.nextFloat() * Math.PI * 2);
@@ -65,7 +82,7 @@ public class ProximityAlarm {
 
     Set<Color> colors = new HashSet<>();
 
-    for (MatchPlayer player : this.playerTracker.getPlayers()) {
+    for (MatchPlayer player : players) {
       colors.add(player.getParty().getFullColor());
     }
 
@@ -22,10 +22,6 @@ public class ProximityAlarmMatchModule implements MatchModule {
 
   @Override
   public void enable() {
-    for (ProximityAlarm proximityAlarm : this.proximityAlarms) {
-      this.match.addListener(proximityAlarm.playerTracker, MatchScope.RUNNING);
-    }
-
     match
         .getExecutor(MatchScope.RUNNING)
         .scheduleWithFixedDelay(
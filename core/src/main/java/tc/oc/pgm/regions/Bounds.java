@@ -4,6 +4,7 @@ import java.util.Iterator;
 import java.util.Random;
 import org.bukkit.util.BlockVector;
 import org.bukkit.util.Vector;
+import tc.oc.pgm.api.region.Region;
 import tc.oc.pgm.util.block.CuboidBlockIterator;
 
 public class Bounds implements Cloneable {
@@ -48,6 +49,18 @@ public class Bounds implements Cloneable {
         new Vector(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY));
   }
 
+  /**
+   * Get the bounds of a region, for regions that may not have any. Unbounded regions, like negative
+   * ones, throw instead of returning their bounds, so they get {@link #unbounded()} bounds here.
+   */
+  public static Bounds of(Region region) {
+    try {
+      return region.getBounds();
+    } catch (UnsupportedOperationException e) {
+      return unbounded();
+    }
+  }
+
   public static Bounds empty() {
     return new Bounds(
         new Vector(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY),
@@ -0,0 +1,103 @@
+package tc.oc.pgm.regions;
+
+import com.google.common.collect.Iterables;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.Arrays;
+import tc.oc.pgm.util.chunk.ChunkKeys;
+
+/**
+ * A chunk-keyed lookup of {@link RegionFilterApplication}s, built from the {@link Bounds} of each
+ * region. Candidates are returned as indices into the priority order of the {@link RFAContext}
+ * they were built from, so iterating them in order preserves region priority.
+ *
+ * <p>RFAs whose region has no usable bounds (unbounded, empty, or spanning too many chunks) are
+ * candidates for every column, see {@link ChunkKeys#covering}.
+ */
+class RFAIndex {
+  // Regions spanning more chunks than this are cheaper to check everywhere than to index
+  private static final int MAX_INDEXED_CHUNKS = 4096;
+
+  private final RegionFilterApplication[] byPriority;
+  private final int[] all;
+  private final int[] unindexed;
+  private final Long2ObjectMap<int[]> byChunk;
+
+  RFAIndex(RFAContext context) {
+    this.byPriority = Iterables.toArray(context.getAll(), RegionFilterApplication.class);
+    this.all = new int[byPriority.length];
+    for (int i = 0; i < all.length; i++) all[i] = i;
+
+    final IntList unindexed = new IntArrayList();
+    final Long2ObjectMap<IntList> byChunk = new Long2ObjectOpenHashMap<>();
+
+    for (int i = 0; i < byPriority.length; i++) {
+      final Bounds bounds = Bounds.of(byPriority[i].region);
+      final long[] chunks =
+          ChunkKeys.covering(bounds.getMin(), bounds.getMax(), MAX_INDEXED_CHUNKS);
+      if (chunks == null) {
+        unindexed.add(i);
+        continue;
+      }
+
+      for (long key : chunks) {
+        IntList list = byChunk.get(key);
+        if (list == null) byChunk.put(key, list = new IntArrayList());
+        list.add(i);
+      }
+    }
+
+    // Every chunk also gets the unindexed RFAs, so a lookup is a single map access
+    this.unindexed = unindexed.toIntArray();
+    this.byChunk = new Long2ObjectOpenHashMap<>(byChunk.size());
+    for (Long2ObjectMap.Entry<IntList> entry : byChunk.long2ObjectEntrySet()) {
+      this.byChunk.put(entry.getLongKey(), union(this.unindexed, entry.getValue().toIntArray()));
+    }
+  }
+
+  /** Get the RFA with the given priority index */
+  RegionFilterApplication get(int index) {
+    return byPriority[index];
+  }
+
+  /** Get the indices of every RFA, in priority order */
+  int[] getAll() {
+    return all;
+  }
+
+  /** Get the indices of all RFAs that could contain a point in the given block column */
+  int[] get(int blockX, int blockZ) {
+    final int[] candidates = byChunk.get(ChunkKeys.ofBlock(blockX, blockZ));
+    return candidates != null ? candidates : unindexed;
+  }
+
+  /** Get the indices of all RFAs that could contain a point in either of the block columns */
+  int[] get(int blockX1, int blockZ1, int blockX2, int blockZ2) {
+    return union(get(blockX1, blockZ1), get(blockX2, blockZ2));
+  }
+
+  /** Merge two ascending index arrays, dropping duplicates */
+  private static int[] union(int[] a, int[] b) {
+    if (a == b || b.length == 0) return a;
+    if (a.length == 0) return b;
+
+    final int[] result = new int[a.length + b.length];
+    int i = 0, j = 0, n = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] < b[j]) {
+        result[n++] = a[i++];
+      } else if (a[i] > b[j]) {
+        result[n++] = b[j++];
+      } else {
+        result[n++] = a[i++];
+        j++;
+      }
+    }
+    while (i < a.length) result[n++] = a[i++];
+    while (j < b.length) result[n++] = b[j++];
+
+    return n == result.length ? result : Arrays.copyOf(result, n);
+  }
+}
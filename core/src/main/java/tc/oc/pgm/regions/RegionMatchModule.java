@@ -55,14 +55,14 @@ import tc.oc.pgm.util.material.MaterialData;
 public class RegionMatchModule implements MatchModule, Listener {
 
   private final Match match;
-  private final RFAContext rfaContext;
+  private final RFAIndex rfaIndex;
   private final boolean useRegionPriority;
 
   private Integer maxBuildHeight;
 
   public RegionMatchModule(Match match, RFAContext rfaContext, Integer maxBuildHeight) {
     this.match = match;
-    this.rfaContext = rfaContext;
+    this.rfaIndex = new RFAIndex(rfaContext);
     this.useRegionPriority = match.getMap().getProto().isNoOlderThan(REGION_PRIORITY_VERSION);
     this.maxBuildHeight = maxBuildHeight;
   }
@@ -82,10 +82,17 @@ public class RegionMatchModule implements MatchModule, Listener {
     tc.oc.pgm.filters.query.PlayerQuery query =
         new tc.oc.pgm.filters.query.PlayerQuery(event, player);
 
+    // Without a from location, leave applications fire for every region not containing the player
+    final int[] candidates =
+        from == null
+            ? this.rfaIndex.getAll()
+            : this.rfaIndex.get(from.getBlockX(), from.getBlockZ(), to.getBlockX(), to.getBlockZ());
+
     if (useRegionPriority) {
       // We need to handle both scopes in the same loop, because the priority order can interleave
       // them
-      for (RegionFilterApplication rfa : this.rfaContext.getAll()) {
+      for (int index : candidates) {
+        RegionFilterApplication rfa = this.rfaIndex.get(index);
         if ((rfa.scope == RFAScope.PLAYER_ENTER
                 && (from == null || !rfa.region.contains(from))
                 && rfa.region.contains(to))
@@ -100,7 +107,9 @@ public class RegionMatchModule implements MatchModule, Listener {
       }
     } else {
       // To preserve legacy behavior exactly, these need to be in seperate loops
-      for (RegionFilterApplication rfa : this.rfaContext.get(RFAScope.PLAYER_ENTER)) {
+      for (int index : candidates) {
+        RegionFilterApplication rfa = this.rfaIndex.get(index);
+        if (rfa.scope != RFAScope.PLAYER_ENTER) continue;
         if ((from == null || !rfa.region.contains(from)) && rfa.region.contains(to)) {
           if (processQuery(rfa, query) && rfa.useRegionPriority) {
             break;
@@ -108,7 +117,9 @@ public class RegionMatchModule implements MatchModule, Listener {
         }
       }
 
-      for (RegionFilterApplication rfa : this.rfaContext.get(RFAScope.PLAYER_LEAVE)) {
+      for (int index : candidates) {
+        RegionFilterApplication rfa = this.rfaIndex.get(index);
+        if (rfa.scope != RFAScope.PLAYER_LEAVE) continue;
         if ((from == null || rfa.region.contains(from)) && !rfa.region.contains(to)) {
           if (processQuery(rfa, query) && rfa.useRegionPriority) {
             break;
@@ -139,7 +150,10 @@ public class RegionMatchModule implements MatchModule, Listener {
     Vector to = event.getBlockTo().toVector();
     Query query = new tc.oc.pgm.filters.query.PlayerQuery(event, player);
 
-    for (RegionFilterApplication rfa : this.rfaContext.get(RFAScope.EFFECT)) {
+    for (int index :
+        this.rfaIndex.get(from.getBlockX(), from.getBlockZ(), to.getBlockX(), to.getBlockZ())) {
+      RegionFilterApplication rfa = this.rfaIndex.get(index);
+      if (rfa.scope != RFAScope.EFFECT) continue;
       if (rfa.velocity == null && rfa.kit == null) continue;
 
       boolean enters = rfa.region.enters(from, to);
@@ -186,11 +200,19 @@ public class RegionMatchModule implements MatchModule, Listener {
     BlockQuery againstQuery =
         againstBlock == null ? null : Queries.block(event, actor, againstBlock);
 
+    BlockState block = event.getNewState();
+    int[] candidates =
+        againstBlock == null
+            ? this.rfaIndex.get(block.getX(), block.getZ())
+            : this.rfaIndex.get(
+                block.getX(), block.getZ(), againstBlock.getX(), againstBlock.getZ());
+
     if (this.useRegionPriority) {
       // Note that the event may be in multiple scopes, which is why they must all be handled in the
       // same pass
       rfaLoop:
-      for (RegionFilterApplication rfa : this.rfaContext.getAll()) {
+      for (int index : candidates) {
+        RegionFilterApplication rfa = this.rfaIndex.get(index);
         switch (rfa.scope) {
           case BLOCK_BREAK:
             if (event.isBreak() && rfa.region.contains(event.getOldState())) {
@@ -222,13 +244,17 @@ public class RegionMatchModule implements MatchModule, Listener {
     } else {
       // Legacy behavior
       if (event.isPlace()) {
-        for (RegionFilterApplication rfa : this.rfaContext.get(RFAScope.BLOCK_PLACE)) {
+        for (int index : candidates) {
+          RegionFilterApplication rfa = this.rfaIndex.get(index);
+          if (rfa.scope != RFAScope.BLOCK_PLACE) continue;
           if (rfa.region.contains(pos) && processQuery(rfa, placeQuery) && rfa.useRegionPriority) {
             break;
           }
         }
       } else {
-        for (RegionFilterApplication rfa : this.rfaContext.get(RFAScope.BLOCK_BREAK)) {
+        for (int index : candidates) {
+          RegionFilterApplication rfa = this.rfaIndex.get(index);
+          if (rfa.scope != RFAScope.BLOCK_BREAK) continue;
           if (rfa.region.contains(pos) && processQuery(rfa, breakQuery) && rfa.useRegionPriority) {
             break;
           }
@@ -241,7 +267,10 @@ public class RegionMatchModule implements MatchModule, Listener {
   public void checkBlockPhysics(final BlockPhysicsEvent event) {
     tc.oc.pgm.filters.query.BlockQuery query =
         new tc.oc.pgm.filters.query.BlockQuery(event, event.getBlock().getState());
-    for (RegionFilterApplication rfa : this.rfaContext.get(RFAScope.BLOCK_PHYSICS)) {
+    Block block = event.getBlock();
+    for (int index : this.rfaIndex.get(block.getX(), block.getZ())) {
+      RegionFilterApplication rfa = this.rfaIndex.get(index);
+      if (rfa.scope != RFAScope.BLOCK_PHYSICS) continue;
       if (rfa.region.contains(event.getBlock()) && processQuery(rfa, query)) break;
     }
   }
@@ -254,7 +283,10 @@ public class RegionMatchModule implements MatchModule, Listener {
     PlayerBlockQuery query =
         new PlayerBlockQuery(event, player, event.getBlock().getState());
 
-    for (RegionFilterApplication rfa : this.rfaContext.get(RFAScope.BLOCK_BREAK)) {
+    Block block = event.getBlock();
+    for (int index : this.rfaIndex.get(block.getX(), block.getZ())) {
+      RegionFilterApplication rfa = this.rfaIndex.get(index);
+      if (rfa.scope != RFAScope.BLOCK_BREAK) continue;
       if (rfa.earlyWarning && rfa.region.contains(event.getBlock())) {
         if (processQuery(rfa, query)) {
           if (event.isCancelled() && rfa.message != null) {
@@ -329,7 +361,9 @@ public class RegionMatchModule implements MatchModule, Listener {
 
     PlayerBlockQuery query = new PlayerBlockQuery(event, player, blockState).withMaterial(md);
 
-    for (RegionFilterApplication rfa : this.rfaContext.get(RFAScope.USE)) {
+    for (int index : this.rfaIndex.get(blockState.getX(), blockState.getZ())) {
+      RegionFilterApplication rfa = this.rfaIndex.get(index);
+      if (rfa.scope != RFAScope.USE) continue;
       if (rfa.region.contains(blockState) && processQuery(rfa, query)) {
         if (query.getEvent() instanceof PlayerInteractEvent pie && pie.isCancelled()) {
           pie.setCancelled(false);
@@ -350,7 +384,9 @@ public class RegionMatchModule implements MatchModule, Listener {
   private void handleHangingPlace(Event event, Block block, MaterialData material, Entity placer) {
     Query query = makeBlockQuery(event, placer, block, material);
 
-    for (RegionFilterApplication rfa : this.rfaContext.get(RFAScope.BLOCK_PLACE)) {
+    for (int index : this.rfaIndex.get(block.getX(), block.getZ())) {
+      RegionFilterApplication rfa = this.rfaIndex.get(index);
+      if (rfa.scope != RFAScope.BLOCK_PLACE) continue;
       if (rfa.region.contains(block) && processQuery(rfa, query)) {
         sendCancelMessage(rfa, query);
         if (this.useRegionPriority || rfa.useRegionPriority) break;
@@ -365,7 +401,9 @@ public class RegionMatchModule implements MatchModule, Listener {
 
     Query query = makeBlockQuery(event, breaker, block, material);
 
-    for (RegionFilterApplication rfa : this.rfaContext.get(RFAScope.BLOCK_BREAK)) {
+    for (int index : this.rfaIndex.get(block.getX(), block.getZ())) {
+      RegionFilterApplication rfa = this.rfaIndex.get(index);
+      if (rfa.scope != RFAScope.BLOCK_BREAK) continue;
       if (rfa.region.contains(block) && processQuery(rfa, query)) {
         sendCancelMessage(rfa, query);
         if (this.useRegionPriority || rfa.useRegionPriority) break;
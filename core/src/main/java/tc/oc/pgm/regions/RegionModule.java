@@ -35,6 +35,12 @@ public class RegionModule implements MapModule<RegionMatchModule> {
     return new RegionMatchModule(match, this.rfaContext, maxBuildHeight);
   }
 
+  @Override
+  public boolean canCreateAsync() {
+    // Indexing region filter applications by chunk only reads the regions
+    return true;
+  }
+
   public static class Factory implements MapModuleFactory<RegionModule> {
     @Override
     public Collection<Class<? extends MapModule<?>>> getSoftDependencies() {
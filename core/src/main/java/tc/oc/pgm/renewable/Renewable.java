@@ -17,18 +17,20 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.util.BlockVector;
+import org.bukkit.util.Vector;
 import tc.oc.pgm.api.event.BlockTransformEvent;
 import tc.oc.pgm.api.filter.Filter;
 import tc.oc.pgm.api.match.Match;
 import tc.oc.pgm.api.match.Tickable;
-import tc.oc.pgm.api.player.MatchPlayer;
 import tc.oc.pgm.api.time.Tick;
 import tc.oc.pgm.filters.query.BlockQuery;
 import tc.oc.pgm.snapshot.SnapshotMatchModule;
+import tc.oc.pgm.spatial.PlayerIndexMatchModule;
 import tc.oc.pgm.util.ClassLogger;
 import tc.oc.pgm.util.block.BlockFaces;
 import tc.oc.pgm.util.block.BlockVectorSet;
 import tc.oc.pgm.util.block.BlockVectors;
+import tc.oc.pgm.util.block.IndexedBlockVectorSet;
 import tc.oc.pgm.util.material.BlockMaterialData;
 import tc.oc.pgm.util.material.MaterialCounter;
 import tc.oc.pgm.util.material.MaterialData;
@@ -49,7 +51,7 @@ public class Renewable implements Listener, Tickable {
 
   // Set of blocks that are immediately renewable, dynamically updated from block events.
   // Maintaining this set avoids nearly all trial and error logic in the renewal tick.
-  private final BlockVectorSet renewablePool = new BlockVectorSet();
+  private final BlockVectorSet renewablePool = new IndexedBlockVectorSet();
 
   // Number of blocks that currently must to be renewed to keep up with the configured rate.
   private long lastTick;
@@ -124,11 +126,17 @@ public class Renewable implements Listener, Tickable {
     }
   }
 
+  @Override
+  public Priority getTickPriority() {
+    // Renewals per tick scale with the ticks since the last one, so it catches up when deferred
+    return Priority.LOW;
+  }
+
   @Override
   public void tick(Match match, Tick tick) {
     invalidateCaches();
 
-    float interval = updateLastTick(); // should always be 1
+    float interval = updateLastTick(); // 1, unless the tick was deferred
     float count = interval * definition.renewalsPerSecond / 20f; // calculate renewals per tick
     if (definition.rateScaled) count *= renewablePool.size();
 
@@ -196,14 +204,11 @@ public class Renewable implements Listener, Tickable {
 
   boolean isClearOfEntities(BlockVector pos) {
     if (definition.avoidPlayersRange > 0d) {
-      double rangeSquared = definition.avoidPlayersRange * definition.avoidPlayersRange;
-      pos = BlockVectors.center(pos);
-      for (MatchPlayer player : match.getParticipants()) {
-        Location location = player.getBukkit().getLocation().add(0, 1, 0);
-        if (location.toVector().distanceSquared(pos) < rangeSquared) {
-          return false;
-        }
-      }
+      // Measured from a block above the feet of players
+      Vector center = BlockVectors.center(pos).subtract(new Vector(0, 1, 0));
+      return !match
+          .needModule(PlayerIndexMatchModule.class)
+          .isAnyInRange(center, definition.avoidPlayersRange);
     }
     return true;
   }
@@ -5,10 +5,15 @@ import com.google.common.collect.ImmutableSet;
 import fr.mrmicky.fastboard.FastBoard;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -51,6 +56,7 @@ import tc.oc.pgm.util.TimeUtils;
 import tc.oc.pgm.util.bukkit.ViaUtils;
 import tc.oc.pgm.util.concurrent.RateLimiter;
 import tc.oc.pgm.util.event.player.PlayerLocaleChangeEvent;
+import tc.oc.pgm.util.text.TextTranslations;
 
 @ListenerScope(MatchScope.LOADED)
 public class SidebarMatchModule implements MatchModule, Listener {
@@ -76,6 +82,14 @@ public class SidebarMatchModule implements MatchModule, Listener {
   protected final Map<UUID, FastBoard> sidebars = new HashMap<>();
   protected final Map<Goal<?>, BlinkTask> blinkingGoals = new HashMap<>();
 
+  // Rendered rows of each party, and the lines last sent to each player
+  private final Map<Party, PartyRows> partyRows = new HashMap<>();
+  private final Map<UUID, List<String>> sentLines = new HashMap<>();
+
+  // What the next debounced render has to update
+  private boolean dirtyRows;
+  private final Set<UUID> dirtyViewers = new HashSet<>();
+
   protected @Nullable Future<?> renderTask;
   private final RateLimiter rateLimit = new RateLimiter(50, 1000, 40, 1000);
 
@@ -140,27 +154,32 @@ public class SidebarMatchModule implements MatchModule, Listener {
   @Override
   public void unload() {
     this.sidebars.clear();
+    this.sentLines.clear();
+    this.partyRows.clear();
   }
 
   @EventHandler
   public void localChange(PlayerLocaleChangeEvent event) {
-    renderSidebarDebounce();
+    MatchPlayer player = match.getPlayer(event.getPlayer());
+    if (player != null) renderSidebarDebounce(player);
   }
 
   @EventHandler
   public void addPlayer(PlayerJoinMatchEvent event) {
     addSidebar(event.getPlayer());
-    renderSidebarDebounce();
+    renderSidebarDebounce(event.getPlayer());
   }
 
   @EventHandler
   public void removePlayer(PlayerLeaveMatchEvent event) {
     sidebars.remove(event.getPlayer().getId()).delete();
+    sentLines.remove(event.getPlayer().getId());
     renderSidebarDebounce();
   }
 
   @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
   public void onPartyChange(PlayerPartyChangeEvent event) {
+    renderSidebarDebounce(event.getPlayer());
     renderSidebarDebounce();
   }
 
@@ -235,7 +254,19 @@ public class SidebarMatchModule implements MatchModule, Listener {
     rateLimit.timeOut(Integer.MAX_VALUE);
   }
 
+  /** Render the sidebar of a single player, whose locale or party changed. */
+  private void renderSidebarDebounce(MatchPlayer viewer) {
+    dirtyViewers.add(viewer.getId());
+    scheduleRender();
+  }
+
+  /** Render the rows of every party, and send the lines that changed. */
   private void renderSidebarDebounce() {
+    dirtyRows = true;
+    scheduleRender();
+  }
+
+  private void scheduleRender() {
     // Debounced render
     if (this.renderTask == null || renderTask.isDone()) {
       Runnable render = () -> {
@@ -252,21 +283,56 @@ public class SidebarMatchModule implements MatchModule, Listener {
   }
 
   private void renderSidebar() {
-    Map<Party, List<Component>> cache = new HashMap<>();
+    final boolean rebuild = dirtyRows;
+    final Set<Party> visited = new HashSet<>();
+    final Set<Party> changed = new HashSet<>();
+    dirtyRows = false;
 
     for (MatchPlayer player : this.match.getPlayers()) {
       FastBoard sidebar = this.sidebars.get(player.getId());
       if (sidebar == null) continue;
 
-      List<Component> rows = cache.computeIfAbsent(player.getParty(), renderer::renderSidebar);
+      Party party = player.getParty();
+      if ((rebuild || !partyRows.containsKey(party)) && visited.add(party)) {
+        if (updateRows(party)) changed.add(party);
+      }
 
-      List<String> result = new ArrayList<>(rows.size());
-      for (Component row : rows) {
-        result.add(renderer.renderRow(row, player));
+      PartyRows rows = partyRows.get(party);
+      if (!changed.contains(party) && !dirtyViewers.contains(player.getId())) continue;
+
+      List<String> lines = rows.render(player);
+      if (!lines.equals(sentLines.get(player.getId()))) {
+        sidebar.updateLines(lines);
+        sentLines.put(player.getId(), lines);
       }
+    }
 
-      sidebar.updateLines(result);
+    if (rebuild) partyRows.keySet().retainAll(visited);
+    dirtyViewers.clear();
+  }
+
+  /**
+   * Render the rows of a party, keeping the previous rows around, so goals blinking back and forth
+   * don't need to be translated again.
+   *
+   * @return if the rows of the party changed
+   */
+  private boolean updateRows(Party party) {
+    final List<Component> rows = renderer.renderSidebar(party);
+    final PartyRows current = partyRows.get(party);
+    if (current != null && rows.equals(current.rows)) return false;
+
+    if (current != null && current.previous != null && rows.equals(current.previous.rows)) {
+      current.previous.previous = current;
+      partyRows.put(party, current.previous);
+      current.previous = null;
+    } else {
+      PartyRows updated = new PartyRows(rows);
+      updated.previous = current;
+      if (current != null) current.previous = null;
+      partyRows.put(party, updated);
     }
+    return true;
   }
 
   public void blinkGoal(Goal<?> goal, float rateHz, @Nullable Duration duration) {
@@ -283,6 +349,45 @@ public class SidebarMatchModule implements MatchModule, Listener {
     if (task != null) task.stop();
   }
 
+  /** The rows of a party, and their rendered lines for each locale. */
+  private class PartyRows {
+    private final List<Component> rows;
+    private final boolean[] dependent;
+    private final boolean viewerDependent;
+    private final Map<Locale, List<String>> lines = new HashMap<>();
+    private @Nullable PartyRows previous;
+
+    private PartyRows(List<Component> rows) {
+      this.rows = rows;
+      this.dependent = new boolean[rows.size()];
+
+      boolean viewerDependent = false;
+      for (int i = 0; i < dependent.length; i++) {
+        viewerDependent |= dependent[i] = SidebarRenderer.isViewerDependent(rows.get(i));
+      }
+      this.viewerDependent = viewerDependent;
+    }
+
+    private List<String> render(MatchPlayer viewer) {
+      // Any viewer with the same locale sees the same lines, except for viewer dependent rows
+      final List<String> translated =
+          lines.computeIfAbsent(TextTranslations.getLocale(viewer), locale -> {
+            String[] result = new String[rows.size()];
+            for (int i = 0; i < result.length; i++) {
+              if (!dependent[i]) result[i] = renderer.renderRow(rows.get(i), viewer);
+            }
+            return Collections.unmodifiableList(Arrays.asList(result));
+          });
+      if (!viewerDependent) return translated;
+
+      final List<String> result = new ArrayList<>(translated);
+      for (int i = 0; i < dependent.length; i++) {
+        if (dependent[i]) result.set(i, renderer.renderRow(rows.get(i), viewer));
+      }
+      return result;
+    }
+  }
+
   protected class BlinkTask implements Runnable {
 
     private final Future<?> task;
@@ -14,6 +14,8 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.TranslatableComponent;
+import net.kyori.adventure.text.TranslationArgument;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.jetbrains.annotations.Nullable;
 import tc.oc.pgm.api.PGM;
@@ -33,6 +35,7 @@ import tc.oc.pgm.score.ScoreMatchModule;
 import tc.oc.pgm.teams.Team;
 import tc.oc.pgm.util.StringUtils;
 import tc.oc.pgm.util.named.NameStyle;
+import tc.oc.pgm.util.text.RenderableComponent;
 import tc.oc.pgm.util.text.TextFormatter;
 import tc.oc.pgm.util.text.TextTranslations;
 import tc.oc.pgm.wool.MonumentWool;
@@ -296,6 +299,26 @@ class SidebarRenderer {
         TextTranslations.translateLegacy(title, viewer), 0, SidebarRenderer.MAX_TITLE);
   }
 
+  /**
+   * Get if a row renders differently for each viewer, rather than just for each locale, because it
+   * contains a {@link RenderableComponent}, like a player name.
+   */
+  public static boolean isViewerDependent(Component row) {
+    if (row instanceof RenderableComponent) return true;
+
+    if (row instanceof TranslatableComponent) {
+      for (TranslationArgument arg : ((TranslatableComponent) row).arguments()) {
+        if (arg.value() instanceof Component && isViewerDependent((Component) arg.value()))
+          return true;
+      }
+    }
+
+    for (Component child : row.children()) {
+      if (isViewerDependent(child)) return true;
+    }
+    return false;
+  }
+
   @SuppressWarnings("deprecation")
   public String renderRow(Component row, MatchPlayer viewer) {
     return StringUtils.substring(
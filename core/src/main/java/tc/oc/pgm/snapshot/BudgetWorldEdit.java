@@ -1,16 +1,34 @@
 package tc.oc.pgm.snapshot;
 
+import static tc.oc.pgm.util.nms.NMSHacks.NMS_HACKS;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import org.bukkit.Material;
 import org.bukkit.World;
-import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
 import org.bukkit.util.BlockVector;
 import tc.oc.pgm.api.match.Match;
 import tc.oc.pgm.api.region.Region;
-import tc.oc.pgm.util.block.BlockData;
+import tc.oc.pgm.util.block.BlockFaces;
+import tc.oc.pgm.util.block.BlockVectors;
+import tc.oc.pgm.util.chunk.ChunkKeys;
+import tc.oc.pgm.util.material.BlockMaterialData;
+import tc.oc.pgm.util.material.MaterialData;
 
 /**
  * Utils to save, remove and paste blocks in some {@link Region} in some {@link Match} using the
  * {@link tc.oc.pgm.snapshot.SnapshotMatchModule} as memory.
+ *
+ * <p>Blocks are written in bulk: changes are grouped by chunk, and each chunk is written, relit
+ * and resent to players once. Physics only run on the edges of the written area, where the blocks
+ * around it are notified of the change. The original state of every written position is saved to
+ * the snapshot first, since no block events are fired for them.
  */
 class BudgetWorldEdit {
   private static final BlockVector NO_OFFSET = new BlockVector(0, 0, 0);
@@ -31,9 +49,16 @@ class BudgetWorldEdit {
    */
   public void placeBlocks(Region region, BlockVector offset) {
     if (offset == null) offset = NO_OFFSET;
-    for (BlockData blockData : snapshot.getMaterials(region)) {
-      blockData.applyTo(blockData.getBlock(world, offset), true);
+    final int dx = offset.getBlockX(), dy = offset.getBlockY(), dz = offset.getBlockZ();
+
+    ChunkWrites writes = new ChunkWrites();
+    for (Iterator<BlockVector> it = region.getBlockVectorIterator(); it.hasNext(); ) {
+      BlockVector pos = it.next();
+      int x = pos.getBlockX(), y = pos.getBlockY(), z = pos.getBlockZ();
+
+      writes.add(x + dx, y + dy, z + dz, snapshot.getOriginalMaterial(x, y, z));
     }
+    writes.apply();
   }
 
   /**
@@ -44,10 +69,85 @@ class BudgetWorldEdit {
    */
   public void removeBlocks(Region region, BlockVector offset) {
     if (offset == null) offset = NO_OFFSET;
-    for (BlockData blockData : snapshot.getMaterials(region)) {
-      Block block = blockData.getBlock(world, offset);
+    final int dx = offset.getBlockX(), dy = offset.getBlockY(), dz = offset.getBlockZ();
+
+    ChunkWrites writes = new ChunkWrites();
+    for (Iterator<BlockVector> it = region.getBlockVectorIterator(); it.hasNext(); ) {
+      BlockVector pos = it.next();
+      int x = pos.getBlockX() + dx, y = pos.getBlockY() + dy, z = pos.getBlockZ() + dz;
+
       // Ignore if already air
-      if (!block.getType().equals(Material.AIR)) block.setType(Material.AIR);
+      if (world.getBlockAt(x, y, z).getType() != Material.AIR)
+        writes.add(x, y, z, MaterialData.AIR);
+    }
+    writes.apply();
+  }
+
+  /** Pending block writes, grouped by chunk. */
+  private class ChunkWrites {
+    private final Long2ObjectMap<Batch> batches = new Long2ObjectOpenHashMap<>();
+    private final LongSet written = new LongOpenHashSet();
+    private Batch last;
+
+    void add(int x, int y, int z, BlockMaterialData material) {
+      int chunkX = x >> 4, chunkZ = z >> 4;
+      snapshot.saveBlock(x, y, z);
+      written.add(BlockVectors.encodePos(x, y, z));
+
+      // Region iterators mostly stay in the same chunk, avoid the lookup
+      Batch batch = last;
+      if (batch == null || batch.chunkX != chunkX || batch.chunkZ != chunkZ) {
+        batch = batches.get(ChunkKeys.of(chunkX, chunkZ));
+        if (batch == null) {
+          batch = new Batch(chunkX, chunkZ);
+          batches.put(ChunkKeys.of(chunkX, chunkZ), batch);
+        }
+        last = batch;
+      }
+
+      batch.add(WorldSnapshot.index(x, y, z), material);
+    }
+
+    void apply() {
+      for (Batch batch : batches.values()) {
+        NMS_HACKS.setBlocks(
+            world.getChunkAt(batch.chunkX, batch.chunkZ),
+            batch.positions,
+            batch.materials,
+            batch.size);
+      }
+
+      // Blocks inside the area were all written at once, only its edges can affect anything else
+      for (LongIterator it = written.iterator(); it.hasNext(); ) {
+        long pos = it.nextLong();
+        for (BlockFace face : BlockFaces.NEIGHBORS) {
+          if (!written.contains(BlockVectors.neighborPos(pos, face))) {
+            NMS_HACKS.updateNeighbours(BlockVectors.blockAt(world, pos));
+            break;
+          }
+        }
+      }
+    }
+  }
+
+  private static class Batch {
+    private final int chunkX, chunkZ;
+    private int[] positions = new int[64];
+    private BlockMaterialData[] materials = new BlockMaterialData[64];
+    private int size;
+
+    Batch(int chunkX, int chunkZ) {
+      this.chunkX = chunkX;
+      this.chunkZ = chunkZ;
+    }
+
+    void add(int position, BlockMaterialData material) {
+      if (size == positions.length) {
+        positions = Arrays.copyOf(positions, size * 2);
+        materials = Arrays.copyOf(materials, size * 2);
+      }
+      positions[size] = position;
+      materials[size++] = material;
     }
   }
 }
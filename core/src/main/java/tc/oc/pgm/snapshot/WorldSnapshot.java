@@ -1,28 +1,54 @@
 package tc.oc.pgm.snapshot;
 
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import org.bukkit.ChunkSnapshot;
 import org.bukkit.World;
-import org.bukkit.block.Block;
 import org.bukkit.block.BlockState;
 import org.bukkit.util.BlockVector;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.Nullable;
 import tc.oc.pgm.api.region.Region;
-import tc.oc.pgm.util.block.BlockData;
+import tc.oc.pgm.util.chunk.ChunkKeys;
 import tc.oc.pgm.util.chunk.ChunkVector;
 import tc.oc.pgm.util.material.BlockMaterialData;
 import tc.oc.pgm.util.material.MaterialData;
 
+/**
+ * The original state of the blocks of a world, recorded the first time each of them changes.
+ *
+ * <p>Only touched positions are kept. Each chunk maps the index of a position in the chunk (see
+ * {@link #index}) to an id in a palette of block materials shared by the whole snapshot, so a
+ * delta is just a pair of primitive arrays. Positions that were never touched are read from the
+ * world itself.
+ */
 public class WorldSnapshot {
+  private static final int NO_STATE = -1;
+
   private final World world;
-  private final Map<ChunkVector, ChunkSnapshot> chunkSnapshots = new HashMap<>();
   private final BudgetWorldEdit worldEdit;
 
+  // Original block states of touched positions, by chunk and then by index in the chunk
+  private final Long2ObjectMap<Int2IntMap> chunkDeltas = new Long2ObjectOpenHashMap<>();
+  private final List<BlockMaterialData> palette = new ArrayList<>();
+  private final Object2IntMap<BlockMaterialData> paletteIds = new Object2IntOpenHashMap<>();
+
+  // Whole chunks saved through saveSnapshot without a block state
+  private final Map<ChunkVector, ChunkSnapshot> chunkSnapshots = new HashMap<>();
+
   public WorldSnapshot(World world) {
     this.world = world;
     this.worldEdit = new BudgetWorldEdit(world, this);
+    this.paletteIds.defaultReturnValue(NO_STATE);
   }
 
   public BlockMaterialData getOriginalMaterial(Vector vector) {
@@ -32,55 +58,85 @@ public class WorldSnapshot {
   public BlockMaterialData getOriginalMaterial(int x, int y, int z) {
     if (y < 0 || y >= 256) return MaterialData.AIR;
 
-    ChunkVector chunkVector = ChunkVector.ofBlock(x, y, z);
-    ChunkSnapshot chunkSnapshot = chunkSnapshots.get(chunkVector);
-    if (chunkSnapshot != null) {
-      return MaterialData.block(chunkSnapshot, chunkVector.worldToChunk(x, y, z));
-    } else {
-      return MaterialData.block(world.getBlockAt(x, y, z));
-    }
+    BlockMaterialData saved = getSavedMaterial(x, y, z);
+    return saved != null ? saved : MaterialData.block(world.getBlockAt(x, y, z));
   }
 
   public BlockState getOriginalBlock(int x, int y, int z) {
     BlockState state = world.getBlockAt(x, y, z).getState();
     if (y < 0 || y >= 256) return state;
 
+    BlockMaterialData saved = getSavedMaterial(x, y, z);
+    if (saved != null) saved.applyTo(state);
+    return state;
+  }
+
+  /**
+   * Get the saved state of a block, or null if it has not changed since the snapshot was taken.
+   */
+  @Nullable
+  BlockMaterialData getSavedMaterial(int x, int y, int z) {
+    Int2IntMap delta = chunkDeltas.get(ChunkKeys.ofBlock(x, z));
+    if (delta != null) {
+      int id = delta.get(index(x, y, z));
+      if (id != NO_STATE) return palette.get(id);
+    }
+
+    if (chunkSnapshots.isEmpty()) return null;
+
     ChunkVector chunkVector = ChunkVector.ofBlock(x, y, z);
     ChunkSnapshot chunkSnapshot = chunkSnapshots.get(chunkVector);
-    if (chunkSnapshot != null) {
-      MaterialData.block(chunkSnapshot, chunkVector.worldToChunk(x, y, z)).applyTo(state);
-    }
-    return state;
+    if (chunkSnapshot == null) return null;
+    return MaterialData.block(chunkSnapshot, chunkVector.worldToChunk(x, y, z));
   }
 
   /**
    * Manually save the initial state of a block to the snapshot.
    *
    * @param cv the chunk vector to save
-   * @param oldState optional block state to write on the snapshot
+   * @param oldState optional block state to write on the snapshot, if absent the current state of
+   *     the whole chunk is saved
    */
   public void saveSnapshot(ChunkVector cv, @Nullable BlockState oldState) {
-    chunkSnapshots.computeIfAbsent(cv, vec -> {
-      if (oldState == null) return vec.getChunk(world).getChunkSnapshot(false, false, false);
-
-      // ChunkSnapshot will have the post-event state unless we revert
-      Block block = oldState.getBlock();
+    if (oldState != null) {
+      save(oldState.getX(), oldState.getY(), oldState.getZ(), MaterialData.block(oldState));
+    } else {
+      chunkSnapshots.computeIfAbsent(
+          cv, vec -> vec.getChunk(world).getChunkSnapshot(false, false, false));
+    }
+  }
 
-      BlockMaterialData old = MaterialData.block(oldState);
-      BlockMaterialData current = MaterialData.block(block);
-      boolean isModified = !old.equals(current);
-      if (isModified) old.applyTo(block, false);
+  /** Save the current state of every block in the region that has not been saved yet. */
+  public void saveRegion(Region region) {
+    for (Iterator<BlockVector> it = region.getBlockVectorIterator(); it.hasNext(); ) {
+      BlockVector pos = it.next();
+      saveBlock(pos.getBlockX(), pos.getBlockY(), pos.getBlockZ());
+    }
+  }
 
-      var snap = vec.getChunk(world).getChunkSnapshot(false, false, false);
+  /** Save the current state of a block, if it has not been saved yet. */
+  void saveBlock(int x, int y, int z) {
+    if (y < 0 || y >= 256 || getSavedMaterial(x, y, z) != null) return;
+    save(x, y, z, MaterialData.block(world.getBlockAt(x, y, z)));
+  }
 
-      if (isModified) current.applyTo(block, false);
+  private void save(int x, int y, int z, BlockMaterialData material) {
+    Int2IntMap delta = chunkDeltas.get(ChunkKeys.ofBlock(x, z));
+    if (delta == null) {
+      chunkDeltas.put(ChunkKeys.ofBlock(x, z), delta = new Int2IntOpenHashMap());
+      delta.defaultReturnValue(NO_STATE);
+    }
 
-      return snap;
-    });
-  }
+    int index = index(x, y, z);
+    if (delta.containsKey(index)) return;
 
-  public void saveRegion(Region region) {
-    region.getChunkPositions().forEach(cv -> this.saveSnapshot(cv, null));
+    int id = paletteIds.getInt(material);
+    if (id == NO_STATE) {
+      id = palette.size();
+      palette.add(material);
+      paletteIds.put(material, id);
+    }
+    delta.put(index, id);
   }
 
   public void placeBlocks(Region region, BlockVector offset) {
@@ -91,12 +147,8 @@ public class WorldSnapshot {
     worldEdit.removeBlocks(region, offset);
   }
 
-  /**
-   * Get the original material data for a {@code region}.
-   *
-   * @param region the region to get block states from
-   */
-  public Iterable<BlockData> getMaterials(Region region) {
-    return () -> MaterialData.iterator(chunkSnapshots, region.getBlockVectorIterator());
+  /** Pack a block position into its index inside its chunk, ordered by section. */
+  static int index(int x, int y, int z) {
+    return (y << 8) | ((z & 0xf) << 4) | (x & 0xf);
   }
 }
@@ -0,0 +1,275 @@
+package tc.oc.pgm.spatial;
+
+import static tc.oc.pgm.util.chunk.ChunkKeys.chunk;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import org.bukkit.Location;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.util.Vector;
+import tc.oc.pgm.api.match.Match;
+import tc.oc.pgm.api.match.MatchModule;
+import tc.oc.pgm.api.match.MatchScope;
+import tc.oc.pgm.api.party.Competitor;
+import tc.oc.pgm.api.player.MatchPlayer;
+import tc.oc.pgm.events.ListenerScope;
+import tc.oc.pgm.events.PlayerLeaveMatchEvent;
+import tc.oc.pgm.events.PlayerPartyChangeEvent;
+import tc.oc.pgm.regions.Bounds;
+import tc.oc.pgm.util.chunk.ChunkKeys;
+import tc.oc.pgm.util.event.PlayerCoarseMoveEvent;
+
+/**
+ * A spatial hash of the participants of a match, so proximity queries only look at the players
+ * near a point, instead of every participant.
+ *
+ * <p>Players are bucketed by the column of {@link #CELL_SIZE} blocks they stand in, which is kept
+ * up to date by {@link PlayerCoarseMoveEvent}s and teleports. Distances are always measured to the
+ * current location of a player, so results are exact.
+ */
+@ListenerScope(MatchScope.LOADED)
+public class PlayerIndexMatchModule implements MatchModule, Listener {
+
+  // Players are bucketed by chunk, see ChunkKeys
+  private static final int CELL_SIZE = 16;
+  private static final long NO_CELL = Long.MIN_VALUE;
+
+  private final Match match;
+  private final Long2ObjectMap<List<MatchPlayer>> cells = new Long2ObjectOpenHashMap<>();
+  private final Object2LongMap<MatchPlayer> playerCells = new Object2LongOpenHashMap<>();
+
+  public PlayerIndexMatchModule(Match match) {
+    this.match = match;
+    this.playerCells.defaultReturnValue(NO_CELL);
+  }
+
+  @Override
+  public void load() {
+    for (MatchPlayer player : match.getParticipants()) {
+      update(player, player.getLocation());
+    }
+  }
+
+  @Override
+  public void unload() {
+    cells.clear();
+    playerCells.clear();
+  }
+
+  /** Get if any participant is closer than a distance to a point. */
+  public boolean isAnyInRange(Vector center, double range) {
+    return !getInRange(center, range, 1).isEmpty();
+  }
+
+  /** Get every participant closer than a distance to a point. */
+  public List<MatchPlayer> getInRange(Vector center, double range) {
+    return getInRange(center, range, Integer.MAX_VALUE);
+  }
+
+  private List<MatchPlayer> getInRange(Vector center, double range, int limit) {
+    final List<MatchPlayer> result = new ArrayList<>();
+    if (playerCells.isEmpty()) return result;
+
+    final double rangeSquared = range * range;
+    final int minX = chunk(center.getX() - range), maxX = chunk(center.getX() + range);
+    final int minZ = chunk(center.getZ() - range), maxZ = chunk(center.getZ() + range);
+
+    for (List<MatchPlayer> players : getCells(minX, minZ, maxX, maxZ)) {
+      for (MatchPlayer player : players) {
+        if (distanceSquared(player, center) < rangeSquared) {
+          result.add(player);
+          if (result.size() >= limit) return result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get every participant inside some bounds. Players are only checked against the bounds, any
+   * region inside them must still be checked by the caller.
+   */
+  public List<MatchPlayer> getInBounds(Bounds bounds) {
+    final List<MatchPlayer> result = new ArrayList<>();
+    if (playerCells.isEmpty() || bounds.isEmpty()) return result;
+
+    final Vector min = bounds.getMin(), max = bounds.getMax();
+    final Iterable<List<MatchPlayer>> candidates = bounds.isFinite()
+        ? getCells(chunk(min.getX()), chunk(min.getZ()), chunk(max.getX()), chunk(max.getZ()))
+        : cells.values();
+
+    for (List<MatchPlayer> players : candidates) {
+      for (MatchPlayer player : players) {
+        if (bounds.contains(player.getLocation().toVector())) result.add(player);
+      }
+    }
+    return result;
+  }
+
+  /** Get the participant closest to a point that matches a filter. */
+  public Optional<MatchPlayer> getNearest(Vector center, Predicate<? super MatchPlayer> filter) {
+    final List<MatchPlayer> nearest = getNearest(center, 1, filter);
+    return nearest.isEmpty() ? Optional.empty() : Optional.of(nearest.get(0));
+  }
+
+  /**
+   * Get the participants closest to a point that match a filter, closest first.
+   *
+   * <p>Cells are searched in growing rings around the point, until the closest players found are
+   * nearer than any player in the next ring could be.
+   */
+  public List<MatchPlayer> getNearest(
+      Vector center, int count, Predicate<? super MatchPlayer> filter) {
+    final List<Candidate> found = new ArrayList<>();
+    if (count <= 0 || playerCells.isEmpty()) return Collections.emptyList();
+
+    final int cx = chunk(center.getX()), cz = chunk(center.getZ());
+    for (int ring = 0; ; ring++) {
+      // Once the ring is larger than the index, looking at every cell is cheaper
+      final long side = 2L * ring + 1;
+      if (side * side > cells.size()) {
+        found.clear();
+        for (List<MatchPlayer> players : cells.values()) collect(players, center, filter, found);
+        break;
+      }
+
+      if (ring == 0) {
+        collect(cells.get(ChunkKeys.of(cx, cz)), center, filter, found);
+      } else {
+        for (int i = -ring; i < ring; i++) {
+          collect(cells.get(ChunkKeys.of(cx + i, cz - ring)), center, filter, found);
+          collect(cells.get(ChunkKeys.of(cx + ring, cz + i)), center, filter, found);
+          collect(cells.get(ChunkKeys.of(cx - i, cz + ring)), center, filter, found);
+          collect(cells.get(ChunkKeys.of(cx - ring, cz - i)), center, filter, found);
+        }
+      }
+
+      // Any player in the next ring is at least this far away, horizontally
+      if (found.size() >= count) {
+        found.sort(Comparator.naturalOrder());
+        final double reach = (double) ring * CELL_SIZE;
+        if (found.get(count - 1).distanceSquared <= reach * reach) break;
+      }
+    }
+
+    found.sort(Comparator.naturalOrder());
+    final List<MatchPlayer> result = new ArrayList<>(Math.min(count, found.size()));
+    for (int i = 0; i < found.size() && i < count; i++) {
+      result.add(found.get(i).player);
+    }
+    return result;
+  }
+
+  private void collect(
+      List<MatchPlayer> players,
+      Vector center,
+      Predicate<? super MatchPlayer> filter,
+      List<Candidate> found) {
+    if (players == null) return;
+    for (MatchPlayer player : players) {
+      if (filter.test(player)) found.add(new Candidate(player, distanceSquared(player, center)));
+    }
+  }
+
+  private Iterable<List<MatchPlayer>> getCells(int minX, int minZ, int maxX, int maxZ) {
+    // For a large area, filtering the occupied cells is cheaper than probing every one of them
+    final long area = ((long) maxX - minX + 1) * ((long) maxZ - minZ + 1);
+    final List<List<MatchPlayer>> result = new ArrayList<>();
+
+    if (area > cells.size()) {
+      for (Long2ObjectMap.Entry<List<MatchPlayer>> entry : cells.long2ObjectEntrySet()) {
+        final int x = (int) (entry.getLongKey() >> 32), z = (int) entry.getLongKey();
+        if (x >= minX && x <= maxX && z >= minZ && z <= maxZ) result.add(entry.getValue());
+      }
+    } else {
+      for (int x = minX; x <= maxX; x++) {
+        for (int z = minZ; z <= maxZ; z++) {
+          final List<MatchPlayer> players = cells.get(ChunkKeys.of(x, z));
+          if (players != null) result.add(players);
+        }
+      }
+    }
+    return result;
+  }
+
+  private void update(MatchPlayer player, Location to) {
+    final long cell = ChunkKeys.of(chunk(to.getX()), chunk(to.getZ()));
+    final long old = playerCells.put(player, cell);
+    if (old == cell) return;
+
+    if (old != NO_CELL) removeFromCell(player, old);
+    cells.computeIfAbsent(cell, k -> new ArrayList<>(4)).add(player);
+  }
+
+  private void remove(MatchPlayer player) {
+    final long old = playerCells.removeLong(player);
+    if (old != NO_CELL) removeFromCell(player, old);
+  }
+
+  private void removeFromCell(MatchPlayer player, long cell) {
+    final List<MatchPlayer> players = cells.get(cell);
+    if (players != null && players.remove(player) && players.isEmpty()) cells.remove(cell);
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onPlayerMove(PlayerCoarseMoveEvent event) {
+    final MatchPlayer player = match.getParticipant(event.getPlayer());
+    if (player != null) update(player, event.getTo());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onPlayerTeleport(PlayerTeleportEvent event) {
+    final MatchPlayer player = match.getParticipant(event.getPlayer());
+    if (player != null && match.getWorld().equals(event.getTo().getWorld())) {
+      update(player, event.getTo());
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPartyChange(PlayerPartyChangeEvent event) {
+    if (event.getNewParty() instanceof Competitor) {
+      update(event.getPlayer(), event.getPlayer().getLocation());
+    } else {
+      remove(event.getPlayer());
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPlayerLeave(PlayerLeaveMatchEvent event) {
+    remove(event.getPlayer());
+  }
+
+  private static double distanceSquared(MatchPlayer player, Vector point) {
+    final Location location = player.getLocation();
+    final double dx = location.getX() - point.getX();
+    final double dy = location.getY() - point.getY();
+    final double dz = location.getZ() - point.getZ();
+    return dx * dx + dy * dy + dz * dz;
+  }
+
+  private static class Candidate implements Comparable<Candidate> {
+    private final MatchPlayer player;
+    private final double distanceSquared;
+
+    private Candidate(MatchPlayer player, double distanceSquared) {
+      this.player = player;
+      this.distanceSquared = distanceSquared;
+    }
+
+    @Override
+    public int compareTo(Candidate other) {
+      return Double.compare(distanceSquared, other.distanceSquared);
+    }
+  }
+}
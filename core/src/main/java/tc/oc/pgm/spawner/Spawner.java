@@ -44,6 +44,11 @@ public class Spawner implements Listener, Tickable {
     calculateDelay();
   }
 
+  @Override
+  public Priority getTickPriority() {
+    return Priority.NORMAL;
+  }
+
   @Override
   public void tick(Match match, Tick tick) {
     if (!canSpawn()) return;
@@ -60,6 +60,11 @@ public class SpawnModule implements MapModule<SpawnMatchModule> {
       return ImmutableList.of(TeamModule.class);
     }
 
+    @Override
+    public boolean canParseInParallel() {
+      return true;
+    }
+
     @Override
     public SpawnModule parse(MapFactory factory, Logger logger, Document doc)
         throws InvalidXMLException {
@@ -55,6 +55,8 @@ public class MatchTabManager extends TabManager implements Listener {
   private static final int TIME_RATIO = 40;
   // How many MS must be waited for each TPS under 20 (last minute average)
   private static final int TPS_RATIO = 1000;
+  // How many packets a render may send, before leaving the remaining views for the next one
+  private static final int PACKET_BUDGET = 500;
 
   private final Map<Team, TeamTabEntry> teamEntries;
   private final Map<Match, MapTabEntry> mapEntries;
@@ -367,10 +369,19 @@ public class MatchTabManager extends TabManager implements Listener {
   }
 
   private Integer getRenderBatchSize() {
+    return getExperiment("tablist-batch-size");
+  }
+
+  private int getRenderPacketBudget() {
+    Integer budget = getExperiment("tablist-packet-budget");
+    return budget != null ? budget : PACKET_BUDGET;
+  }
+
+  private @Nullable Integer getExperiment(String key) {
     try {
       Map<String, Object> experiments = PGM.get().getConfiguration().getExperiments();
 
-      Object value = experiments.get("tablist-batch-size");
+      Object value = experiments.get(key);
       if (value == null) return null;
 
       return TextParser.parseInteger(value.toString(), Range.atLeast(1));
@@ -405,8 +416,8 @@ public class MatchTabManager extends TabManager implements Listener {
       } else {
         rateLimit.beforeTask();
         Integer batchSize = getRenderBatchSize();
-        if (batchSize != null) partialRender(batchSize);
-        else render();
+        partialRender(
+            batchSize != null ? batchSize : Integer.MAX_VALUE, getRenderPacketBudget());
         rateLimit.afterTask();
       }
 
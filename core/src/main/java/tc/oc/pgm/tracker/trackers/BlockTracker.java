@@ -1,14 +1,16 @@
 package tc.oc.pgm.tracker.trackers;
 
 import static tc.oc.pgm.util.Assert.assertNotNull;
+import static tc.oc.pgm.util.block.BlockVectors.encodePos;
+import static tc.oc.pgm.util.block.BlockVectors.neighborPos;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.logging.Logger;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.block.BlockState;
@@ -18,6 +20,7 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockPistonEvent;
 import org.bukkit.event.block.BlockPistonExtendEvent;
 import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
 import org.jetbrains.annotations.Nullable;
 import tc.oc.pgm.api.event.BlockTransformEvent;
 import tc.oc.pgm.api.match.Match;
@@ -28,19 +31,39 @@ import tc.oc.pgm.api.tracker.info.TrackerInfo;
 import tc.oc.pgm.tracker.info.BlockInfo;
 import tc.oc.pgm.util.ClassLogger;
 
-/** Tracks the ownership of {@link Block}s and resolves damage caused by them */
+/**
+ * Tracks the ownership of {@link Block}s and resolves damage caused by them.
+ *
+ * <p>Blocks are keyed by their encoded position in the match world, see {@link
+ * tc.oc.pgm.util.block.BlockVectors#encodePos}. Blocks of any other world are never tracked.
+ */
 public class BlockTracker implements Listener {
 
+  private final Match match;
   private final Logger logger;
-  private final Map<Block, TrackerInfo> blocks = new HashMap<>();
-  private final Map<Block, Material> materials = new HashMap<>();
+  private final Long2ObjectMap<TrackerInfo> blocks = new Long2ObjectOpenHashMap<>();
+  private final Long2ObjectMap<Material> materials = new Long2ObjectOpenHashMap<>();
+
+  // Scratch space for moving blocks, reused across piston events
+  private long[] movedPositions = new long[16];
+  private TrackerInfo[] movedInfos = new TrackerInfo[16];
+  private Material[] movedMaterials = new Material[16];
 
   public BlockTracker(Match match) {
+    this.match = match;
     this.logger = ClassLogger.get(match.getLogger(), getClass());
   }
 
+  private boolean isTracked(World world) {
+    return !blocks.isEmpty() && world.equals(match.getWorld());
+  }
+
+  private @Nullable TrackerInfo getInfo(Block block) {
+    return isTracked(block.getWorld()) ? blocks.get(encodePos(block)) : null;
+  }
+
   public PhysicalInfo resolveBlock(Block block) {
-    TrackerInfo info = blocks.get(block);
+    TrackerInfo info = getInfo(block);
     if (info instanceof PhysicalInfo) {
       return (PhysicalInfo) info;
     } else if (info instanceof OwnerInfo) {
@@ -51,11 +74,11 @@ public class BlockTracker implements Listener {
   }
 
   public @Nullable TrackerInfo resolveInfo(Block block) {
-    return blocks.get(block);
+    return getInfo(block);
   }
 
   public @Nullable <T extends TrackerInfo> T resolveInfo(Block block, Class<T> infoType) {
-    TrackerInfo info = blocks.get(block);
+    TrackerInfo info = getInfo(block);
     return infoType.isInstance(info) ? infoType.cast(info) : null;
   }
 
@@ -68,11 +91,14 @@ public class BlockTracker implements Listener {
       Block block, @Nullable Material material, @Nullable TrackerInfo info) {
     assertNotNull(block);
     if (info != null) {
-      blocks.put(block, info);
+      if (!block.getWorld().equals(match.getWorld())) return;
+
+      long pos = encodePos(block);
+      blocks.put(pos, info);
       if (material != null) {
-        materials.put(block, material);
+        materials.put(pos, material);
       } else {
-        materials.remove(block);
+        materials.remove(pos);
       }
       logger.fine("Track block=" + block + " world=" + material + " info=" + info);
     } else {
@@ -87,64 +113,86 @@ public class BlockTracker implements Listener {
 
   public void clearBlock(Block block) {
     assertNotNull(block);
-    blocks.remove(block);
-    materials.remove(block);
+    if (!isTracked(block.getWorld())) return;
+
+    long pos = encodePos(block);
+    blocks.remove(pos);
+    materials.remove(pos);
     logger.fine("Clear block=" + block);
   }
 
-  boolean isPlaced(BlockState state) {
+  private boolean isPlaced(long pos, Material newType) {
     // If block was registered with a specific world, check that the new state
     // has the same world, otherwise assume the block is still placed.
-    Material material = materials.get(state.getBlock());
-    return material == null || material == state.getType();
+    Material material = materials.get(pos);
+    return material == null || material == newType;
   }
 
   @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
   public void onTransform(BlockTransformEvent event) {
-    if (event.getCause() instanceof BlockPistonEvent) return;
-
-    Block block = event.getOldState().getBlock();
-    TrackerInfo info = blocks.get(block);
-    if (info != null && !isPlaced(event.getNewState())) {
-      clearBlock(block);
+    // Pistons and explosions are handled in bulk
+    if (event.getCause() instanceof BlockPistonEvent
+        || event.getCause() instanceof EntityExplodeEvent) return;
+    if (!isTracked(event.getWorld())) return;
+
+    long pos = encodePos(event.getOldState());
+    if (blocks.containsKey(pos) && !isPlaced(pos, event.getNewState().getType())) {
+      blocks.remove(pos);
+      materials.remove(pos);
+      logger.fine("Clear block=" + event.getBlock());
     }
   }
 
-  private void handleMove(Collection<Block> blocks, BlockFace direction) {
-    Map<Block, TrackerInfo> keepInfo = new HashMap<>();
-    Map<Block, Material> keepMaterials = new HashMap<>();
-    List<Block> remove = new ArrayList<>();
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onEntityExplode(EntityExplodeEvent event) {
+    if (!isTracked(event.getLocation().getWorld())) return;
+
+    // The BlockTransformListener is registered before any match, so blocks with cancelled
+    // transforms were already taken out of the list. TNT is never transformed by the explosion.
+    for (Block block : event.blockList()) {
+      if (block.getType() == Material.TNT) continue;
+
+      long pos = encodePos(block);
+      if (blocks.containsKey(pos) && !isPlaced(pos, Material.AIR)) {
+        blocks.remove(pos);
+        materials.remove(pos);
+      }
+    }
+  }
 
-    for (Block block : blocks) {
-      TrackerInfo info = this.blocks.get(block);
-      if (info != null) {
-        remove.add(block);
-        keepInfo.put(block.getRelative(direction), info);
+  private void handleMove(List<Block> moved, BlockFace direction) {
+    if (moved.isEmpty() || !isTracked(moved.get(0).getWorld())) return;
 
-        Material material = materials.get(block);
-        if (material != null) {
-          keepMaterials.put(block, material);
-        }
-      }
+    if (movedPositions.length < moved.size()) {
+      int capacity = Math.max(moved.size(), movedPositions.length * 2);
+      movedPositions = Arrays.copyOf(movedPositions, capacity);
+      movedInfos = Arrays.copyOf(movedInfos, capacity);
+      movedMaterials = Arrays.copyOf(movedMaterials, capacity);
     }
 
-    for (Block block : remove) {
-      TrackerInfo info = keepInfo.remove(block);
+    // Lift every tracked block out first, so blocks moving into each other are not overwritten
+    int count = 0;
+    for (Block block : moved) {
+      long pos = encodePos(block);
+      TrackerInfo info = blocks.remove(pos);
       if (info != null) {
-        this.blocks.put(block, info);
+        movedPositions[count] = neighborPos(pos, direction);
+        movedInfos[count] = info;
+        movedMaterials[count++] = materials.remove(pos);
+      }
+    }
 
-        Material material = keepMaterials.get(block);
-        if (material != null) {
-          this.materials.put(block, material);
-        }
+    for (int i = 0; i < count; i++) {
+      blocks.put(movedPositions[i], movedInfos[i]);
+      if (movedMaterials[i] != null) {
+        materials.put(movedPositions[i], movedMaterials[i]);
       } else {
-        this.blocks.remove(block);
-        this.materials.remove(block);
+        materials.remove(movedPositions[i]);
       }
     }
 
-    this.blocks.putAll(keepInfo);
-    this.materials.putAll(keepMaterials);
+    Arrays.fill(movedInfos, 0, count, null);
+    Arrays.fill(movedMaterials, 0, count, null);
   }
 
   @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
@@ -1,7 +1,10 @@
 package tc.oc.pgm.tracker.trackers;
 
-import java.util.HashMap;
-import java.util.Map;
+import static tc.oc.pgm.util.block.BlockVectors.decodePos;
+import static tc.oc.pgm.util.block.BlockVectors.encodePos;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import java.util.concurrent.TimeUnit;
 import org.bukkit.Location;
 import org.bukkit.block.Block;
@@ -9,7 +12,8 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityExplodeEvent;
-import org.bukkit.util.Vector;
+import org.bukkit.util.BlockVector;
+import org.jetbrains.annotations.Nullable;
 import tc.oc.pgm.api.event.PlayerSpleefEvent;
 import tc.oc.pgm.api.match.Match;
 import tc.oc.pgm.api.match.MatchScope;
@@ -40,7 +44,7 @@ public class SpleefTracker implements Listener {
 
   private final TrackerMatchModule tracker;
   private final Match match;
-  private final Map<Vector, SpleefInfo> brokenBlocks = new HashMap<>();
+  private final Long2ObjectMap<SpleefInfo> brokenBlocks = new Long2ObjectOpenHashMap<>();
 
   public SpleefTracker(TrackerMatchModule tracker) {
     this.tracker = tracker;
@@ -70,7 +74,7 @@ public class SpleefTracker implements Listener {
     }
 
     final SpleefInfo info = new SpleefInfo(breaker, match.getTick());
-    Vector pos = block.getLocation().toVector();
+    final long pos = encodePos(block);
     brokenBlocks.put(pos, info);
 
     // Only remove the BrokenBlock if it's the same one we added. It may have been replaced since
@@ -78,7 +82,9 @@ public class SpleefTracker implements Listener {
     match
         .getExecutor(MatchScope.RUNNING)
         .schedule(
-            () -> brokenBlocks.remove(pos, info),
+            () -> {
+              if (brokenBlocks.get(pos) == info) brokenBlocks.remove(pos);
+            },
             (MAX_SPLEEF_TICKS + 1) * TimeUtils.TICK,
             TimeUnit.MILLISECONDS);
   }
@@ -89,16 +95,18 @@ public class SpleefTracker implements Listener {
     MatchPlayer player = match.getParticipant(event.getPlayer());
     if (player == null) return;
 
-    Vector pos = this.lastBlockBrokenUnderPlayer(player);
+    if (brokenBlocks.isEmpty()) return;
+
+    BlockVector pos = this.lastBlockBrokenUnderPlayer(player);
     if (pos != null) {
-      SpleefInfo info = brokenBlocks.get(pos);
+      SpleefInfo info = brokenBlocks.get(encodePos(pos));
       if (match.getTick().tick - info.getTime().tick <= MAX_SPLEEF_TICKS) {
         match.callEvent(new PlayerSpleefEvent(player, pos, info));
       }
     }
   }
 
-  public Vector lastBlockBrokenUnderPlayer(MatchPlayer player) {
+  public @Nullable BlockVector lastBlockBrokenUnderPlayer(MatchPlayer player) {
     Location playerLocation = player.getBukkit().getLocation();
 
     int y = (int) Math.floor(playerLocation.getY() - 0.1);
@@ -110,22 +118,24 @@ public class SpleefTracker implements Listener {
     int z2 = (int) Math.floor(playerLocation.getZ() + BLOCK_OFFSET);
 
     long latestTick = Long.MIN_VALUE;
-    Vector latestPos = null;
+    long latestPos = 0;
+    boolean found = false;
 
     for (int x = x1; x <= x2; ++x) {
       for (int z = z1; z <= z2; ++z) {
-        Vector pos = new Vector(x, y, z);
+        long pos = encodePos(x, y, z);
         SpleefInfo info = this.brokenBlocks.get(pos);
         if (info != null) {
           long tick = info.getTime().tick;
           if (tick > latestTick) {
             latestTick = tick;
             latestPos = pos;
+            found = true;
           }
         }
       }
     }
 
-    return latestPos;
+    return found ? decodePos(latestPos) : null;
   }
 }
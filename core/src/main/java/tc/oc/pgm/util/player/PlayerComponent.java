@@ -87,6 +87,11 @@ public final class PlayerComponent implements RenderableComponent {
     return rendered;
   }
 
+  @Override
+  public Object getRenderKey(CommandSender viewer) {
+    return new PlayerRelationship(player, viewer);
+  }
+
   @Override
   public @NotNull RenderableComponent style(@NotNull Style style) {
     return new PlayerComponent(player, data, style);
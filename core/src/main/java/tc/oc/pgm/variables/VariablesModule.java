@@ -3,11 +3,13 @@ package tc.oc.pgm.variables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import java.lang.ref.WeakReference;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.ToDoubleFunction;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 import net.objecthunter.exp4j.ExpressionContext;
@@ -102,6 +104,24 @@ public class VariablesModule implements MapModule<VariablesMatchModule> {
       return arrays;
     }
 
+    @Override
+    public @Nullable ToDoubleFunction<T> getVariableReader(String id) {
+      VariableDefinition<?> def = vars.get(id);
+      if (def == null || def.isIndexed()) return null;
+
+      VariableSlot slot = new VariableSlot(def);
+      return scope -> slot.get(scope.getMatch()).getValue(scope);
+    }
+
+    @Override
+    public @Nullable Formula.IndexedReader<T> getArrayReader(String id) {
+      VariableDefinition<?> def = vars.get(id);
+      if (def == null || !def.isIndexed()) return null;
+
+      VariableSlot slot = new VariableSlot(def);
+      return (scope, idx) -> ((IndexedVariable<?>) slot.get(scope.getMatch())).getValue(scope, idx);
+    }
+
     @Override
     public ExpressionContext withContext(T scope) {
       Match match = scope.getMatch();
@@ -146,6 +166,41 @@ public class VariablesModule implements MapModule<VariablesMatchModule> {
     }
   }
 
+  /**
+   * The variable of a definition in the match it was last read in, so compiled formulas do not
+   * look it up by id on every evaluation. Both are weakly held, to not leak unloaded matches.
+   */
+  private static class VariableSlot {
+    private final VariableDefinition<?> definition;
+    private volatile @Nullable Resolved resolved;
+
+    private VariableSlot(VariableDefinition<?> definition) {
+      this.definition = definition;
+    }
+
+    private Variable<?> get(Match match) {
+      Resolved resolved = this.resolved;
+      if (resolved != null && resolved.match.get() == match) {
+        Variable<?> variable = resolved.variable.get();
+        if (variable != null) return variable;
+      }
+
+      Variable<?> variable = definition.getVariable(match);
+      this.resolved = new Resolved(match, variable);
+      return variable;
+    }
+
+    private static class Resolved {
+      private final WeakReference<Match> match;
+      private final WeakReference<Variable<?>> variable;
+
+      private Resolved(Match match, Variable<?> variable) {
+        this.match = new WeakReference<>(match);
+        this.variable = new WeakReference<>(variable);
+      }
+    }
+  }
+
   @Nullable
   @Override
   public VariablesMatchModule createMatchModule(Match match) throws ModuleLoadException {
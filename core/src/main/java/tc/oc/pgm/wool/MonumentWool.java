@@ -121,6 +121,7 @@ public class MonumentWool extends TouchableGoal<MonumentWoolFactory>
 
   @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
   public void onItemKitApplication(ApplyItemKitEvent event) {
+    // Kit items are already team-colored, so this checks the wool the player actually gets
     for (ItemStack item : event.getItems()) {
       handleWoolAcquisition(event.getPlayer().getBukkit(), item);
     }
@@ -0,0 +1,102 @@
+package tc.oc.pgm.filters;
+
+import com.google.common.collect.ImmutableList;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import org.bukkit.event.Event;
+import tc.oc.pgm.api.filter.Filter;
+import tc.oc.pgm.api.filter.query.Query;
+import tc.oc.pgm.api.match.Match;
+import tc.oc.pgm.api.player.MatchPlayer;
+import tc.oc.pgm.util.collection.ContextStore;
+import tc.oc.pgm.util.event.PlayerCoarseMoveEvent;
+
+/**
+ * Fake matches, players and dynamic filters, to drive a {@link FilterMatchModule} in benchmarks
+ * without a server. Only what the module uses to check and dispatch filters is implemented.
+ */
+final class BenchmarkFilters {
+
+  private BenchmarkFilters() {}
+
+  /** Create a filter module for a match that has not started, so listeners can be registered. */
+  static FilterMatchModule module() {
+    final Logger logger = Logger.getLogger(BenchmarkFilters.class.getName());
+    final Match match = fake(Match.class, "match", method -> {
+      switch (method) {
+        case "getLogger":
+          return logger;
+        case "isRunning":
+          return false;
+        default:
+          throw new UnsupportedOperationException(method);
+      }
+    });
+    return new FilterMatchModule(match, new ContextStore<>());
+  }
+
+  /** Create a player without any children. */
+  static MatchPlayer player(int index) {
+    return fake(MatchPlayer.class, "player-" + index, method -> {
+      if (method.equals("getFilterableChildren")) return Collections.emptyList();
+      throw new UnsupportedOperationException(method);
+    });
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T fake(Class<T> type, String name, Function<String, Object> methods) {
+    return (T) Proxy.newProxyInstance(
+        type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "hashCode":
+              return System.identityHashCode(proxy);
+            case "equals":
+              return proxy == args[0];
+            case "toString":
+              return name;
+            default:
+              return methods.apply(method.getName());
+          }
+        });
+  }
+
+  /** Counts how many times filters were evaluated. */
+  static final class Counter {
+    long count;
+  }
+
+  /** A dynamic filter that allows the players it has been toggled on for. */
+  static final class ToggleFilter implements Filter {
+    private final Set<Query> allowed = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Counter evaluations;
+
+    ToggleFilter(Counter evaluations) {
+      this.evaluations = evaluations;
+    }
+
+    void toggle(MatchPlayer player) {
+      if (!allowed.remove(player)) allowed.add(player);
+    }
+
+    @Override
+    public QueryResponse query(Query query) {
+      evaluations.count++;
+      return allowed.contains(query) ? QueryResponse.ALLOW : QueryResponse.DENY;
+    }
+
+    @Override
+    public boolean respondsTo(Class<? extends Query> queryType) {
+      return MatchPlayer.class.isAssignableFrom(queryType);
+    }
+
+    @Override
+    public Collection<Class<? extends Event>> getRelevantEvents() {
+      return ImmutableList.of(PlayerCoarseMoveEvent.class);
+    }
+  }
+}
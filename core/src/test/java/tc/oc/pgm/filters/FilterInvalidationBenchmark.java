@@ -0,0 +1,106 @@
+package tc.oc.pgm.filters;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tc.oc.pgm.api.player.MatchPlayer;
+
+/**
+ * Measures a tick of the filter module after one player changes the response of a few filters,
+ * like walking into some regions. Before, the whole player was invalidated and every filter was
+ * evaluated again. After, only the filters that could have changed are.
+ *
+ * <p>The number of filter evaluations per tick is printed at the end of each trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterInvalidationBenchmark {
+
+  private static final int PLAYERS = 100;
+  private static final int CHANGED = 10;
+
+  @Param({"50", "200"})
+  private int filterCount;
+
+  private final BenchmarkFilters.Counter evaluations = new BenchmarkFilters.Counter();
+  private FilterMatchModule module;
+  private MatchPlayer[] players;
+  private BenchmarkFilters.ToggleFilter[] filters;
+  private int next;
+  private long ticks;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    module = BenchmarkFilters.module();
+    players = new MatchPlayer[PLAYERS];
+    filters = new BenchmarkFilters.ToggleFilter[filterCount];
+
+    for (int i = 0; i < filterCount; i++) {
+      filters[i] = new BenchmarkFilters.ToggleFilter(evaluations);
+      module.onChange(MatchPlayer.class, filters[i], (player, response) -> {});
+    }
+    for (int i = 0; i < PLAYERS; i++) {
+      players[i] = BenchmarkFilters.player(i);
+      module.invalidate(players[i]);
+    }
+    module.tick();
+
+    evaluations.count = 0;
+    ticks = 0;
+  }
+
+  @TearDown(Level.Trial)
+  public void report() {
+    System.out.printf("%.1f filter evaluations per tick%n", (double) evaluations.count / ticks);
+  }
+
+  /** Change the response of a few filters for the next player, and get that player. */
+  private MatchPlayer move() {
+    final MatchPlayer player = players[next++ % PLAYERS];
+    for (int i = 0; i < CHANGED; i++) {
+      filters[(next + i) % filterCount].toggle(player);
+    }
+    ticks++;
+    return player;
+  }
+
+  @Benchmark
+  public void invalidatePlayer() {
+    module.invalidate(move());
+    module.tick();
+  }
+
+  @Benchmark
+  public void invalidateChangedFilters() {
+    final MatchPlayer player = move();
+    for (int i = 0; i < CHANGED; i++) {
+      module.invalidate(filters[(next + i) % filterCount], player);
+    }
+    module.tick();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+            .include(FilterInvalidationBenchmark.class.getSimpleName())
+            .build())
+        .run();
+  }
+}
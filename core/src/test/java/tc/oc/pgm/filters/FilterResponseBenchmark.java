@@ -0,0 +1,131 @@
+package tc.oc.pgm.filters;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tc.oc.pgm.api.filter.Filter;
+import tc.oc.pgm.api.player.MatchPlayer;
+
+/**
+ * Compares caching the last filter responses in a table keyed by filter and filterable, as the
+ * filter module used to, with bitsets indexed by filter id for each filterable, modelled on a map
+ * with 100 players and 200 dynamic filters. Also measures a full tick of the module, where every
+ * filter is checked for every player.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterResponseBenchmark {
+
+  private static final int PLAYERS = 100;
+  private static final int FILTERS = 200;
+
+  private final BenchmarkFilters.Counter evaluations = new BenchmarkFilters.Counter();
+  private final MatchPlayer[] players = new MatchPlayer[PLAYERS];
+  private final BenchmarkFilters.ToggleFilter[] filters =
+      new BenchmarkFilters.ToggleFilter[FILTERS];
+
+  private final Table<Filter, Filterable<?>, Boolean> table = HashBasedTable.create();
+  private final BitSet[] responded = new BitSet[PLAYERS];
+  private final BitSet[] responses = new BitSet[PLAYERS];
+  private FilterMatchModule module;
+  private int next;
+
+  @Setup
+  public void setup() {
+    module = BenchmarkFilters.module();
+    for (int i = 0; i < FILTERS; i++) {
+      filters[i] = new BenchmarkFilters.ToggleFilter(evaluations);
+      module.onChange(MatchPlayer.class, filters[i], (player, response) -> {});
+    }
+    for (int i = 0; i < PLAYERS; i++) {
+      players[i] = BenchmarkFilters.player(i);
+      responded[i] = new BitSet(FILTERS);
+      responses[i] = new BitSet(FILTERS);
+      for (int f = i % 3; f < FILTERS; f += 3) filters[f].toggle(players[i]);
+    }
+
+    checkTable();
+    checkBitSets();
+    tickModule();
+  }
+
+  /** Check every filter for every player against the table, counting the changed responses. */
+  @Benchmark
+  public int checkTable() {
+    int changed = 0;
+    for (MatchPlayer player : players) {
+      for (Filter filter : filters) {
+        final boolean response = filter.response(player);
+        final Boolean last = table.put(filter, player, response);
+        if (last == null || last != response) changed++;
+      }
+    }
+    return changed;
+  }
+
+  /** Check every filter for every player against the bitsets, counting the changed responses. */
+  @Benchmark
+  public int checkBitSets() {
+    int changed = 0;
+    for (int p = 0; p < PLAYERS; p++) {
+      for (int f = 0; f < FILTERS; f++) {
+        final boolean response = filters[f].response(players[p]);
+        final boolean known = responded[p].get(f);
+        if (!known || responses[p].get(f) != response) changed++;
+        responded[p].set(f);
+        responses[p].set(f, response);
+      }
+    }
+    return changed;
+  }
+
+  /** Forget the responses of a player leaving, then cache them again as if they rejoined. */
+  @Benchmark
+  public void rejoinTable() {
+    final MatchPlayer player = players[next++ % PLAYERS];
+    table.columnKeySet().remove(player);
+    for (Filter filter : filters) table.put(filter, player, filter.response(player));
+  }
+
+  /** Forget the responses of a player leaving, then cache them again as if they rejoined. */
+  @Benchmark
+  public void rejoinBitSets() {
+    final int p = next++ % PLAYERS;
+    responded[p].clear();
+    responses[p].clear();
+    for (int f = 0; f < FILTERS; f++) {
+      responded[p].set(f);
+      responses[p].set(f, filters[f].response(players[p]));
+    }
+  }
+
+  /** Tick the filter module after every player was invalidated. */
+  @Benchmark
+  public void tickModule() {
+    for (MatchPlayer player : players) module.invalidate(player);
+    module.tick();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(FilterResponseBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
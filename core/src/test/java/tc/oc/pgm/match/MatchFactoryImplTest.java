@@ -0,0 +1,142 @@
+package tc.oc.pgm.match;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import tc.oc.pgm.api.PGM;
+
+public final class MatchFactoryImplTest {
+
+  private static ScheduledExecutorService executor;
+
+  @BeforeAll
+  public static void setUp() {
+    executor = Executors.newSingleThreadScheduledExecutor();
+    final Logger logger = Logger.getLogger(MatchFactoryImplTest.class.getName());
+
+    // Only provide what the factory itself uses, the stages below never touch the server
+    PGM.GLOBAL.set((PGM) Proxy.newProxyInstance(
+        PGM.class.getClassLoader(), new Class<?>[] {PGM.class}, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getExecutor":
+            case "getAsyncExecutor":
+              return executor;
+            case "getLogger":
+            case "getGameLogger":
+              return logger;
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        }));
+  }
+
+  @AfterAll
+  public static void tearDown() {
+    PGM.GLOBAL.set(null);
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testCancelAfterLoad() throws InterruptedException {
+    final List<String> reverted = Collections.synchronizedList(new ArrayList<>());
+    final CountDownLatch done = new CountDownLatch(1);
+
+    // Like a preloaded match: loaded, and waiting to move players until awaited
+    final FakeStage move = new FakeStage("move", null, reverted, null);
+    final FakeStage load = new FakeStage("load", move, reverted, null);
+    final FakeStage download = new FakeStage("download", load, reverted, done);
+
+    final MatchFactoryImpl factory = new MatchFactoryImpl(download);
+    assertTrue(factory.cancel(true));
+    assertTrue(done.await(5, TimeUnit.SECONDS), "stages were not reverted");
+
+    // Awaiting after cancelling must not advance or revert again
+    factory.await();
+    drain();
+
+    assertTrue(factory.isCancelled());
+    assertEquals(List.of("move", "load", "download"), reverted);
+  }
+
+  @Test
+  public void testCancelWhileAdvancing() throws InterruptedException {
+    final List<String> reverted = Collections.synchronizedList(new ArrayList<>());
+    final CountDownLatch done = new CountDownLatch(1);
+
+    final CompletableFuture<FakeStage> loading = new CompletableFuture<>();
+    final FakeStage move = new FakeStage("move", null, reverted, null);
+    final FakeStage download = new FakeStage("download", null, reverted, done) {
+      @Override
+      public CompletableFuture<? extends MatchFactoryImpl.Stage> advance() {
+        return loading;
+      }
+    };
+
+    final MatchFactoryImpl factory = new MatchFactoryImpl(download);
+    assertTrue(factory.cancel(true));
+    loading.complete(move);
+    assertTrue(done.await(5, TimeUnit.SECONDS), "stages were not reverted");
+    drain();
+
+    // The stage that completed after cancelling is never pushed, so it has nothing to revert
+    assertEquals(List.of("download"), reverted);
+  }
+
+  /** Wait for every task submitted to the executor so far to run. */
+  private static void drain() throws InterruptedException {
+    final CountDownLatch drained = new CountDownLatch(1);
+    executor.execute(drained::countDown);
+    assertTrue(drained.await(5, TimeUnit.SECONDS));
+  }
+
+  private static class FakeStage implements MatchFactoryImpl.Stage, MatchFactoryImpl.Revertable {
+    private final String name;
+    private final @Nullable FakeStage next;
+    private final List<String> reverted;
+    private final @Nullable CountDownLatch done;
+
+    private FakeStage(
+        String name,
+        @Nullable FakeStage next,
+        List<String> reverted,
+        @Nullable CountDownLatch done) {
+      this.name = name;
+      this.next = next;
+      this.reverted = reverted;
+      this.done = done;
+    }
+
+    @Override
+    public CompletableFuture<? extends MatchFactoryImpl.Stage> advance() {
+      return CompletableFuture.completedFuture(next);
+    }
+
+    @Override
+    public @Nullable Duration delay(boolean timedOut) {
+      // The last stage waits to be awaited, like moving players does
+      return next == null && !timedOut ? null : Duration.ZERO;
+    }
+
+    @Override
+    public CompletableFuture<?> revert() {
+      reverted.add(name);
+      if (done != null) done.countDown();
+      return CompletableFuture.completedFuture(null);
+    }
+  }
+}
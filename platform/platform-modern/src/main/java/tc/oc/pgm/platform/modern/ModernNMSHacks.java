@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import net.kyori.adventure.text.Component;
+import net.minecraft.core.BlockPos;
 import net.minecraft.world.entity.Mob;
 import net.minecraft.world.entity.projectile.FireworkRocketEntity;
 import net.minecraft.world.level.chunk.LevelChunkSection;
@@ -21,6 +22,7 @@ import org.bukkit.WorldCreator;
 import org.bukkit.block.Block;
 import org.bukkit.craftbukkit.CraftChunk;
 import org.bukkit.craftbukkit.CraftWorld;
+import org.bukkit.craftbukkit.block.data.CraftBlockData;
 import org.bukkit.craftbukkit.entity.CraftEntity;
 import org.bukkit.craftbukkit.entity.CraftFirework;
 import org.bukkit.craftbukkit.util.CraftMagicNumbers;
@@ -127,6 +129,40 @@ public class ModernNMSHacks implements NMSHacks {
     return blocks;
   }
 
+  @Override
+  public void setBlocks(
+      Chunk bukkitChunk, int[] positions, BlockMaterialData[] materials, int count) {
+    var chunk = ((CraftChunk) bukkitChunk).getHandle(ChunkStatus.FULL);
+    var pos = new BlockPos.MutableBlockPos();
+    int baseX = bukkitChunk.getX() << 4, baseZ = bukkitChunk.getZ() << 4;
+
+    for (int i = 0; i < count; i++) {
+      int index = positions[i];
+      int y = index >> 8;
+      if (chunk.isOutsideBuildHeight(y)) continue;
+
+      var blockData = ((ModernBlockMaterialData) materials[i]).getBlock();
+      // Setting the block on the chunk skips neighbour updates, but still runs the remove and place
+      // hooks of the blocks. Light changes are queued on the light engine.
+      chunk.setBlockState(
+          pos.set(baseX + (index & 0xf), y, baseZ + ((index >> 4) & 0xf)),
+          ((CraftBlockData) blockData).getState(),
+          false);
+    }
+
+    bukkitChunk.getWorld().refreshChunk(bukkitChunk.getX(), bukkitChunk.getZ());
+  }
+
+  @Override
+  public void updateNeighbours(Block block) {
+    var level = ((CraftWorld) block.getWorld()).getHandle();
+    var pos = new BlockPos(block.getX(), block.getY(), block.getZ());
+    var state = level.getBlockState(pos);
+    // The same updates Level.setBlock does for a change: neighbour physics, then neighbour shapes
+    level.updateNeighborsAt(pos, state.getBlock());
+    state.updateNeighbourShapes(level, pos, net.minecraft.world.level.block.Block.UPDATE_CLIENTS);
+  }
+
   @Override
   public void setSkullMetaOwner(SkullMeta meta, String name, UUID uuid, Skin skin) {
     var profile = Bukkit.createProfile(uuid, name);
@@ -3,8 +3,6 @@ package tc.oc.pgm.platform.modern.material;
 import static tc.oc.pgm.util.platform.Supports.Variant.PAPER;
 
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Map;
 import java.util.Set;
 import org.bukkit.Bukkit;
 import org.bukkit.ChunkSnapshot;
@@ -21,7 +19,6 @@ import org.bukkit.event.entity.EntityChangeBlockEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.util.BlockVector;
 import org.jetbrains.annotations.Nullable;
-import tc.oc.pgm.util.chunk.ChunkVector;
 import tc.oc.pgm.util.material.BlockMaterialData;
 import tc.oc.pgm.util.material.ItemMaterialData;
 import tc.oc.pgm.util.material.MaterialMatcher;
@@ -87,12 +84,6 @@ public class ModernMaterialUtils implements MaterialUtils {
     return new ModernBlockData(Material.values()[encoded].createBlockData());
   }
 
-  @Override
-  public Iterator<tc.oc.pgm.util.block.BlockData> iterator(
-      Map<ChunkVector, ChunkSnapshot> chunks, Iterator<BlockVector> vectors) {
-    return new BlockDataIterator(chunks, vectors);
-  }
-
   @Override
   public Material parseMaterial(String text, @Nullable Node node) throws InvalidXMLException {
     return ModernMaterialParser.parseMaterial(text, node);
@@ -3,15 +3,19 @@ package tc.oc.pgm.platform.modern.packets;
 import static tc.oc.pgm.util.nms.Packets.ENTITIES;
 import static tc.oc.pgm.util.platform.Supports.Variant.PAPER;
 
+import com.destroystokyo.paper.ClientOption;
 import com.mojang.datafixers.util.Pair;
+import io.papermc.paper.adventure.PaperAdventure;
 import java.util.List;
 import java.util.Optional;
+import net.kyori.adventure.text.Component;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientboundSetBorderWarningDistancePacket;
 import net.minecraft.network.protocol.game.ClientboundSetEntityDataPacket;
 import net.minecraft.network.protocol.game.ClientboundSetEntityMotionPacket;
 import net.minecraft.network.protocol.game.ClientboundSetEquipmentPacket;
+import net.minecraft.network.protocol.game.ClientboundSystemChatPacket;
 import net.minecraft.network.protocol.game.ClientboundTakeItemEntityPacket;
 import net.minecraft.network.syncher.EntityDataSerializers;
 import net.minecraft.network.syncher.SynchedEntityData;
@@ -89,4 +93,20 @@ public class ModernPlayerPackets implements PlayerPackets, PacketSender {
     handle.hurtMarked = false;
     handle.connection.sendPacket(new ClientboundSetEntityMotionPacket(handle));
   }
+
+  @Override
+  public tc.oc.pgm.util.nms.packets.Packet chatMessage(Component message, boolean system) {
+    var packet = new ClientboundSystemChatPacket(PaperAdventure.asVanilla(message), false);
+    if (system) return new ModernPacket<>(packet);
+
+    // Player chat must be signed on modern versions, so it is sent as a system message too. Clients
+    // only hide player chat, so skip players who chose to see system messages alone.
+    return new ModernPacket<>(packet) {
+      @Override
+      public void send(Player viewer) {
+        var visibility = viewer.getClientOption(ClientOption.CHAT_VISIBILITY);
+        if (visibility == ClientOption.ChatVisibility.FULL) super.send(viewer);
+      }
+    };
+  }
 }
@@ -8,6 +8,7 @@ import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import net.minecraft.server.v1_8_R3.BlockPosition;
 import net.minecraft.server.v1_8_R3.ChunkSection;
 import net.minecraft.server.v1_8_R3.EntityArrow;
 import net.minecraft.server.v1_8_R3.EntityFireball;
@@ -42,6 +43,7 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.SkullMeta;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.util.Vector;
+import tc.oc.pgm.platform.sportpaper.material.LegacyMaterialData;
 import tc.oc.pgm.util.material.BlockMaterialData;
 import tc.oc.pgm.util.nms.NMSHacks;
 import tc.oc.pgm.util.platform.Supports;
@@ -132,6 +134,52 @@ public class NMSHacksSportPaper implements NMSHacks {
     return blocks;
   }
 
+  @Override
+  public void setBlocks(
+      Chunk bukkitChunk, int[] positions, BlockMaterialData[] materials, int count) {
+    net.minecraft.server.v1_8_R3.Chunk chunk = ((CraftChunk) bukkitChunk).getHandle();
+    WorldServer world = ((CraftWorld) bukkitChunk.getWorld()).getHandle();
+    BlockPosition.MutableBlockPosition pos = new BlockPosition.MutableBlockPosition();
+    int baseX = chunk.locX << 4, baseZ = chunk.locZ << 4;
+    List<BlockPosition> relight = new ArrayList<>();
+
+    for (int i = 0; i < count; i++) {
+      int index = positions[i];
+      int y = index >> 8;
+      if (y < 0 || y >= 256) continue;
+
+      LegacyMaterialData material = (LegacyMaterialData) materials[i];
+      IBlockData blockData =
+          CraftMagicNumbers.getBlock(material.getItemType()).fromLegacyData(material.getData());
+
+      // Chunk.a(BlockPosition, IBlockData) -> set the block and update the sky light height map,
+      // without neighbour physics. It returns the previous state, or null if nothing changed.
+      pos.c(baseX + (index & 0xf), y, baseZ + ((index >> 4) & 0xf));
+      IBlockData previous = chunk.a(pos, blockData);
+      if (previous == null) continue;
+
+      // Same check as World.setTypeAndData: only relight when opacity or emitted light changed
+      net.minecraft.server.v1_8_R3.Block oldBlock = previous.getBlock();
+      net.minecraft.server.v1_8_R3.Block newBlock = blockData.getBlock();
+      if (oldBlock.p() != newBlock.p() || oldBlock.r() != newBlock.r()) {
+        relight.add(new BlockPosition(pos));
+      }
+    }
+
+    // World.x(BlockPosition) -> check both sky and block light around the position
+    for (BlockPosition changed : relight) {
+      world.x(changed);
+    }
+    bukkitChunk.getWorld().refreshChunk(chunk.locX, chunk.locZ);
+  }
+
+  @Override
+  public void updateNeighbours(Block block) {
+    WorldServer world = ((CraftWorld) block.getWorld()).getHandle();
+    BlockPosition pos = new BlockPosition(block.getX(), block.getY(), block.getZ());
+    world.applyPhysics(pos, world.getType(pos).getBlock());
+  }
+
   @Override
   public void setSkullMetaOwner(SkullMeta meta, String name, UUID uuid, Skin skin) {
     meta.setOwner(name, uuid, new org.bukkit.Skin(skin.getData(), skin.getSignature()));
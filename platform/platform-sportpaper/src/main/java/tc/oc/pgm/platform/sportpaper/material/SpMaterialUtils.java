@@ -3,9 +3,7 @@ package tc.oc.pgm.platform.sportpaper.material;
 import static tc.oc.pgm.util.platform.Supports.Variant.SPORTPAPER;
 
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import net.minecraft.server.v1_8_R3.Block;
 import net.minecraft.server.v1_8_R3.IBlockData;
@@ -21,8 +19,6 @@ import org.bukkit.event.entity.EntityChangeBlockEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.util.BlockVector;
 import org.jetbrains.annotations.Nullable;
-import tc.oc.pgm.util.block.BlockData;
-import tc.oc.pgm.util.chunk.ChunkVector;
 import tc.oc.pgm.util.material.BlockMaterialData;
 import tc.oc.pgm.util.material.ItemMaterialData;
 import tc.oc.pgm.util.material.MaterialMatcher;
@@ -95,12 +91,6 @@ public class SpMaterialUtils implements MaterialUtils {
     return (byte) (encoded >> 12);
   }
 
-  @Override
-  public Iterator<BlockData> iterator(
-      Map<ChunkVector, ChunkSnapshot> chunks, Iterator<BlockVector> vectors) {
-    return new BlockDataIterator(chunks, vectors);
-  }
-
   @Override
   public Material parseMaterial(String text, @Nullable Node node) throws InvalidXMLException {
     return SpMaterialParser.parseMaterial(text, node);
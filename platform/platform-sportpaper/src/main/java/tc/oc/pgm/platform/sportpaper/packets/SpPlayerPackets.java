@@ -6,10 +6,14 @@ import static tc.oc.pgm.util.platform.Supports.Variant.SPORTPAPER;
 
 import java.util.Collections;
 import java.util.List;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
 import net.minecraft.server.v1_8_R3.BlockPosition;
 import net.minecraft.server.v1_8_R3.DataWatcher;
 import net.minecraft.server.v1_8_R3.EntityPlayer;
+import net.minecraft.server.v1_8_R3.IChatBaseComponent;
 import net.minecraft.server.v1_8_R3.PacketPlayOutBed;
+import net.minecraft.server.v1_8_R3.PacketPlayOutChat;
 import net.minecraft.server.v1_8_R3.PacketPlayOutCollect;
 import net.minecraft.server.v1_8_R3.PacketPlayOutEntityMetadata;
 import net.minecraft.server.v1_8_R3.PacketPlayOutEntityVelocity;
@@ -21,6 +25,7 @@ import org.bukkit.entity.Item;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import tc.oc.pgm.util.bukkit.ViaUtils;
+import tc.oc.pgm.util.nms.packets.Packet;
 import tc.oc.pgm.util.nms.packets.PlayerPackets;
 import tc.oc.pgm.util.platform.Supports;
 
@@ -93,4 +98,12 @@ public class SpPlayerPackets implements PlayerPackets, PacketSender {
     handle.velocityChanged = false;
     handle.playerConnection.sendPacket(new PacketPlayOutEntityVelocity(handle));
   }
+
+  @Override
+  public Packet chatMessage(Component message, boolean system) {
+    // 1.8 clients don't support RGB colors
+    String json = GsonComponentSerializer.colorDownsamplingGson().serialize(message);
+    return new SpPacket<>(
+        new PacketPlayOutChat(IChatBaseComponent.ChatSerializer.a(json), (byte) (system ? 1 : 0)));
+  }
 }
@@ -0,0 +1,127 @@
+package tc.oc.pgm.util.block;
+
+import it.unimi.dsi.fastutil.longs.AbstractLongSet;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.bukkit.util.BlockVector;
+
+/**
+ * A {@link BlockVectorSet} that also keeps its positions in a dense array, so that a random one can
+ * be chosen in constant time. Add, remove and contains are constant time too, removing swaps the
+ * last position into the hole.
+ */
+public class IndexedBlockVectorSet extends BlockVectorSet {
+
+  private final IndexedLongSet set;
+
+  private IndexedBlockVectorSet(IndexedLongSet set) {
+    super(set);
+    this.set = set;
+  }
+
+  public IndexedBlockVectorSet(int capacity) {
+    this(new IndexedLongSet(capacity));
+  }
+
+  public IndexedBlockVectorSet() {
+    this(16);
+  }
+
+  @Override
+  public BlockVector chooseRandom(Random random) {
+    return BlockVectors.decodePos(set.get(random.nextInt(size())));
+  }
+
+  private static class IndexedLongSet extends AbstractLongSet {
+    private static final int ABSENT = -1;
+
+    private long[] values;
+    private int size;
+    private final Long2IntOpenHashMap indices;
+
+    private IndexedLongSet(int capacity) {
+      this.values = new long[Math.max(capacity, 1)];
+      this.indices = new Long2IntOpenHashMap(capacity);
+      this.indices.defaultReturnValue(ABSENT);
+    }
+
+    private long get(int index) {
+      if (index >= size) throw new IndexOutOfBoundsException(index + " >= " + size);
+      return values[index];
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public boolean contains(long k) {
+      return indices.containsKey(k);
+    }
+
+    @Override
+    public boolean add(long k) {
+      if (indices.containsKey(k)) return false;
+
+      if (size == values.length) values = Arrays.copyOf(values, size * 2);
+      values[size] = k;
+      indices.put(k, size++);
+      return true;
+    }
+
+    @Override
+    public boolean remove(long k) {
+      final int index = indices.remove(k);
+      if (index == ABSENT) return false;
+      removeAt(index);
+      return true;
+    }
+
+    private void removeAt(int index) {
+      final long last = values[--size];
+      if (index != size) {
+        values[index] = last;
+        indices.put(last, index);
+      }
+    }
+
+    @Override
+    public void clear() {
+      size = 0;
+      indices.clear();
+    }
+
+    @Override
+    public LongIterator iterator() {
+      // Iterate backwards, so removing the current value only moves an already visited one
+      return new LongIterator() {
+        private int next = size - 1;
+        private int current = ABSENT;
+
+        @Override
+        public boolean hasNext() {
+          return next >= 0;
+        }
+
+        @Override
+        public long nextLong() {
+          if (next < 0) throw new NoSuchElementException();
+          current = next--;
+          return values[current];
+        }
+
+        @Override
+        public void remove() {
+          if (current == ABSENT) throw new IllegalStateException();
+          indices.remove(values[current]);
+          removeAt(current);
+          current = ABSENT;
+        }
+      };
+    }
+  }
+}
@@ -1,12 +1,15 @@
 package tc.oc.pgm.util.bukkit;
 
+import java.util.function.Consumer;
 import org.bukkit.Color;
 import org.bukkit.DyeColor;
 import org.bukkit.Effect;
 import org.bukkit.Location;
 import org.bukkit.World;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import tc.oc.pgm.util.material.BlockMaterialData;
+import tc.oc.pgm.util.nms.packets.Packet;
 import tc.oc.pgm.util.platform.Platform;
 
 public interface Effects {
@@ -29,4 +32,41 @@ public interface Effects {
   default void blockBreak(Location location, BlockMaterialData material) {
     location.getWorld().playEffect(location, Effect.STEP_SOUND, material.encoded());
   }
+
+  default Packet coloredDust(Location location, Color color) {
+    final Location at = location.clone();
+    return new EffectPacket(viewer -> coloredDust(viewer, at, color));
+  }
+
+  default Packet criticalArrow(Location location) {
+    final Location at = location.clone();
+    return new EffectPacket(viewer -> criticalArrow(viewer, at));
+  }
+
+  /**
+   * An effect played to each player it is sent to, so it can be queued like any other packet. It
+   * still calls the platform once for each viewer, no packet is shared between them.
+   */
+  class EffectPacket implements Packet {
+    private final Consumer<Player> effect;
+
+    public EffectPacket(Consumer<Player> effect) {
+      this.effect = effect;
+    }
+
+    @Override
+    public void send(Player viewer) {
+      if (viewer.isOnline()) effect.accept(viewer);
+    }
+
+    @Override
+    public void sendToViewers(Entity entity, boolean excludeSpectators) {
+      for (Player viewer : entity.getWorld().getPlayers()) {
+        if (viewer == entity) continue;
+        if (entity instanceof Player && !viewer.canSee((Player) entity)) continue;
+        if (excludeSpectators && entity.equals(viewer.getSpectatorTarget())) continue;
+        send(viewer);
+      }
+    }
+  }
 }
@@ -0,0 +1,60 @@
+package tc.oc.pgm.util.chunk;
+
+import org.bukkit.util.Vector;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Packs chunk positions into longs, so things can be indexed by the chunk columns they cover
+ * without allocating a {@link ChunkVector} for every lookup.
+ */
+public final class ChunkKeys {
+
+  private ChunkKeys() {}
+
+  /** Get the key of a chunk. */
+  public static long of(int chunkX, int chunkZ) {
+    return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+  }
+
+  /** Get the key of the chunk a block is in. */
+  public static long ofBlock(int blockX, int blockZ) {
+    return of(blockX >> 4, blockZ >> 4);
+  }
+
+  /** Get the chunk coordinate of a point, along the x or z axis. */
+  public static int chunk(double coordinate) {
+    return (int) Math.floor(coordinate) >> 4;
+  }
+
+  /**
+   * Get the keys of every chunk column a box overlaps.
+   *
+   * @param min The minimum corner of the box
+   * @param max The maximum corner of the box
+   * @param maxChunks The most chunks worth indexing the box by
+   * @return The keys of the chunks, or null if the box is empty, is horizontally unbounded or
+   *     covers more than {@code maxChunks} chunks, so it should be checked everywhere instead
+   */
+  public static long @Nullable [] covering(Vector min, Vector max, int maxChunks) {
+    if (!Double.isFinite(min.getX())
+        || !Double.isFinite(min.getZ())
+        || !Double.isFinite(max.getX())
+        || !Double.isFinite(max.getZ())) return null;
+
+    final int minX = chunk(min.getX()), minZ = chunk(min.getZ());
+    final int maxX = chunk(max.getX()), maxZ = chunk(max.getZ());
+    if (maxX < minX || maxZ < minZ) return null;
+
+    final long count = (long) (maxX - minX + 1) * (maxZ - minZ + 1);
+    if (count > maxChunks) return null;
+
+    final long[] keys = new long[(int) count];
+    int i = 0;
+    for (int x = minX; x <= maxX; x++) {
+      for (int z = minZ; z <= maxZ; z++) {
+        keys[i++] = of(x, z);
+      }
+    }
+    return keys;
+  }
+}
@@ -16,7 +16,7 @@ public class ContextStore<T> implements Iterable<Map.Entry<String, T>> {
     return this.store.entrySet().iterator();
   }
 
-  public boolean contains(String name) {
+  public synchronized boolean contains(String name) {
     return store.containsKey(name);
   }
 
@@ -44,7 +44,7 @@ public class ContextStore<T> implements Iterable<Map.Entry<String, T>> {
    * @param name Name for this object.
    * @param obj Object to add.
    */
-  public void add(String name, T obj) {
+  public synchronized void add(String name, T obj) {
     T old = store.put(name, obj);
     if (old != null && old != obj) {
       store.put(name, old);
@@ -59,7 +59,7 @@ public class ContextStore<T> implements Iterable<Map.Entry<String, T>> {
    * @param name Name to look up.
    * @return Object that was registered to the given name or null if none exists.
    */
-  public T get(String name) {
+  public synchronized T get(String name) {
     return this.store.get(name);
   }
 
@@ -70,7 +70,7 @@ public class ContextStore<T> implements Iterable<Map.Entry<String, T>> {
    * @return Name for the object or null if none is found.
    * @note This method will look up the exact equality operator then the .equals method.
    */
-  public String getName(T obj) {
+  public synchronized String getName(T obj) {
     for (Map.Entry<String, T> entry : this.store.entrySet()) {
       if (entry.getValue() == obj || entry.getValue().equals(obj)) {
         return entry.getKey();
@@ -100,7 +100,7 @@ public class ContextStore<T> implements Iterable<Map.Entry<String, T>> {
   }
 
   @SuppressWarnings("unchecked")
-  public <V extends T> Iterable<V> getAll(Class<V> clazz) {
+  public synchronized <V extends T> Iterable<V> getAll(Class<V> clazz) {
     Set<V> results = new HashSet<>();
 
     for (T t : this.getAll()) {
@@ -6,31 +6,69 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.SQLTimeoutException;
 import java.time.Duration;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import tc.oc.pgm.util.ClassLogger;
 
 /** A concurrent, thread-safe {@link Connection}. */
 public class ThreadSafeConnection implements Closeable {
 
   private static final long MAX_TIMEOUT_MS = Duration.ofSeconds(10).toMillis();
 
+  // How long updates are held to be coalesced, and how many trigger an early flush
+  private static final long FLUSH_DELAY_MS = Duration.ofSeconds(1).toMillis();
+  private static final int FLUSH_THRESHOLD = 256;
+
+  // Idle connections are validated before reuse, and closed after a while if not the last one
+  private static final long VALIDATE_AFTER_NS = TimeUnit.SECONDS.toNanos(30);
+  private static final long EVICT_AFTER_NS = TimeUnit.MINUTES.toNanos(5);
+  private static final int VALIDATE_TIMEOUT_SECS = 2;
+
+  // Waiting longer than this for a connection is logged
+  private static final long SLOW_WAIT_NS = TimeUnit.SECONDS.toNanos(1);
+
+  // Prepared statements kept open per connection
+  private static final int MAX_CACHED_STATEMENTS = 64;
+
+  private final Logger logger = ClassLogger.get(ThreadSafeConnection.class);
   private final Supplier<Connection> connectionSupplier;
-  private final BlockingQueue<Connection> connectionQueue;
+  private final int maxConnections;
+  private final BlockingDeque<PooledConnection> connectionQueue;
+  private final AtomicInteger openConnections = new AtomicInteger();
   private final ExecutorService executorService;
 
+  // Pending updates by key, in the order their keys were first submitted
+  private final Map<Object, Update> pendingUpdates = new LinkedHashMap<>();
+  private boolean flushScheduled;
+  private boolean closed;
+
+  // Pool statistics
+  private final AtomicInteger queueDepth = new AtomicInteger();
+  private final AtomicLong acquisitions = new AtomicLong();
+  private final AtomicLong totalWaitNanos = new AtomicLong();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+
   public ThreadSafeConnection(Supplier<Connection> connectionSupplier, int maxConnections)
       throws SQLException {
     this.connectionSupplier = connectionSupplier;
-    this.connectionQueue = new LinkedBlockingQueue<>(maxConnections);
+    this.maxConnections = maxConnections;
+    this.connectionQueue = new LinkedBlockingDeque<>(maxConnections);
     this.executorService = Executors.newWorkStealingPool(maxConnections);
 
+    openConnections.incrementAndGet();
     releaseConnection(newConnection());
   }
 
@@ -58,6 +96,180 @@ public class ThreadSafeConnection implements Closeable {
     }
   }
 
+  /**
+   * A write that only binds the parameters of its statement, so that writes of the same format can
+   * be sent as a single batch.
+   */
+  public interface Update extends Query {
+
+    /**
+     * Sets the parameters of a statement, without executing it.
+     *
+     * @param statement A statement with the format of this update.
+     * @throws SQLException If a parameter cannot be set.
+     */
+    void bind(PreparedStatement statement) throws SQLException;
+
+    @Override
+    default void query(PreparedStatement statement) throws SQLException {
+      bind(statement);
+      statement.executeUpdate();
+    }
+  }
+
+  /** A pooled connection, with the statements prepared on it. */
+  private static class PooledConnection {
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements;
+    private long releasedAt;
+
+    private PooledConnection(Connection connection) {
+      this.connection = connection;
+      this.statements =
+          new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+              if (size() <= MAX_CACHED_STATEMENTS) return false;
+              closeQuietly(eldest.getValue());
+              return true;
+            }
+          };
+    }
+
+    /** Get an empty statement for the format, reusing a previously prepared one if possible. */
+    private PreparedStatement prepare(String format) throws SQLException {
+      PreparedStatement statement = statements.get(format);
+      if (statement == null || statement.isClosed()) {
+        statement = connection.prepareStatement(format);
+        statements.put(format, statement);
+      } else {
+        statement.clearParameters();
+        statement.clearBatch();
+      }
+      return statement;
+    }
+
+    /** Discard a statement that failed, as its state is unknown. */
+    private void discard(String format) {
+      closeQuietly(statements.remove(format));
+    }
+
+    private void close() {
+      for (PreparedStatement statement : statements.values()) {
+        closeQuietly(statement);
+      }
+      statements.clear();
+
+      try {
+        connection.close();
+      } catch (SQLException e) {
+        // No-op, the connection is being thrown away
+      }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+      if (statement == null) return;
+      try {
+        statement.close();
+      } catch (SQLException e) {
+        // No-op, the statement is being thrown away
+      }
+    }
+  }
+
+  /**
+   * Submits an update to be written later, along with other pending updates.
+   *
+   * <p>If an update with the same key is still pending, it is replaced, so only the latest update
+   * for each key is written. Updates are bound when they are flushed, so they should read the
+   * latest state of what they write. Pending updates are also written before any query runs, so
+   * queries see them.
+   *
+   * @see Update
+   * @param key A key identifying what the update writes, e.g. a row.
+   * @param update An update.
+   */
+  public void submitUpdate(Object key, Update update) {
+    boolean flushNow = false;
+    synchronized (pendingUpdates) {
+      if (closed) {
+        logger.warning("Dropped update submitted after close: " + update.getFormat());
+        return;
+      }
+      pendingUpdates.put(key, update);
+
+      if (pendingUpdates.size() >= FLUSH_THRESHOLD) {
+        flushNow = true;
+      } else if (!flushScheduled) {
+        flushScheduled = true;
+        CompletableFuture.delayedExecutor(FLUSH_DELAY_MS, TimeUnit.MILLISECONDS, executorService)
+            .execute(this::flushUpdates);
+      }
+    }
+
+    if (flushNow) CompletableFuture.runAsync(this::flushUpdates, executorService);
+  }
+
+  /** Writes all pending updates on a connection of the pool. */
+  private void flushUpdates() {
+    final List<Update> updates = drainUpdates();
+    if (updates.isEmpty()) return;
+
+    queueDepth.incrementAndGet();
+    final PooledConnection connection;
+    try {
+      connection = acquireConnection();
+    } catch (SQLException e) {
+      logger.log(Level.SEVERE, "Unable to write " + updates.size() + " updates", e);
+      return;
+    } finally {
+      queueDepth.decrementAndGet();
+    }
+
+    try {
+      writeUpdates(connection, updates);
+    } finally {
+      releaseConnection(connection);
+    }
+  }
+
+  /** Removes and returns all pending updates, in the order their keys were submitted. */
+  private List<Update> drainUpdates() {
+    synchronized (pendingUpdates) {
+      flushScheduled = false;
+      if (pendingUpdates.isEmpty()) return List.of();
+
+      final List<Update> updates = new ArrayList<>(pendingUpdates.values());
+      pendingUpdates.clear();
+      return updates;
+    }
+  }
+
+  /** Writes updates on a connection, batching consecutive updates with the same format. */
+  private void writeUpdates(PooledConnection connection, List<Update> updates) {
+    int start = 0;
+    while (start < updates.size()) {
+      final String format = updates.get(start).getFormat();
+
+      int end = start + 1;
+      while (end < updates.size() && format.equals(updates.get(end).getFormat())) end++;
+
+      try {
+        final PreparedStatement statement = connection.prepare(format);
+        for (int i = start; i < end; i++) {
+          updates.get(i).bind(statement);
+          statement.addBatch();
+        }
+        statement.executeBatch();
+      } catch (Throwable t) {
+        connection.discard(format);
+        logger.log(Level.SEVERE, "Unable to write " + (end - start) + " updates: " + format, t);
+      }
+
+      start = end;
+    }
+  }
+
   /**
    * Submits a query.
    *
@@ -66,68 +278,202 @@ public class ThreadSafeConnection implements Closeable {
    * @return A future when the query is complete.
    */
   public CompletableFuture<Void> submitQuery(Query query) {
+    queueDepth.incrementAndGet();
     return CompletableFuture.runAsync(
         () -> {
+          final PooledConnection connection;
           try {
-            final Connection connection = acquireConnection();
-
-            try (final PreparedStatement statement =
-                connection.prepareStatement(query.getFormat())) {
-              query.query(statement);
-            } catch (Throwable t) {
-              t.printStackTrace();
-            }
+            connection = acquireConnection();
+          } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Unable to run query: " + query.getFormat(), e);
+            return;
+          } finally {
+            queueDepth.decrementAndGet();
+          }
 
+          try {
+            // Write pending updates first, so the query does not read stale rows
+            writeUpdates(connection, drainUpdates());
+            query.query(connection.prepare(query.getFormat()));
+          } catch (Throwable t) {
+            connection.discard(query.getFormat());
+            logger.log(Level.SEVERE, "Unable to run query: " + query.getFormat(), t);
+          } finally {
             releaseConnection(connection);
-          } catch (SQLException e) {
-            e.printStackTrace();
           }
         },
         executorService);
   }
 
   /**
-   * Releases an existing connection.
+   * Get the number of updates waiting to be flushed.
+   *
+   * @return The number of pending updates.
+   */
+  public int getPendingUpdates() {
+    synchronized (pendingUpdates) {
+      return pendingUpdates.size();
+    }
+  }
+
+  /**
+   * Get the number of queries and update batches waiting for a connection.
+   *
+   * @return The queue depth.
+   */
+  public int getQueueDepth() {
+    return queueDepth.get();
+  }
+
+  /**
+   * Get the number of connections currently open, idle or in use.
+   *
+   * @return The number of open connections.
+   */
+  public int getOpenConnections() {
+    return openConnections.get();
+  }
+
+  /**
+   * Get the maximum number of connections the pool can open.
+   *
+   * @return The maximum number of connections.
+   */
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  /**
+   * Get the number of times a connection was acquired from the pool.
+   *
+   * @return The number of acquisitions.
+   */
+  public long getAcquisitions() {
+    return acquisitions.get();
+  }
+
+  /**
+   * Get the average time spent waiting for a connection.
+   *
+   * @return The average wait time.
+   */
+  public Duration getAverageWaitTime() {
+    final long count = acquisitions.get();
+    return Duration.ofNanos(count == 0 ? 0 : totalWaitNanos.get() / count);
+  }
+
+  /**
+   * Get the longest time spent waiting for a connection.
+   *
+   * @return The maximum wait time.
+   */
+  public Duration getMaxWaitTime() {
+    return Duration.ofNanos(maxWaitNanos.get());
+  }
+
+  /**
+   * Releases an existing connection, and closes connections that have been idle for too long.
    *
    * @param connection An existing connection.
-   * @throws SQLException If the connection is invalid.
    */
-  private void releaseConnection(Connection connection) throws SQLException {
-    try {
-      connectionQueue.offer(connection, MAX_TIMEOUT_MS, TimeUnit.MILLISECONDS);
-    } catch (InterruptedException e) {
+  private void releaseConnection(PooledConnection connection) {
+    final long now = System.nanoTime();
+    connection.releasedAt = now;
+
+    // Most recently used connections are at the head, so idle ones gather at the tail
+    if (!connectionQueue.offerFirst(connection)) {
+      openConnections.decrementAndGet();
       connection.close();
+      return;
+    }
+
+    PooledConnection idle;
+    while (openConnections.get() > 1
+        && (idle = connectionQueue.peekLast()) != null
+        && now - idle.releasedAt > EVICT_AFTER_NS
+        && connectionQueue.removeLastOccurrence(idle)) {
+      openConnections.decrementAndGet();
+      idle.close();
     }
   }
 
   /**
-   * Blocks until an existing connection is available.
+   * Blocks until an existing connection is available, opening a new one if the pool has room.
    *
-   * @return An existing connection.
-   * @throws SQLException If the connection is invalid.
+   * @return A valid connection.
+   * @throws SQLException If no connection could be acquired.
    */
-  private Connection acquireConnection() throws SQLException {
-    Connection connection;
+  private PooledConnection acquireConnection() throws SQLException {
+    final long start = System.nanoTime();
 
-    try {
-      connection = connectionQueue.poll(MAX_TIMEOUT_MS, TimeUnit.MILLISECONDS);
-    } catch (InterruptedException e) {
-      throw new SQLTimeoutException();
+    PooledConnection connection = connectionQueue.pollFirst();
+    while (connection == null) {
+      final int open = openConnections.get();
+      if (open < maxConnections) {
+        if (openConnections.compareAndSet(open, open + 1)) {
+          try {
+            connection = newConnection();
+          } catch (SQLException | RuntimeException e) {
+            openConnections.decrementAndGet();
+            throw e;
+          }
+        }
+        continue;
+      }
+
+      try {
+        connection = connectionQueue.pollFirst(MAX_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        throw new SQLTimeoutException(e);
+      }
+      if (connection == null) throw new SQLTimeoutException("Timed out waiting for a connection");
     }
 
-    if (connection == null) releaseConnection(connection = newConnection());
-    if (connection.isClosed()) throw new SQLTimeoutException();
+    // Connections that sat idle may have been closed by the server
+    if (System.nanoTime() - connection.releasedAt > VALIDATE_AFTER_NS
+        && !isValid(connection.connection)) {
+      connection.close();
+      try {
+        connection = newConnection();
+      } catch (SQLException | RuntimeException e) {
+        openConnections.decrementAndGet();
+        throw e;
+      }
+    }
 
+    recordWait(System.nanoTime() - start);
     return connection;
   }
 
+  private void recordWait(long waitNanos) {
+    acquisitions.incrementAndGet();
+    totalWaitNanos.addAndGet(waitNanos);
+    maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+
+    if (waitNanos > SLOW_WAIT_NS) {
+      logger.warning("Waited "
+          + TimeUnit.NANOSECONDS.toMillis(waitNanos)
+          + "ms for a database connection, with "
+          + queueDepth.get()
+          + " queries queued");
+    }
+  }
+
+  private static boolean isValid(Connection connection) {
+    try {
+      return !connection.isClosed() && connection.isValid(VALIDATE_TIMEOUT_SECS);
+    } catch (SQLException | AbstractMethodError e) {
+      return false;
+    }
+  }
+
   /**
    * Establishes a new connection.
    *
    * @return A new connection.
    * @throws SQLException If the connection is invalid.
    */
-  private Connection newConnection() throws SQLException {
+  private PooledConnection newConnection() throws SQLException {
     final Connection connection = connectionSupplier.get();
 
     connection.setAutoCommit(true);
@@ -137,28 +483,32 @@ public class ThreadSafeConnection implements Closeable {
       // No-op, really old drivers do not support timeouts
     }
 
-    return connection;
+    final PooledConnection pooled = new PooledConnection(connection);
+    pooled.releasedAt = System.nanoTime();
+    return pooled;
   }
 
   @Override
   public void close() {
-    executorService.shutdown();
-
-    List<Connection> connections = new LinkedList<>();
-    connectionQueue.drainTo(connections);
+    // Reject later updates, then drain pending ones before the pool goes away
+    synchronized (pendingUpdates) {
+      closed = true;
+    }
+    flushUpdates();
 
+    executorService.shutdown();
     try {
       executorService.awaitTermination(MAX_TIMEOUT_MS, TimeUnit.MILLISECONDS);
     } catch (InterruptedException e) {
       executorService.shutdownNow();
     }
 
-    for (Connection connection : connections) {
-      try {
-        connection.close();
-      } catch (SQLException e) {
-        e.printStackTrace();
-      }
+    // Only close connections once queries are done, so none are released afterwards
+    List<PooledConnection> connections = new ArrayList<>();
+    connectionQueue.drainTo(connections);
+    for (PooledConnection connection : connections) {
+      openConnections.decrementAndGet();
+      connection.close();
     }
   }
 }
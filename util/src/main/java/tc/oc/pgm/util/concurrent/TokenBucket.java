@@ -0,0 +1,57 @@
+package tc.oc.pgm.util.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket rate limiter. Permits are refilled at a fixed rate, and up to a capacity of them
+ * can be saved up to allow short bursts.
+ *
+ * <p>Unlike {@link RateLimiter}, which adapts a delay to the server's performance, this limits how
+ * often something may happen regardless of how long it takes, such as requests to an external API.
+ */
+public class TokenBucket {
+  private final double capacity;
+  private final double permitsPerNano;
+
+  private double tokens;
+  private long refilledAt;
+
+  public TokenBucket(double capacity, double permitsPerSecond) {
+    if (capacity < 1) throw new IllegalArgumentException("capacity must be at least 1");
+    if (permitsPerSecond <= 0) throw new IllegalArgumentException("rate must be positive");
+    this.capacity = capacity;
+    this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+    this.tokens = capacity;
+    this.refilledAt = System.nanoTime();
+  }
+
+  /** Take a permit if one is available, without waiting. */
+  public synchronized boolean tryAcquire() {
+    refill();
+    if (tokens < 1) return false;
+    tokens--;
+    return true;
+  }
+
+  /** Take a permit, waiting until one is available. */
+  public void acquire() throws InterruptedException {
+    while (true) {
+      long wait;
+      synchronized (this) {
+        refill();
+        if (tokens >= 1) {
+          tokens--;
+          return;
+        }
+        wait = (long) Math.ceil((1 - tokens) / permitsPerNano);
+      }
+      TimeUnit.NANOSECONDS.sleep(wait);
+    }
+  }
+
+  private void refill() {
+    long now = System.nanoTime();
+    tokens = Math.min(capacity, tokens + (now - refilledAt) * permitsPerNano);
+    refilledAt = now;
+  }
+}
@@ -2,16 +2,12 @@ package tc.oc.pgm.util.material;
 
 import static tc.oc.pgm.util.material.MaterialUtils.MATERIAL_UTILS;
 
-import java.util.Iterator;
-import java.util.Map;
 import org.bukkit.ChunkSnapshot;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockState;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.util.BlockVector;
-import tc.oc.pgm.util.block.BlockData;
-import tc.oc.pgm.util.chunk.ChunkVector;
 
 public interface MaterialData {
   BlockMaterialData AIR = MaterialData.block(Material.AIR);
@@ -48,11 +44,6 @@ public interface MaterialData {
     return MATERIAL_UTILS.decode(encoded);
   }
 
-  static Iterator<BlockData> iterator(
-      Map<ChunkVector, ChunkSnapshot> chunks, Iterator<BlockVector> vectors) {
-    return MATERIAL_UTILS.iterator(chunks, vectors);
-  }
-
   Material getItemType();
 
   MaterialMatcher toMatcher();
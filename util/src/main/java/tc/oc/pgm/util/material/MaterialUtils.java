@@ -1,7 +1,5 @@
 package tc.oc.pgm.util.material;
 
-import java.util.Iterator;
-import java.util.Map;
 import java.util.Set;
 import org.bukkit.ChunkSnapshot;
 import org.bukkit.Material;
@@ -11,8 +9,6 @@ import org.bukkit.event.entity.EntityChangeBlockEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.util.BlockVector;
 import org.jetbrains.annotations.Nullable;
-import tc.oc.pgm.util.block.BlockData;
-import tc.oc.pgm.util.chunk.ChunkVector;
 import tc.oc.pgm.util.platform.Platform;
 import tc.oc.pgm.util.xml.InvalidXMLException;
 import tc.oc.pgm.util.xml.Node;
@@ -36,9 +32,6 @@ public interface MaterialUtils {
 
   BlockMaterialData decode(int encoded);
 
-  Iterator<BlockData> iterator(
-      Map<ChunkVector, ChunkSnapshot> chunks, Iterator<BlockVector> vectors);
-
   Material parseMaterial(String text, @Nullable Node node) throws InvalidXMLException;
 
   ItemMaterialData parseItemMaterialData(String text, @Nullable Node node)
@@ -1,13 +1,17 @@
 package tc.oc.pgm.util.math;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.ToDoubleFunction;
-import java.util.stream.Collectors;
 import net.objecthunter.exp4j.Expression;
 import net.objecthunter.exp4j.ExpressionBuilder;
 import net.objecthunter.exp4j.ExpressionContext;
 import net.objecthunter.exp4j.function.Function;
+import org.jetbrains.annotations.Nullable;
 
 public interface Formula<T> extends ToDoubleFunction<T> {
 
@@ -69,25 +73,31 @@ public interface Formula<T> extends ToDoubleFunction<T> {
 
   static <T> Formula<T> of(String expression, ContextFactory<T> context)
       throws IllegalArgumentException {
+    Map<String, Function> functions = new HashMap<>();
+    for (Function function : List.of(BOUND, RANDOM, MAX, MIN)) {
+      functions.put(function.getName(), function);
+    }
+    for (String array : context.getArrays()) {
+      functions.put(
+          array,
+          new Function(array, 1) {
+            @Override
+            public double apply(double... doubles) {
+              throw new UnsupportedOperationException(
+                  "Cannot get array value without replacement!");
+            }
+          });
+    }
+
     Expression exp =
         new ExpressionBuilder(expression)
             .variables(context.getVariables())
-            .functions(BOUND, RANDOM, MAX, MIN)
-            .functions(
-                context.getArrays().stream()
-                    .map(
-                        str ->
-                            new Function(str, 1) {
-                              @Override
-                              public double apply(double... doubles) {
-                                throw new UnsupportedOperationException(
-                                    "Cannot get array value without replacement!");
-                              }
-                            })
-                    .collect(Collectors.toList()))
+            .functions(new ArrayList<>(functions.values()))
             .build();
 
-    return new ExpFormula<>(exp, context);
+    // Prefer reading variables directly, if the context allows for it
+    Formula<T> compiled = FormulaCompiler.compile(expression, context, functions);
+    return compiled != null ? compiled : new ExpFormula<>(exp, context);
   }
 
   class ExpFormula<T> implements Formula<T> {
@@ -105,6 +115,11 @@ public interface Formula<T> extends ToDoubleFunction<T> {
     }
   }
 
+  @FunctionalInterface
+  interface IndexedReader<T> {
+    double get(T t, int index);
+  }
+
   interface ContextFactory<T> {
     Set<String> getVariables();
 
@@ -112,6 +127,30 @@ public interface Formula<T> extends ToDoubleFunction<T> {
 
     ExpressionContext withContext(T t);
 
+    /**
+     * Get a reader of a variable that does not need it to be looked up by name, so formulas using
+     * it can be compiled.
+     *
+     * @param name The name of the variable
+     * @return A reader of the variable, or null if it can only be read through {@link
+     *     #withContext(Object)}
+     */
+    default @Nullable ToDoubleFunction<T> getVariableReader(String name) {
+      return null;
+    }
+
+    /**
+     * Get a reader of an array that does not need it to be looked up by name, so formulas using it
+     * can be compiled.
+     *
+     * @param name The name of the array
+     * @return A reader of the array, or null if it can only be read through {@link
+     *     #withContext(Object)}
+     */
+    default @Nullable IndexedReader<T> getArrayReader(String name) {
+      return null;
+    }
+
     static <T extends ExpressionContext> ContextFactory<T> ofStatic(Set<String> variables) {
       return of(variables, Collections.emptySet(), t -> t);
     }
@@ -0,0 +1,565 @@
+package tc.oc.pgm.util.math;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.function.Functions;
+import net.objecthunter.exp4j.operator.Operator;
+import net.objecthunter.exp4j.operator.Operators;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Compiles a formula into a tree of nodes, which reads variables directly through the readers of a
+ * {@link Formula.ContextFactory} instead of binding them by name on every evaluation.
+ *
+ * <p>Expressions are tokenized and ordered the same way exp4j does, and evaluated with exp4j's own
+ * functions and operators, so a compiled formula gives the same results as an interpreted one. Each
+ * variable is read once per evaluation, however many times the formula uses it.
+ */
+final class FormulaCompiler<T> {
+
+  private static final Logger LOGGER = Logger.getLogger(FormulaCompiler.class.getName());
+
+  private static final Map<String, Double> CONSTANTS =
+      Map.of("pi", Math.PI, "\u03c0", Math.PI, "e", Math.E, "\u03c6", 1.61803398874d);
+
+  private static final Operator DIVISION = Operators.getBuiltinOperator('/', 2);
+  private static final Operator MODULO = Operators.getBuiltinOperator('%', 2);
+
+  private final char[] expression;
+  private final Formula.ContextFactory<T> context;
+  private final Map<String, Function> functions;
+  private final Set<String> variables;
+  // Readers of the variables the formula uses, by the slot they are read into
+  private final List<ToDoubleFunction<T>> readers = new ArrayList<>();
+  private final Map<String, Integer> slots = new HashMap<>();
+
+  private FormulaCompiler(
+      String expression, Formula.ContextFactory<T> context, Map<String, Function> functions) {
+    this.expression = expression.toCharArray();
+    this.context = context;
+    this.functions = functions;
+    this.variables = context.getVariables();
+  }
+
+  /**
+   * Compile a formula, which has already been validated by exp4j.
+   *
+   * @param expression The formula
+   * @param context The context the formula is evaluated in
+   * @param functions The functions available to the formula, by name
+   * @return The compiled formula, or null if it cannot be compiled because a variable it uses has
+   *     no reader, or because it could not be parsed
+   */
+  static <T> @Nullable Formula<T> compile(
+      String expression, Formula.ContextFactory<T> context, Map<String, Function> functions) {
+    final FormulaCompiler<T> compiler = new FormulaCompiler<>(expression, context, functions);
+    final Node<T> root;
+    try {
+      root = compiler.compile();
+    } catch (RuntimeException e) {
+      // exp4j accepted the formula, so this is a bug in the compiler rather than in the formula
+      LOGGER.log(
+          Level.WARNING, "Could not compile formula '" + expression + "', interpreting it", e);
+      return null;
+    }
+    return root == null ? null : new CompiledFormula<>(root, compiler.readers);
+  }
+
+  private @Nullable Node<T> compile() {
+    final Deque<Node<T>> stack = new ArrayDeque<>();
+    for (Token token : toPostfix(tokenize())) {
+      final Node<T> node =
+          switch (token.type) {
+            case NUMBER -> new Constant<>(token.value);
+            case VARIABLE -> variable(token.name);
+            case OPERATOR -> operator(token.operator, stack);
+            case FUNCTION -> function(token.function, token.args, stack);
+            default -> throw new IllegalStateException("Unexpected token " + token.type);
+          };
+      if (node == null) return null;
+      stack.push(node);
+    }
+    if (stack.size() != 1) throw new IllegalStateException("Invalid expression");
+    return stack.pop();
+  }
+
+  private @Nullable Node<T> variable(String name) {
+    if (!variables.contains(name)) return new Constant<>(CONSTANTS.get(name));
+
+    Integer slot = slots.get(name);
+    if (slot == null) {
+      final ToDoubleFunction<T> reader = context.getVariableReader(name);
+      if (reader == null) return null;
+      slot = readers.size();
+      readers.add(reader);
+      slots.put(name, slot);
+    }
+    return new VariableNode<>(slot);
+  }
+
+  private Node<T> operator(Operator operator, Deque<Node<T>> stack) {
+    if (operator.getNumOperands() == 1) {
+      final Node<T> operand = stack.pop();
+      final Node<T> node =
+          switch (operator.getSymbol()) {
+            case "-" -> new Negate<>(operand);
+            case "+" -> operand;
+            default -> new FunctionNode<>(operator::apply, List.of(operand));
+          };
+      return fold(node, List.of(operand));
+    }
+
+    final Node<T> right = stack.pop();
+    final Node<T> left = stack.pop();
+    final Node<T> node =
+        switch (operator.getSymbol()) {
+          case "+" -> new Add<>(left, right);
+          case "-" -> new Subtract<>(left, right);
+          case "*" -> new Multiply<>(left, right);
+          case "/" -> operator == DIVISION
+              ? new Divide<>(left, right)
+              : new FunctionNode<>(operator::apply, List.of(left, right));
+          case "%" -> operator == MODULO
+              ? new Modulo<>(left, right)
+              : new FunctionNode<>(operator::apply, List.of(left, right));
+          case "^" -> new Power<>(left, right);
+          default -> new FunctionNode<>(operator::apply, List.of(left, right));
+        };
+    return fold(node, List.of(left, right));
+  }
+
+  private @Nullable Node<T> function(Function function, int argc, Deque<Node<T>> stack) {
+    final List<Node<T>> args = new ArrayList<>(argc);
+    for (int i = 0; i < argc; i++) args.add(0, stack.pop());
+
+    final String name = function.getName();
+    if (context.getArrays().contains(name)) {
+      final Formula.IndexedReader<T> reader = context.getArrayReader(name);
+      return reader == null ? null : new ArrayNode<>(reader, args.get(0));
+    }
+
+    final Node<T> node = new FunctionNode<>(function::apply, args);
+    return function == Formula.RANDOM ? node : fold(node, args);
+  }
+
+  /** Evaluate a node up front if all its arguments are constant. */
+  private Node<T> fold(Node<T> node, List<Node<T>> args) {
+    for (Node<T> arg : args) {
+      if (!(arg instanceof Constant)) return node;
+    }
+    try {
+      return new Constant<>(node.evaluate(null, null));
+    } catch (ArithmeticException e) {
+      // Keep throwing on every evaluation, like exp4j does
+      return node;
+    }
+  }
+
+  private List<Token> tokenize() {
+    final List<Token> tokens = new ArrayList<>();
+    Token last = null;
+    int pos = 0;
+    while (pos < expression.length) {
+      final char ch = expression[pos];
+      if (Character.isWhitespace(ch)) {
+        pos++;
+        continue;
+      }
+
+      final Token token;
+      if (implicitMultiplication(last, ch)) {
+        token = Token.operator(Operators.getBuiltinOperator('*', 2));
+      } else if (Character.isDigit(ch) || ch == '.') {
+        int end = pos + 1;
+        while (end < expression.length && isNumeric(expression[end], expression[end - 1])) end++;
+        if (expression[end - 1] == 'e' || expression[end - 1] == 'E') end--;
+        token = Token.number(Double.parseDouble(new String(expression, pos, end - pos)));
+        pos = end;
+      } else if (ch == ',') {
+        token = new Token(Type.SEPARATOR);
+        pos++;
+      } else if (ch == '(' || ch == '[' || ch == '{') {
+        token = new Token(Type.OPEN);
+        pos++;
+      } else if (ch == ')' || ch == ']' || ch == '}') {
+        token = new Token(Type.CLOSE);
+        pos++;
+      } else if (Operator.isAllowedOperatorChar(ch)) {
+        token = Token.operator(Operators.getBuiltinOperator(ch, operands(last)));
+        if (token.operator == null) throw new IllegalArgumentException("Unknown operator " + ch);
+        pos++;
+      } else if (Character.isLetter(ch) || ch == '_') {
+        // The longest name that is a variable or function, like exp4j
+        Token named = null;
+        int length = 0;
+        for (int end = pos + 1; end <= expression.length; end++) {
+          if (!isNameChar(expression[end - 1])) break;
+          final String name = new String(expression, pos, end - pos);
+          final Function function = getFunction(name);
+          if (variables.contains(name) || CONSTANTS.containsKey(name)) {
+            named = Token.variable(name);
+            length = end - pos;
+          } else if (function != null) {
+            named = Token.function(function);
+            length = end - pos;
+          }
+        }
+        if (named == null) throw new IllegalArgumentException("Unknown name at " + pos);
+        token = named;
+        pos += length;
+      } else {
+        throw new IllegalArgumentException("Unable to parse char '" + ch + "' at " + pos);
+      }
+
+      tokens.add(token);
+      last = token;
+    }
+    return tokens;
+  }
+
+  private @Nullable Function getFunction(String name) {
+    final Function function = functions.get(name);
+    return function != null ? function : Functions.getBuiltinFunction(name);
+  }
+
+  private static boolean implicitMultiplication(@Nullable Token last, char next) {
+    if (last == null
+        || last.type == Type.OPERATOR
+        || last.type == Type.OPEN
+        || last.type == Type.FUNCTION
+        || last.type == Type.SEPARATOR) return false;
+    if (Character.isDigit(next) || next == '.') {
+      if (last.type == Type.NUMBER) throw new IllegalArgumentException("Consecutive numbers");
+      return true;
+    }
+    return next == '(' || next == '[' || next == '{' || Character.isLetter(next) || next == '_';
+  }
+
+  private static int operands(@Nullable Token last) {
+    if (last == null || last.type == Type.OPEN || last.type == Type.SEPARATOR) return 1;
+    if (last.type == Type.OPERATOR) {
+      final Operator operator = last.operator;
+      if (operator.getNumOperands() == 2
+          || (operator.getNumOperands() == 1 && !operator.isLeftAssociative())) return 1;
+    }
+    return 2;
+  }
+
+  private static boolean isNumeric(char ch, char previous) {
+    return Character.isDigit(ch)
+        || ch == '.'
+        || ch == 'e'
+        || ch == 'E'
+        || ((previous == 'e' || previous == 'E') && (ch == '-' || ch == '+'));
+  }
+
+  private static boolean isNameChar(char ch) {
+    return Character.isLetter(ch) || Character.isDigit(ch) || ch == '_' || ch == '.';
+  }
+
+  /** Order tokens in postfix notation with the shunting-yard algorithm, the same way exp4j does. */
+  private static List<Token> toPostfix(List<Token> tokens) {
+    final List<Token> output = new ArrayList<>(tokens.size());
+    final Deque<Token> stack = new ArrayDeque<>();
+    // Argument counts of the function calls that are open, innermost first
+    final Deque<int[]> calls = new ArrayDeque<>();
+
+    Token previous = null;
+    for (Token token : tokens) {
+      // A call has no arguments until something other than its closing parenthesis follows it
+      if (token.type != Type.CLOSE && previous != null && previous.call) calls.peek()[0] = 1;
+
+      switch (token.type) {
+        case NUMBER, VARIABLE -> output.add(token);
+        case FUNCTION -> stack.push(token);
+        case SEPARATOR -> {
+          while (!stack.isEmpty() && stack.peek().type != Type.OPEN) output.add(stack.pop());
+          if (stack.isEmpty() || calls.isEmpty()) throw new IllegalArgumentException("Misplaced ,");
+          calls.peek()[0]++;
+        }
+        case OPERATOR -> {
+          final Operator o1 = token.operator;
+          while (!stack.isEmpty() && stack.peek().type == Type.OPERATOR) {
+            final Operator o2 = stack.peek().operator;
+            if (o1.getNumOperands() == 1 && o2.getNumOperands() == 2) break;
+            if ((o1.isLeftAssociative() && o1.getPrecedence() <= o2.getPrecedence())
+                || o1.getPrecedence() < o2.getPrecedence()) output.add(stack.pop());
+            else break;
+          }
+          stack.push(token);
+        }
+        case OPEN -> {
+          if (previous != null && previous.type == Type.FUNCTION) {
+            token.call = true;
+            calls.push(new int[] {0});
+          }
+          stack.push(token);
+        }
+        case CLOSE -> {
+          while (stack.peek().type != Type.OPEN) output.add(stack.pop());
+          final Token open = stack.pop();
+          if (open.call) {
+            final Token function = stack.pop();
+            function.args = calls.pop()[0];
+            if (!function.function.isValidArgCount(function.args))
+              throw new IllegalArgumentException("Invalid argument count for " + function.name);
+            output.add(function);
+          }
+        }
+      }
+      previous = token;
+    }
+
+    while (!stack.isEmpty()) {
+      final Token token = stack.pop();
+      if (token.type == Type.OPEN || token.type == Type.CLOSE)
+        throw new IllegalArgumentException("Mismatched parentheses");
+      if (token.type == Type.FUNCTION) throw new IllegalArgumentException("Unclosed function");
+      output.add(token);
+    }
+    return output;
+  }
+
+  private enum Type {
+    NUMBER,
+    VARIABLE,
+    FUNCTION,
+    OPERATOR,
+    SEPARATOR,
+    OPEN,
+    CLOSE
+  }
+
+  private static final class Token {
+    private final Type type;
+    private double value;
+    private String name;
+    private Function function;
+    private Operator operator;
+    // For functions, the amount of arguments they are called with
+    private int args;
+    // For parentheses, if they open a function call
+    private boolean call;
+
+    private Token(Type type) {
+      this.type = type;
+    }
+
+    private static Token number(double value) {
+      final Token token = new Token(Type.NUMBER);
+      token.value = value;
+      return token;
+    }
+
+    private static Token variable(String name) {
+      final Token token = new Token(Type.VARIABLE);
+      token.name = name;
+      return token;
+    }
+
+    private static Token function(Function function) {
+      final Token token = new Token(Type.FUNCTION);
+      token.name = function.getName();
+      token.function = function;
+      return token;
+    }
+
+    private static Token operator(Operator operator) {
+      final Token token = new Token(Type.OPERATOR);
+      token.operator = operator;
+      return token;
+    }
+  }
+
+  private static final class CompiledFormula<T> implements Formula<T> {
+    private final Node<T> root;
+    private final ToDoubleFunction<T>[] readers;
+
+    @SuppressWarnings("unchecked")
+    private CompiledFormula(Node<T> root, List<ToDoubleFunction<T>> readers) {
+      this.root = root;
+      this.readers = readers.toArray(new ToDoubleFunction[0]);
+    }
+
+    @Override
+    public double applyAsDouble(T value) {
+      // Read every variable once up front, like exp4j caches them during an evaluation
+      final double[] variables = new double[readers.length];
+      for (int i = 0; i < readers.length; i++) variables[i] = readers[i].applyAsDouble(value);
+      return root.evaluate(value, variables);
+    }
+  }
+
+  private interface Node<T> {
+    /**
+     * Evaluate the node.
+     *
+     * @param value The value the formula is evaluated for
+     * @param variables The values of the variables the formula uses, by slot
+     */
+    double evaluate(T value, double[] variables);
+  }
+
+  private interface Evaluator {
+    double apply(double... args);
+  }
+
+  private static final class Constant<T> implements Node<T> {
+    private final double value;
+
+    private Constant(double value) {
+      this.value = value;
+    }
+
+    @Override
+    public double evaluate(T value, double[] variables) {
+      return this.value;
+    }
+  }
+
+  private static final class VariableNode<T> implements Node<T> {
+    private final int slot;
+
+    private VariableNode(int slot) {
+      this.slot = slot;
+    }
+
+    @Override
+    public double evaluate(T value, double[] variables) {
+      return variables[slot];
+    }
+  }
+
+  private static final class ArrayNode<T> implements Node<T> {
+    private final Formula.IndexedReader<T> reader;
+    private final Node<T> index;
+
+    private ArrayNode(Formula.IndexedReader<T> reader, Node<T> index) {
+      this.reader = reader;
+      this.index = index;
+    }
+
+    @Override
+    public double evaluate(T value, double[] variables) {
+      return reader.get(value, (int) index.evaluate(value, variables));
+    }
+  }
+
+  private static final class FunctionNode<T> implements Node<T> {
+    private final Evaluator function;
+    private final Node<T>[] args;
+
+    @SuppressWarnings("unchecked")
+    private FunctionNode(Evaluator function, List<Node<T>> args) {
+      this.function = function;
+      this.args = args.toArray(new Node[0]);
+    }
+
+    @Override
+    public double evaluate(T value, double[] variables) {
+      final double[] values = new double[args.length];
+      for (int i = 0; i < args.length; i++) values[i] = args[i].evaluate(value, variables);
+      return function.apply(values);
+    }
+  }
+
+  private static final class Negate<T> implements Node<T> {
+    private final Node<T> operand;
+
+    private Negate(Node<T> operand) {
+      this.operand = operand;
+    }
+
+    @Override
+    public double evaluate(T value, double[] variables) {
+      return -operand.evaluate(value, variables);
+    }
+  }
+
+  private abstract static class Binary<T> implements Node<T> {
+    protected final Node<T> left, right;
+
+    private Binary(Node<T> left, Node<T> right) {
+      this.left = left;
+      this.right = right;
+    }
+  }
+
+  private static final class Add<T> extends Binary<T> {
+    private Add(Node<T> left, Node<T> right) {
+      super(left, right);
+    }
+
+    @Override
+    public double evaluate(T value, double[] variables) {
+      return left.evaluate(value, variables) + right.evaluate(value, variables);
+    }
+  }
+
+  private static final class Subtract<T> extends Binary<T> {
+    private Subtract(Node<T> left, Node<T> right) {
+      super(left, right);
+    }
+
+    @Override
+    public double evaluate(T value, double[] variables) {
+      return left.evaluate(value, variables) - right.evaluate(value, variables);
+    }
+  }
+
+  private static final class Multiply<T> extends Binary<T> {
+    private Multiply(Node<T> left, Node<T> right) {
+      super(left, right);
+    }
+
+    @Override
+    public double evaluate(T value, double[] variables) {
+      return left.evaluate(value, variables) * right.evaluate(value, variables);
+    }
+  }
+
+  private static final class Divide<T> extends Binary<T> {
+    private Divide(Node<T> left, Node<T> right) {
+      super(left, right);
+    }
+
+    @Override
+    public double evaluate(T value, double[] variables) {
+      final double l = left.evaluate(value, variables), r = right.evaluate(value, variables);
+      // Division by zero is left to exp4j, which decides how to handle it
+      return r == 0d ? DIVISION.apply(l, r) : l / r;
+    }
+  }
+
+  private static final class Modulo<T> extends Binary<T> {
+    private Modulo(Node<T> left, Node<T> right) {
+      super(left, right);
+    }
+
+    @Override
+    public double evaluate(T value, double[] variables) {
+      final double l = left.evaluate(value, variables), r = right.evaluate(value, variables);
+      return r == 0d ? MODULO.apply(l, r) : l % r;
+    }
+  }
+
+  private static final class Power<T> extends Binary<T> {
+    private Power(Node<T> left, Node<T> right) {
+      super(left, right);
+    }
+
+    @Override
+    public double evaluate(T value, double[] variables) {
+      return Math.pow(left.evaluate(value, variables), right.evaluate(value, variables));
+    }
+  }
+}
@@ -39,6 +39,28 @@ public interface NMSHacks {
 
   List<Block> getBlocks(Chunk bukkitChunk, Material material);
 
+  /**
+   * Write many blocks of a single chunk at once, then update its lighting and resend it to viewers
+   * once.
+   *
+   * <p>Neighbouring blocks are not notified, so no physics are triggered around the written blocks.
+   * The remove hook of each replaced block and the place hook of each new block do still run, so
+   * for example a replaced container drops its contents. Sky and block light are updated for every
+   * position where the opacity or emitted light changed.
+   *
+   * @param positions indices of the blocks in the chunk, packed as {@code x | z << 4 | y << 8}
+   * @param materials the material to write at each position
+   * @param count the number of positions to write
+   */
+  void setBlocks(Chunk bukkitChunk, int[] positions, BlockMaterialData[] materials, int count);
+
+  /**
+   * Notify the neighbours of a block that it changed, running their physics like setting the block
+   * normally would. Used on the edges of an area written by {@link #setBlocks}, so for example
+   * liquids next to it start flowing and attached blocks pop off.
+   */
+  void updateNeighbours(Block block);
+
   void setSkullMetaOwner(SkullMeta meta, String name, UUID uuid, Skin skin);
 
   WorldCreator detectWorld(String worldName);
@@ -1,5 +1,6 @@
 package tc.oc.pgm.util.nms.packets;
 
+import net.kyori.adventure.text.Component;
 import org.bukkit.entity.Item;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
@@ -14,4 +15,15 @@ public interface PlayerPackets {
   void sendLegacyHelmet(Player player, ItemStack item);
 
   void updateVelocity(Player player);
+
+  /**
+   * Create a chat message packet, so a message rendered once can be sent to many players.
+   *
+   * <p>The message is serialized for the platform's client version, so colors are only downsampled
+   * where the client can't show RGB.
+   *
+   * @param message The rendered message, already translated for its viewers
+   * @param system If the message is a system message, rather than chat from a player
+   */
+  Packet chatMessage(Component message, boolean system);
 }
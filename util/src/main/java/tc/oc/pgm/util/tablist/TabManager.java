@@ -1,7 +1,7 @@
 package tc.oc.pgm.util.tablist;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -52,6 +52,9 @@ public abstract class TabManager implements Listener {
 
   protected TabManagerDirtyTracker dirty;
 
+  // Packets sent since the start of the current partial render
+  private int renderedPackets;
+
   public TabManager(
       Plugin plugin,
       @Nullable Function<Player, ? extends TabView> viewProvider,
@@ -130,32 +133,47 @@ public abstract class TabManager implements Listener {
   }
 
   /**
-   * Re-render up to N tab views, randomly picked
+   * Re-render up to N tab views, the ones that have been dirty for the longest first
    *
    * @param batchSize Amount of views to render, at most
    */
   public void partialRender(int batchSize) {
+    this.partialRender(batchSize, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Re-render up to N tab views, the ones that have been dirty for the longest first, until the
+   * packet budget is spent. At least one view is always rendered, so no view can starve.
+   *
+   * @param batchSize Amount of views to render, at most
+   * @param packetBudget Amount of packets to send, after which no more views are rendered
+   */
+  public void partialRender(int batchSize, int packetBudget) {
     if (this.dirty.isDirty()) {
       List<TabView> dirtyViews = new ArrayList<>(this.enabledViews.size());
       for (TabView view : this.enabledViews.values()) {
         if (view != null && view.getDirtyTracker().isDirty()) dirtyViews.add(view);
       }
+      dirtyViews.sort(Comparator.comparingLong(view -> view.getDirtyTracker().getDirtySince()));
 
-      boolean partial = dirtyViews.size() >= batchSize;
-      if (partial) {
-        Collections.shuffle(dirtyViews);
-        dirtyViews = dirtyViews.subList(0, batchSize);
-      }
-
+      this.renderedPackets = 0;
+      int rendered = 0;
       for (TabView view : dirtyViews) {
+        if (rendered >= batchSize || (rendered > 0 && this.renderedPackets >= packetBudget)) break;
         view.render();
+        rendered++;
       }
 
       // Finally done rendering
-      if (!partial) this.dirty.validate();
+      if (rendered == dirtyViews.size()) this.dirty.validate();
     }
   }
 
+  /** Called by {@link TabRender} with the amount of packets it sent */
+  void countPackets(int packets) {
+    this.renderedPackets += packets;
+  }
+
   /** Re-render header & footer for all views */
   public void renderHeaderFooter() {
     if (this.dirty.isHeaderOrFooter()) {
@@ -23,6 +23,7 @@ public class TabRender {
   private final TabPackets.PlayerInfo updatePacket;
   private final TabPackets.PlayerInfo updatePingPacket;
   private final List<Packet> deferredPackets;
+  private int packets;
 
   public TabRender(TabView view) {
     this.view = view;
@@ -41,6 +42,7 @@ public class TabRender {
 
   private void send(Packet packet) {
     packet.send(this.view.getViewer());
+    this.packets++;
   }
 
   private String getJson(TabEntry entry) {
@@ -59,6 +61,7 @@ public class TabRender {
     // Due to a client bug, display name is ignored in ADD_PLAYER packets,
     // so we have to send an UPDATE_DISPLAY_NAME afterward.
     this.updatePacket.addPlayerInfo(entry.getId(), renderedDisplayName);
+    this.view.updateRenderedContent(index, renderedDisplayName);
 
     this.updateFakeEntity(entry, true);
   }
@@ -91,6 +94,8 @@ public class TabRender {
     for (Packet packet : this.deferredPackets) {
       this.send(packet);
     }
+
+    if (this.view.manager != null) this.view.manager.countPackets(this.packets);
   }
 
   public void changeSlot(TabEntry entry, int oldIndex, int newIndex) {
@@ -108,6 +113,7 @@ public class TabRender {
   public void destroySlot(TabEntry entry, int index) {
     this.send(TAB_PACKETS.teamRemovePacket(this.teamName(index)));
     this.appendRemoval(entry);
+    this.view.updateRenderedContent(index, null);
   }
 
   public void addEntry(TabEntry entry, int index) {
@@ -126,7 +132,11 @@ public class TabRender {
   }
 
   public void updateEntry(TabEntry entry, int index) {
-    this.updatePacket.addPlayerInfo(entry.getId(), this.getJson(entry));
+    String renderedDisplayName = this.getJson(entry);
+    // Entries are often invalidated without their content actually changing for this viewer
+    if (this.view.updateRenderedContent(index, renderedDisplayName)) {
+      this.updatePacket.addPlayerInfo(entry.getId(), renderedDisplayName);
+    }
   }
 
   public void updatePing(TabEntry entry, int index) {
@@ -135,6 +145,7 @@ public class TabRender {
 
   public void setHeaderFooter(Component header, Component footer) {
     Audience.get(view.getViewer()).sendPlayerListHeaderAndFooter(header, footer);
+    this.packets++;
   }
 
   public void updateFakeEntity(TabEntry entry, boolean create) {
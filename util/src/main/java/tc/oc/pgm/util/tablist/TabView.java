@@ -3,6 +3,7 @@ package tc.oc.pgm.util.tablist;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import net.kyori.adventure.text.Component;
 import org.bukkit.entity.Player;
 import org.bukkit.event.player.PlayerChangedWorldEvent;
@@ -32,6 +33,8 @@ public class TabView {
   // True when any slots/header/footer have been changed but not rendered
   protected final TabViewDirtyTracker dirtyTracker;
   private final TabEntry[] slots, rendered;
+  // The display name last sent to the viewer for the entry in each slot
+  private final String[] renderedContent;
   private Component header, footer;
 
   // Only used for legacy players, initialized on enable
@@ -48,6 +51,7 @@ public class TabView {
     // Two extra slots for header/footer
     this.slots = new TabEntry[this.size + 2];
     this.rendered = new TabEntry[this.size + 2];
+    this.renderedContent = new String[this.size];
   }
 
   private void assertEnabled() {
@@ -159,6 +163,19 @@ public class TabView {
     return x * HEIGHT + y;
   }
 
+  /**
+   * Record the display name sent for the entry in a slot.
+   *
+   * @return If the display name is different from the one last sent for the slot
+   */
+  boolean updateRenderedContent(int slot, @Nullable String content) {
+    if (slot < 0 || slot >= this.size || Objects.equals(this.renderedContent[slot], content)) {
+      return false;
+    }
+    this.renderedContent[slot] = content;
+    return true;
+  }
+
   public void render() {
     if (this.manager == null) return;
 
@@ -223,6 +240,9 @@ public class TabView {
       Map<TabEntry, Integer> removals = new HashMap<>();
       Map<TabEntry, Integer> additions = new HashMap<>();
 
+      // Moved entries keep the display name the viewer already has for them
+      String[] oldContent = this.renderedContent.clone();
+
       for (int index = 0; index < this.size; index++) {
         TabEntry oldEntry = this.rendered[index];
         TabEntry newEntry = this.rendered[index] = this.slots[index];
@@ -237,6 +257,7 @@ public class TabView {
           } else {
             // We already saw the new entry removed from another slot, so it's actually being moved
             render.changeSlot(newEntry, oldIndex, index);
+            this.renderedContent[index] = oldContent[oldIndex];
           }
 
           Integer newIndex = additions.remove(oldEntry);
@@ -246,6 +267,7 @@ public class TabView {
           } else {
             // We already saw the old entry added to another slot, so it's actually being moved
             render.changeSlot(oldEntry, index, newIndex);
+            this.renderedContent[newIndex] = oldContent[index];
           }
         }
       }
@@ -9,15 +9,23 @@ public class TabViewDirtyTracker {
   // Should this view be prioritized?
   private boolean priority;
 
+  // When the view last went from clean to dirty, in nanoseconds
+  private long dirtySince;
+
   private TabManagerDirtyTracker parent;
 
   private void propagate() {
     if (parent != null) parent.update(this);
   }
 
+  private void markDirty() {
+    if (!isDirty()) dirtySince = System.nanoTime();
+  }
+
   public void enable(TabManagerDirtyTracker parent) {
     this.parent = parent;
     // Invalidate everything
+    this.markDirty();
     layout = content = header = footer = true;
     this.priority = true;
     this.propagate();
@@ -31,6 +39,11 @@ public class TabViewDirtyTracker {
     return priority;
   }
 
+  /** Get the {@link System#nanoTime()} at which the view last became dirty. */
+  public long getDirtySince() {
+    return dirtySince;
+  }
+
   public boolean isLayout() {
     return layout;
   }
@@ -57,6 +70,7 @@ public class TabViewDirtyTracker {
 
   public void invalidateLayout() {
     if (!this.layout) {
+      this.markDirty();
       this.layout = true;
       this.propagate();
     }
@@ -64,6 +78,7 @@ public class TabViewDirtyTracker {
 
   public void invalidateContent() {
     if (!this.content) {
+      this.markDirty();
       this.content = true;
       this.propagate();
     }
@@ -71,6 +86,7 @@ public class TabViewDirtyTracker {
 
   public void invalidateLayoutAndContent() {
     if (!layout || !content) {
+      this.markDirty();
       layout = content = true;
       this.propagate();
     }
@@ -78,6 +94,7 @@ public class TabViewDirtyTracker {
 
   public void invalidateHeader() {
     if (!this.header) {
+      this.markDirty();
       this.header = true;
       this.propagate();
     }
@@ -85,6 +102,7 @@ public class TabViewDirtyTracker {
 
   public void invalidateFooter() {
     if (!this.footer) {
+      this.markDirty();
       this.footer = true;
       this.propagate();
     }
@@ -0,0 +1,143 @@
+package tc.oc.pgm.util.text;
+
+import static tc.oc.pgm.util.nms.Packets.PLAYERS;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import net.kyori.adventure.identity.Identity;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TranslatableComponent;
+import net.kyori.adventure.text.TranslationArgument;
+import net.kyori.adventure.text.event.HoverEvent;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
+import tc.oc.pgm.util.Audience;
+import tc.oc.pgm.util.nms.packets.Packet;
+
+/**
+ * Sends a message to many viewers, rendering it once for each group of viewers that would see the
+ * same thing, instead of once per viewer.
+ *
+ * <p>Viewers are grouped by locale and by the render key of each renderable component in the
+ * message, see {@link RenderableComponent#getRenderKey(CommandSender)}. Each group is translated
+ * once, and the resulting packet is sent to everyone in it. The platform serializes the packet for
+ * its client version, so RGB colors are kept wherever they are supported.
+ *
+ * <p>Broadcasts may be sent from any thread, so the statistics of how many renders were saved are
+ * kept in atomic counters.
+ */
+public final class BroadcastRenderer {
+
+  private static final AtomicLong BROADCASTS = new AtomicLong();
+  private static final AtomicLong VIEWERS = new AtomicLong();
+  private static final AtomicLong RENDERS = new AtomicLong();
+
+  private BroadcastRenderer() {}
+
+  /**
+   * Send a system message to viewers.
+   *
+   * @param viewers The viewers to send the message to
+   * @param message The message
+   */
+  public static void broadcast(Iterable<? extends CommandSender> viewers, Component message) {
+    broadcast(viewers, null, message);
+  }
+
+  /**
+   * Send a message to viewers.
+   *
+   * @param viewers The viewers to send the message to
+   * @param source The player who sent the message, or null if it is a system message
+   * @param message The message
+   */
+  public static void broadcast(
+      Iterable<? extends CommandSender> viewers, @Nullable Identity source, Component message) {
+    final List<RenderableComponent> renderables = new ArrayList<>();
+    collectRenderables(message, renderables);
+
+    final Map<List<Object>, List<Player>> groups = new LinkedHashMap<>();
+    for (CommandSender viewer : viewers) {
+      if (!(viewer instanceof Player)) {
+        final Audience audience = Audience.get(viewer);
+        if (source == null) audience.sendMessage(message);
+        else audience.sendMessage(source, message);
+        continue;
+      }
+
+      final Object[] key = new Object[renderables.size() + 1];
+      key[0] = TextTranslations.getLocale(Audience.get(viewer));
+      for (int i = 0; i < renderables.size(); i++) {
+        key[i + 1] = renderables.get(i).getRenderKey(viewer);
+      }
+      groups.computeIfAbsent(Arrays.asList(key), k -> new ArrayList<>()).add((Player) viewer);
+    }
+
+    long viewerCount = 0;
+    for (List<Player> group : groups.values()) {
+      final Component rendered = TextTranslations.translate(message, Audience.get(group.get(0)));
+      final Packet packet = PLAYERS.chatMessage(rendered, source == null);
+      for (Player player : group) {
+        packet.send(player);
+      }
+      viewerCount += group.size();
+    }
+
+    BROADCASTS.incrementAndGet();
+    VIEWERS.addAndGet(viewerCount);
+    RENDERS.addAndGet(groups.size());
+  }
+
+  private static void collectRenderables(Component component, List<RenderableComponent> into) {
+    if (component instanceof RenderableComponent) {
+      into.add((RenderableComponent) component);
+    }
+
+    if (component instanceof TranslatableComponent) {
+      for (TranslationArgument arg : ((TranslatableComponent) component).arguments()) {
+        if (arg.value() instanceof Component) collectRenderables((Component) arg.value(), into);
+      }
+    }
+
+    final HoverEvent<?> hover = component.hoverEvent();
+    if (hover != null && hover.value() instanceof Component) {
+      collectRenderables((Component) hover.value(), into);
+    }
+
+    for (Component child : component.children()) {
+      collectRenderables(child, into);
+    }
+  }
+
+  /** Get how many messages were broadcast. */
+  public static long getBroadcasts() {
+    return BROADCASTS.get();
+  }
+
+  /** Get how many players messages were broadcast to. */
+  public static long getViewers() {
+    return VIEWERS.get();
+  }
+
+  /** Get how many times messages were rendered and serialized, once for each group of players. */
+  public static long getRenders() {
+    return RENDERS.get();
+  }
+
+  /** Get how many renders were saved, compared to rendering once for each player. */
+  public static long getRendersSaved() {
+    return VIEWERS.get() - RENDERS.get();
+  }
+
+  /** Reset the broadcast statistics. */
+  public static void resetStatistics() {
+    BROADCASTS.set(0);
+    VIEWERS.set(0);
+    RENDERS.set(0);
+  }
+}
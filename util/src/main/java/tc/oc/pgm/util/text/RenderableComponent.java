@@ -14,6 +14,17 @@ public interface RenderableComponent extends ScopedComponent<RenderableComponent
 
   Component render(CommandSender viewer);
 
+  /**
+   * Get what the rendering of this component depends on for a viewer. Viewers with equal keys, and
+   * the same locale, are assumed to see the same rendering.
+   *
+   * @param viewer The viewer that will see the component
+   * @return A key with a meaningful equals and hashCode, the viewer itself by default
+   */
+  default Object getRenderKey(CommandSender viewer) {
+    return viewer;
+  }
+
   @Override
   default @NotNull RenderableComponent children(@NotNull List<? extends ComponentLike> children) {
     return this;
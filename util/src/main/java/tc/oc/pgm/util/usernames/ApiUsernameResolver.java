@@ -4,33 +4,58 @@ import static tc.oc.pgm.util.Assert.assertNotNull;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
 import java.net.NoRouteToHostException;
-import java.net.URL;
+import java.net.URI;
 import java.net.UnknownHostException;
-import java.nio.charset.StandardCharsets;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Nullable;
 import tc.oc.pgm.util.bukkit.BukkitUtils;
+import tc.oc.pgm.util.concurrent.TokenBucket;
 
 /**
  * Utility to resolve Minecraft usernames from an external API.
  *
+ * <p>Requests are sent concurrently, with at most a few of them in flight and a limited rate of
+ * them per second. If the API answers that there are too many requests, every request is paused
+ * and the rate limited one is retried. Resolved names can be cached on disk, so they are not
+ * requested again after a restart until they expire.
+ *
  * @link https://github.com/Electroid/mojang-api
  */
 public final class ApiUsernameResolver extends AbstractBatchingUsernameResolver {
   private static final Gson GSON = new Gson();
+  private static final URI DEFAULT_ENDPOINT = URI.create("https://api.ashcon.app/mojang/v2/user/");
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
   private static final int MAX_SEQUENTIAL_FAILURES = 5;
+  private static final int MAX_IN_FLIGHT = 8;
+  private static final double REQUESTS_PER_SECOND = 20;
+  // When rate limited, requests are retried a few times after the delay the API asks for, or else
+  // after an exponential backoff
+  private static final int MAX_RETRIES = 3;
+  private static final Duration BASE_BACKOFF = Duration.ofSeconds(1);
+  private static final Duration MAX_BACKOFF = Duration.ofMinutes(1);
   private static String userAgent = "PGM";
 
   static {
@@ -44,49 +69,108 @@ public final class ApiUsernameResolver extends AbstractBatchingUsernameResolver
     }
   }
 
+  private final URI endpoint;
+  private final @Nullable UsernameCache cache;
+  private final Semaphore inFlight;
+  private final TokenBucket rateLimit;
+  private final HttpClient client;
+  // Until when no request should be sent, after the API asked to slow down
+  private volatile long pausedUntil = System.nanoTime();
+
+  public ApiUsernameResolver() {
+    this(null);
+  }
+
+  /** @param cacheFile A file to cache resolved usernames in, or null to not cache them */
+  public ApiUsernameResolver(@Nullable Path cacheFile) {
+    this(DEFAULT_ENDPOINT, cacheFile, MAX_IN_FLIGHT, REQUESTS_PER_SECOND);
+  }
+
+  /**
+   * @param endpoint The URI that a player's UUID is appended to, to request their username
+   * @param cacheFile A file to cache resolved usernames in, or null to not cache them
+   * @param maxInFlight How many requests can be waiting for a response at once
+   * @param requestsPerSecond How many requests can be sent per second
+   */
+  public ApiUsernameResolver(
+      URI endpoint, @Nullable Path cacheFile, int maxInFlight, double requestsPerSecond) {
+    this.endpoint = assertNotNull(endpoint);
+    this.cache = cacheFile == null ? null : new UsernameCache(cacheFile);
+    this.inFlight = new Semaphore(maxInFlight);
+    this.rateLimit = new TokenBucket(Math.max(1, requestsPerSecond), requestsPerSecond);
+    this.client = HttpClient.newBuilder()
+        .connectTimeout(TIMEOUT)
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build();
+  }
+
   @Override
   protected void process(UUID uuid, CompletableFuture<UsernameResponse> future) {
-    String name = null;
-    try {
-      name = resolveSync(uuid);
-    } catch (Throwable t) {
-      Bukkit.getLogger().log(Level.WARNING, "Could not resolve username for " + uuid, t);
-    } finally {
-      future.complete(UsernameResponse.of(name, ApiUsernameResolver.class));
+    final UsernameResponse cached = getCached(uuid);
+    if (cached != null) {
+      future.complete(cached);
+      return;
     }
+
+    request(uuid).whenComplete((name, t) -> {
+      if (t != null) {
+        Bukkit.getLogger().log(Level.WARNING, "Could not resolve username for " + uuid, unwrap(t));
+      }
+      final UsernameResponse response = UsernameResponse.of(name, ApiUsernameResolver.class);
+      if (cache != null) {
+        cache.put(uuid, response);
+        cache.saveLater();
+      }
+      future.complete(response);
+    });
   }
 
   @Override
   protected void process(List<UUID> uuids) {
-    final Map<UUID, Throwable> errors = new LinkedHashMap<>();
+    final Map<UUID, Throwable> errors = new ConcurrentHashMap<>();
+    final List<CompletableFuture<?>> requests = new ArrayList<>(uuids.size());
 
-    Instant now = Instant.now();
+    final Instant now = Instant.now();
 
-    int fails = 0;
-    boolean stopped = false;
+    final AtomicInteger fails = new AtomicInteger();
+    final AtomicBoolean stopped = new AtomicBoolean();
     for (UUID id : uuids) {
+      final UsernameResponse cached = getCached(id);
+      if (cached != null) {
+        complete(id, cached);
+        continue;
+      }
+
       // Even if there's an issue, we need to complete the futures.
-      if (stopped) {
+      if (stopped.get()) {
         complete(id, UsernameResponse.empty());
         continue;
       }
 
-      String name = null;
-      try {
-        name = resolveSync(id);
-        fails = 0;
-      } catch (Throwable t) {
-        errors.put(id, t);
-        if (++fails > MAX_SEQUENTIAL_FAILURES
-            || t instanceof UnknownHostException
-            || t instanceof NoRouteToHostException) {
-          stopped = true;
+      requests.add(request(id).whenComplete((name, t) -> {
+        if (t == null) {
+          fails.set(0);
+        } else {
+          final Throwable cause = unwrap(t);
+          errors.put(id, cause);
+          if (fails.incrementAndGet() > MAX_SEQUENTIAL_FAILURES
+              || cause instanceof UnknownHostException
+              || cause instanceof NoRouteToHostException) {
+            stopped.set(true);
+          }
         }
-      } finally {
-        complete(id, UsernameResponse.of(name, now, ApiUsernameResolver.class));
-      }
+
+        final UsernameResponse response = UsernameResponse.of(name, now, ApiUsernameResolver.class);
+        if (cache != null) cache.put(id, response);
+        complete(id, response);
+      }));
     }
 
+    CompletableFuture.allOf(requests.toArray(new CompletableFuture[0]))
+        .handle((v, t) -> null)
+        .join();
+    if (cache != null) cache.save();
+
     if (!errors.isEmpty()) {
       Bukkit.getLogger()
           .log(
@@ -96,20 +180,88 @@ public final class ApiUsernameResolver extends AbstractBatchingUsernameResolver
     }
   }
 
-  private static String resolveSync(UUID id) throws IOException {
-    final HttpURLConnection url =
-        (HttpURLConnection)
-            new URL("https://api.ashcon.app/mojang/v2/user/" + assertNotNull(id)).openConnection();
-    url.setRequestMethod("GET");
-    url.setRequestProperty("User-Agent", userAgent);
-    url.setRequestProperty("Accept", "application/json");
-    url.setInstanceFollowRedirects(true);
-    url.setConnectTimeout(10000);
-    url.setReadTimeout(10000);
-
-    try (final BufferedReader br =
-        new BufferedReader(new InputStreamReader(url.getInputStream(), StandardCharsets.UTF_8))) {
-      return GSON.fromJson(br, JsonObject.class).get("username").getAsString();
+  private @Nullable UsernameResponse getCached(UUID uuid) {
+    return cache == null ? null : cache.get(uuid, ApiUsernameResolver.class);
+  }
+
+  /**
+   * Request the username of a player, waiting until the request can be sent.
+   *
+   * @return A future of the username, or null if the player does not exist
+   */
+  private CompletableFuture<String> request(UUID id) {
+    return request(id, 0);
+  }
+
+  private CompletableFuture<String> request(UUID id, int retries) {
+    try {
+      inFlight.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return CompletableFuture.failedFuture(e);
+    }
+
+    try {
+      final long pause = pausedUntil - System.nanoTime();
+      if (pause > 0) TimeUnit.NANOSECONDS.sleep(pause);
+      rateLimit.acquire();
+    } catch (InterruptedException e) {
+      inFlight.release();
+      Thread.currentThread().interrupt();
+      return CompletableFuture.failedFuture(e);
+    }
+
+    final URI uri = endpoint.resolve(assertNotNull(id).toString());
+    final HttpRequest request = HttpRequest.newBuilder(uri)
+        .timeout(TIMEOUT)
+        .header("User-Agent", userAgent)
+        .header("Accept", "application/json")
+        .GET()
+        .build();
+
+    return client
+        .sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        .whenComplete((response, t) -> inFlight.release())
+        .thenCompose(response -> {
+          if (response.statusCode() != 429 || retries >= MAX_RETRIES) {
+            return CompletableFuture.completedFuture(parse(response));
+          }
+
+          final Duration delay = getBackoff(response, retries);
+          pausedUntil = Math.max(pausedUntil, System.nanoTime() + delay.toNanos());
+          final Executor later = CompletableFuture.delayedExecutor(
+              delay.toMillis(), TimeUnit.MILLISECONDS, getExecutor());
+          return CompletableFuture.supplyAsync(() -> request(id, retries + 1), later)
+              .thenCompose(next -> next);
+        });
+  }
+
+  /** Get how long to wait before retrying a rate limited request. */
+  private static Duration getBackoff(HttpResponse<?> response, int retries) {
+    final Optional<String> retryAfter = response.headers().firstValue("Retry-After");
+    if (retryAfter.isPresent()) {
+      try {
+        final long seconds = Long.parseLong(retryAfter.get().trim());
+        return Duration.ofSeconds(Math.max(0, Math.min(seconds, MAX_BACKOFF.getSeconds())));
+      } catch (NumberFormatException e) {
+        // No-op, the delay may also be given as a date, so use the default backoff
+      }
+    }
+
+    final Duration backoff = BASE_BACKOFF.multipliedBy(1L << retries);
+    return backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff;
+  }
+
+  private static @Nullable String parse(HttpResponse<String> response) {
+    if (response.statusCode() == 404) return null;
+    if (response.statusCode() != 200) {
+      throw new CompletionException(
+          new IOException("Unexpected response code " + response.statusCode()));
     }
+    return GSON.fromJson(response.body(), JsonObject.class).get("username").getAsString();
+  }
+
+  private static Throwable unwrap(Throwable t) {
+    return t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
   }
 }
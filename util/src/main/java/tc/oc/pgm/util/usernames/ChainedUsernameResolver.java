@@ -1,18 +1,25 @@
 package tc.oc.pgm.util.usernames;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import org.jetbrains.annotations.Nullable;
 
 public class ChainedUsernameResolver implements UsernameResolver {
 
   private final UsernameResolver[] resolvers;
 
+  // For each resolver after the first, futures that complete once a uuid of the current batch was
+  // either resolved by a previous resolver or queued in that resolver's batch
+  private @Nullable List<List<CompletableFuture<?>>> handoffs;
+
   public ChainedUsernameResolver(UsernameResolver[] resolvers) {
     this.resolvers = resolvers;
   }
 
   @Override
-  public CompletableFuture<UsernameResolver.UsernameResponse> resolve(UUID uuid) {
+  public synchronized CompletableFuture<UsernameResolver.UsernameResponse> resolve(UUID uuid) {
     CompletableFuture<UsernameResolver.UsernameResponse> future = resolvers[0].resolve(uuid);
 
     // Future completed sync (or very fast), avoid composing & return sync if we have a good answer
@@ -22,39 +29,44 @@ public class ChainedUsernameResolver implements UsernameResolver {
 
     for (int i = 1; i < resolvers.length; i++) {
       UsernameResolver nextResolver = resolvers[i];
-      future =
-          future.thenCompose(
-              first -> {
-                if (first.isAcceptable()) return CompletableFuture.completedFuture(first);
-                return nextResolver.resolve(uuid).thenApply(second -> combine(first, second));
-              });
+      CompletableFuture<CompletableFuture<UsernameResponse>> handoff = future.thenApply(first -> {
+        if (first.isAcceptable()) return CompletableFuture.completedFuture(first);
+        return nextResolver.resolve(uuid).thenApply(second -> combine(first, second));
+      });
+      if (handoffs != null) handoffs.get(i - 1).add(handoff);
+      future = handoff.thenCompose(next -> next);
     }
     return future;
   }
 
   @Override
-  public void startBatch() {
+  public synchronized void startBatch() {
+    if (handoffs == null) {
+      handoffs = new ArrayList<>(resolvers.length - 1);
+      for (int i = 1; i < resolvers.length; i++) {
+        handoffs.add(new ArrayList<>());
+      }
+    }
+
     for (UsernameResolver resolver : resolvers) {
       resolver.startBatch();
     }
   }
 
   @Override
-  public CompletableFuture<Void> endBatch() {
+  public synchronized CompletableFuture<Void> endBatch() {
+    final List<List<CompletableFuture<?>>> batch = handoffs;
+    handoffs = null;
+
     CompletableFuture<Void> future = resolvers[0].endBatch();
     for (int i = 1; i < resolvers.length; i++) {
       UsernameResolver resolver = resolvers[i];
-      future =
-          future
-              .thenRunAsync(
-                  () -> {
-                    // Delay ensures composed futures had time to queue for next resolver
-                    try {
-                      Thread.sleep(100);
-                    } catch (InterruptedException ignored) {
-                    }
-                  })
-              .thenCompose(ignore -> resolver.endBatch());
+      if (batch != null) {
+        // Wait until every uuid the previous resolvers could not resolve is queued for this one
+        CompletableFuture<?>[] queued = batch.get(i - 1).toArray(new CompletableFuture[0]);
+        future = future.thenCompose(ignore -> CompletableFuture.allOf(queued));
+      }
+      future = future.handle((v, t) -> null).thenCompose(ignore -> resolver.endBatch());
     }
     return future;
   }
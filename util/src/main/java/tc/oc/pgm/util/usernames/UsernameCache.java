@@ -0,0 +1,128 @@
+package tc.oc.pgm.util.usernames;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An on-disk cache of resolved usernames, so they survive restarts. An entry is kept until the
+ * response it came from is no longer valid.
+ */
+final class UsernameCache {
+  private static final Gson GSON = new Gson();
+  // Names resolved one at a time are saved together, at most once per this delay
+  private static final long SAVE_DELAY_SECONDS = 30;
+
+  private final Path file;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private volatile boolean loaded, dirty;
+  private final AtomicBoolean saveScheduled = new AtomicBoolean();
+
+  UsernameCache(Path file) {
+    this.file = file;
+  }
+
+  /** Get the cached response for a player, or null if there is no valid one. */
+  @Nullable
+  UsernameResolver.UsernameResponse get(UUID uuid, Class<?> source) {
+    load();
+
+    final Entry entry = entries.get(uuid.toString());
+    if (entry == null) return null;
+
+    final Instant validUntil = Instant.ofEpochMilli(entry.validUntil);
+    if (!validUntil.isAfter(Instant.now())) return null;
+    return UsernameResolver.UsernameResponse.of(
+        entry.name, Instant.ofEpochMilli(entry.validAt), validUntil, source);
+  }
+
+  void put(UUID uuid, UsernameResolver.UsernameResponse response) {
+    if (response.getUsername() == null) return;
+    load();
+
+    final Instant validAt = response.getValidAt();
+    entries.put(
+        uuid.toString(),
+        new Entry(
+            response.getUsername(),
+            validAt != null ? validAt.toEpochMilli() : System.currentTimeMillis(),
+            response.getValidUntil().toEpochMilli()));
+    dirty = true;
+  }
+
+  /** Write the cache to disk after a delay, along with anything else changed in the meantime. */
+  void saveLater() {
+    if (!saveScheduled.compareAndSet(false, true)) return;
+    CompletableFuture.delayedExecutor(SAVE_DELAY_SECONDS, TimeUnit.SECONDS).execute(() -> {
+      saveScheduled.set(false);
+      save();
+    });
+  }
+
+  /** Write the cache to disk, if anything changed, dropping entries that are no longer valid. */
+  synchronized void save() {
+    if (!loaded || !dirty) return;
+    dirty = false;
+
+    final long now = System.currentTimeMillis();
+    entries.values().removeIf(entry -> entry.validUntil <= now);
+
+    final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+        GSON.toJson(entries, writer);
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      Bukkit.getLogger().log(Level.WARNING, "Unable to save username cache to " + file, e);
+    }
+  }
+
+  private synchronized void load() {
+    if (loaded) return;
+    loaded = true;
+    if (!Files.isRegularFile(file)) return;
+
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      Map<String, Entry> read =
+          GSON.fromJson(reader, new TypeToken<Map<String, Entry>>() {}.getType());
+      if (read != null) entries.putAll(read);
+    } catch (IOException | JsonParseException e) {
+      Bukkit.getLogger()
+          .log(Level.WARNING, "Unable to read username cache from " + file + ", discarding it", e);
+    }
+  }
+
+  private static class Entry {
+    String name;
+    long validAt;
+    long validUntil;
+
+    // For deserialization
+    private Entry() {}
+
+    private Entry(String name, long validAt, long validUntil) {
+      this.name = name;
+      this.validAt = validAt;
+      this.validUntil = validUntil;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package tc.oc.pgm.util.block;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.util.BlockVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares choosing random blocks from a {@link BlockVectorSet}, which walks its hash set, with an
+ * {@link IndexedBlockVectorSet}, which reads its dense array. Also measures the cost the index adds
+ * to adding and removing blocks, as renewables do when blocks are broken and renewed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexedBlockVectorSetBenchmark {
+
+  @Param({"10000", "100000", "1000000"})
+  private int size;
+
+  private final Random random = new Random(0);
+  private BlockVectorSet hashed;
+  private IndexedBlockVectorSet indexed;
+  private int next;
+
+  @Setup
+  public void setup() {
+    hashed = new BlockVectorSet(size);
+    indexed = new IndexedBlockVectorSet(size);
+    for (int i = 0; i < size; i++) {
+      hashed.add(i % 256, i / 256 % 256, i / 65536);
+      indexed.add(i % 256, i / 256 % 256, i / 65536);
+    }
+    next = size;
+  }
+
+  @Benchmark
+  public BlockVector chooseRandomHashed() {
+    return hashed.chooseRandom(random);
+  }
+
+  @Benchmark
+  public BlockVector chooseRandomIndexed() {
+    return indexed.chooseRandom(random);
+  }
+
+  @Benchmark
+  public boolean addRemoveHashed() {
+    final int i = next++;
+    final int x = i % 256, y = i / 256 % 256, z = i / 65536;
+    return hashed.add(x, y, z) & hashed.remove(x, y, z);
+  }
+
+  @Benchmark
+  public boolean addRemoveIndexed() {
+    final int i = next++;
+    final int x = i % 256, y = i / 256 % 256, z = i / 65536;
+    return indexed.add(x, y, z) & indexed.remove(x, y, z);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+            .include(IndexedBlockVectorSetBenchmark.class.getSimpleName())
+            .build())
+        .run();
+  }
+}
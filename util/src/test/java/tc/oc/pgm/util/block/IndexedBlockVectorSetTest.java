@@ -0,0 +1,70 @@
+package tc.oc.pgm.util.block;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+import org.bukkit.util.BlockVector;
+import org.junit.jupiter.api.Test;
+
+public final class IndexedBlockVectorSetTest {
+
+  @Test
+  public void testAddRemoveContains() {
+    IndexedBlockVectorSet set = new IndexedBlockVectorSet();
+
+    assertTrue(set.add(1, 2, 3));
+    assertTrue(set.add(-4, 5, -6));
+    assertTrue(set.add(7, 8, 9));
+    assertFalse(set.add(1, 2, 3));
+    assertEquals(3, set.size());
+
+    assertTrue(set.remove(1, 2, 3));
+    assertFalse(set.remove(1, 2, 3));
+    assertFalse(set.contains(1, 2, 3));
+    assertTrue(set.contains(-4, 5, -6));
+    assertTrue(set.contains(new BlockVector(7, 8, 9)));
+    assertEquals(2, set.size());
+
+    set.clear();
+    assertTrue(set.isEmpty());
+    assertFalse(set.contains(7, 8, 9));
+  }
+
+  @Test
+  public void testIteratorRemove() {
+    IndexedBlockVectorSet set = new IndexedBlockVectorSet();
+    for (int i = 0; i < 100; i++) set.add(i, 0, -i);
+
+    Set<BlockVector> seen = new HashSet<>();
+    for (Iterator<BlockVector> it = set.iterator(); it.hasNext(); ) {
+      BlockVector pos = it.next();
+      assertTrue(seen.add(pos));
+      if (pos.getBlockX() % 2 == 0) it.remove();
+    }
+
+    assertEquals(100, seen.size());
+    assertEquals(50, set.size());
+    for (int i = 0; i < 100; i++) assertEquals(i % 2 != 0, set.contains(i, 0, -i));
+  }
+
+  @Test
+  public void testChooseRandom() {
+    IndexedBlockVectorSet set = new IndexedBlockVectorSet();
+    for (int i = 0; i < 10; i++) set.add(i, i, i);
+    for (int i = 0; i < 10; i += 3) set.remove(i, i, i);
+
+    Random random = new Random(0);
+    Set<BlockVector> chosen = new HashSet<>();
+    for (int i = 0; i < 1000; i++) {
+      BlockVector pos = set.chooseRandom(random);
+      assertTrue(set.contains(pos));
+      chosen.add(pos);
+    }
+    assertEquals(set.size(), chosen.size());
+  }
+}
@@ -0,0 +1,114 @@
+package tc.oc.pgm.util.concurrent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tc.oc.pgm.util.text.TextParser;
+
+/**
+ * Measures writes per second to a local SQLite database, like the settings written at the end of a
+ * match. Each write is either sent as its own query, as the datastore used to, or submitted as an
+ * update, which is coalesced by key and written in batches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadSafeConnectionBenchmark {
+
+  private static final int WRITES = 1000;
+  private static final String TABLE =
+      "CREATE TABLE IF NOT EXISTS settings (id VARCHAR(36) PRIMARY KEY, bit LONG)";
+  private static final String FORMAT = "REPLACE INTO settings VALUES (?, ?)";
+
+  // How many rows the writes go to, writes to the same row are coalesced
+  @Param({"100", "1000"})
+  private int rows;
+
+  private Path file;
+  private ThreadSafeConnection connection;
+  private long value;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException, SQLException {
+    file = Files.createTempFile("pgm-benchmark", ".db");
+    // Servers always use a single connection for SQLite, see PGMConfig
+    connection = new ThreadSafeConnection(
+        () -> TextParser.parseSqlConnection("sqlite:" + file.toAbsolutePath()), 1);
+    connection.submitQuery(() -> TABLE).join();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    connection.close();
+    Files.deleteIfExists(file);
+  }
+
+  private ThreadSafeConnection.Update write(int row) {
+    final long bit = value++;
+    return new ThreadSafeConnection.Update() {
+      @Override
+      public String getFormat() {
+        return FORMAT;
+      }
+
+      @Override
+      public void bind(PreparedStatement statement) throws SQLException {
+        statement.setString(1, "player-" + row);
+        statement.setLong(2, bit);
+      }
+    };
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(WRITES)
+  public void queries() {
+    final CompletableFuture<?>[] futures = new CompletableFuture<?>[WRITES];
+    for (int i = 0; i < WRITES; i++) {
+      futures[i] = connection.submitQuery(write(i % rows));
+    }
+    CompletableFuture.allOf(futures).join();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(WRITES)
+  public void updates() {
+    for (int i = 0; i < WRITES; i++) {
+      final int row = i % rows;
+      connection.submitUpdate("settings/" + row, write(row));
+    }
+    // Queries write every pending update first, and there is a single connection, so this waits
+    // for all of them
+    connection.submitQuery(() -> "SELECT 1").join();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+            .include(ThreadSafeConnectionBenchmark.class.getSimpleName())
+            .build())
+        .run();
+  }
+}
@@ -0,0 +1,39 @@
+package tc.oc.pgm.util.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public final class TokenBucketTest {
+
+  @Test
+  void testBurstUpToCapacity() {
+    final TokenBucket bucket = new TokenBucket(3, 0.001);
+
+    assertTrue(bucket.tryAcquire());
+    assertTrue(bucket.tryAcquire());
+    assertTrue(bucket.tryAcquire());
+    assertFalse(bucket.tryAcquire());
+  }
+
+  @Test
+  void testAcquireWaitsForRefill() throws InterruptedException {
+    final TokenBucket bucket = new TokenBucket(1, 50);
+    assertTrue(bucket.tryAcquire());
+
+    final long start = System.nanoTime();
+    bucket.acquire();
+    final long waited = System.nanoTime() - start;
+
+    // One permit every 20ms, allow some slack for the scheduler
+    assertTrue(waited >= 15_000_000L, "waited " + waited + "ns");
+  }
+
+  @Test
+  void testInvalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+    assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+  }
+}
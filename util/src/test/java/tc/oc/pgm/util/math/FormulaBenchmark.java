@@ -0,0 +1,125 @@
+package tc.oc.pgm.util.math;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import net.objecthunter.exp4j.ExpressionContext;
+import net.objecthunter.exp4j.function.Function;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares evaluating a formula through exp4j, which binds every variable by name, with the
+ * compiled formula, which reads them straight from the context.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormulaBenchmark {
+
+  private static final Set<String> VARIABLES = Set.of("kills", "deaths", "score", "time");
+
+  @Param({"kills - deaths", "max(score * 2, kills) / (time + 1)", "kills * kills + 2kills % 7"})
+  private String expression;
+
+  private final Context context = new Context();
+  private Formula<Context> interpreted;
+  private Formula<Context> compiled;
+
+  @Setup
+  public void setup() {
+    interpreted = Formula.of(expression, Formula.ContextFactory.ofStatic(VARIABLES));
+    compiled = Formula.of(expression, new Formula.ContextFactory<>() {
+      @Override
+      public Set<String> getVariables() {
+        return VARIABLES;
+      }
+
+      @Override
+      public Set<String> getArrays() {
+        return Set.of();
+      }
+
+      @Override
+      public ExpressionContext withContext(Context context) {
+        return context;
+      }
+
+      @Override
+      public ToDoubleFunction<Context> getVariableReader(String name) {
+        return switch (name) {
+          case "kills" -> c -> c.kills;
+          case "deaths" -> c -> c.deaths;
+          case "score" -> c -> c.score;
+          case "time" -> c -> c.time;
+          default -> null;
+        };
+      }
+    });
+
+    if (compiled instanceof Formula.ExpFormula) {
+      throw new IllegalStateException("Could not compile " + expression);
+    }
+  }
+
+  @Benchmark
+  public double interpreted() {
+    context.kills++;
+    return interpreted.applyAsDouble(context);
+  }
+
+  @Benchmark
+  public double compiled() {
+    context.kills++;
+    return compiled.applyAsDouble(context);
+  }
+
+  private static final class Context implements ExpressionContext {
+    private double kills = 4, deaths = 2, score = 30, time = 120;
+
+    @Override
+    public Set<String> getVariables() {
+      return VARIABLES;
+    }
+
+    @Override
+    public Double getVariable(String name) {
+      return switch (name) {
+        case "kills" -> kills;
+        case "deaths" -> deaths;
+        case "score" -> score;
+        case "time" -> time;
+        default -> null;
+      };
+    }
+
+    @Override
+    public Set<String> getFunctions() {
+      return Set.of();
+    }
+
+    @Override
+    public Function getFunction(String name) {
+      return null;
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(FormulaBenchmark.class.getSimpleName()).build()).run();
+  }
+}
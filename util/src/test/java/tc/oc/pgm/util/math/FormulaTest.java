@@ -0,0 +1,160 @@
+package tc.oc.pgm.util.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+import net.objecthunter.exp4j.ExpressionContext;
+import net.objecthunter.exp4j.function.Function;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public final class FormulaTest {
+
+  private static final Map<String, Double> VARIABLES = Map.of("x", 3d, "y", -2.5d, "score", 10d);
+  private static final Set<String> ARRAYS = Set.of("arr");
+  private static final Context CONTEXT = new Context();
+
+  private static final Formula.ContextFactory<Context> INTERPRETED =
+      Formula.ContextFactory.of(VARIABLES.keySet(), ARRAYS, context -> context);
+
+  private static final Formula.ContextFactory<Context> COMPILED = new Formula.ContextFactory<>() {
+    @Override
+    public Set<String> getVariables() {
+      return VARIABLES.keySet();
+    }
+
+    @Override
+    public Set<String> getArrays() {
+      return ARRAYS;
+    }
+
+    @Override
+    public ExpressionContext withContext(Context context) {
+      return context;
+    }
+
+    @Override
+    public ToDoubleFunction<Context> getVariableReader(String name) {
+      return context -> context.getVariable(name);
+    }
+
+    @Override
+    public Formula.IndexedReader<Context> getArrayReader(String name) {
+      return (context, index) -> arrayValue(index);
+    }
+  };
+
+  private static double arrayValue(int index) {
+    return index * 1.5;
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "1 + 2 * 3",
+        "-2^2",
+        "2^-2",
+        "2^3^2",
+        "x * y - score / 4",
+        "2x",
+        "2(x + 1)",
+        "(x)(y)",
+        "x - -y",
+        "score % 4",
+        "-x + +y",
+        "1e3 + 2.5E-1",
+        "max(1, x, y)",
+        "min(x)",
+        "max(min(1, 2), 3)",
+        "bound(score, 0, 5)",
+        "arr(2) + arr(x)",
+        "sqrt(16) + abs(y)",
+        "pow(2, x)",
+        "floor(x / 2) * 2",
+        "x / (y + 2.5)",
+        "score % (y + 2.5)"
+      })
+  void testSameAsInterpreted(String expression) {
+    final Formula<Context> interpreted = Formula.of(expression, INTERPRETED);
+    final Formula<Context> compiled = Formula.of(expression, COMPILED);
+
+    assertTrue(interpreted instanceof Formula.ExpFormula, "interpreted");
+    assertFalse(compiled instanceof Formula.ExpFormula, "compiled");
+    assertEquals(evaluate(interpreted), evaluate(compiled), expression);
+  }
+
+  @Test
+  void testReadsVariablesOnce() {
+    final AtomicInteger reads = new AtomicInteger();
+    final Formula.ContextFactory<Context> counting = new Formula.ContextFactory<>() {
+      @Override
+      public Set<String> getVariables() {
+        return VARIABLES.keySet();
+      }
+
+      @Override
+      public Set<String> getArrays() {
+        return ARRAYS;
+      }
+
+      @Override
+      public ExpressionContext withContext(Context context) {
+        return context;
+      }
+
+      @Override
+      public ToDoubleFunction<Context> getVariableReader(String name) {
+        return context -> {
+          reads.incrementAndGet();
+          return context.getVariable(name);
+        };
+      }
+    };
+
+    final Formula<Context> formula = Formula.of("x * x + x - y * y", counting);
+    assertEquals(5.75, formula.applyAsDouble(CONTEXT));
+    assertEquals(2, reads.get());
+  }
+
+  /** Evaluate a formula, or get the type of exception it throws. */
+  private static Object evaluate(Formula<Context> formula) {
+    try {
+      return formula.applyAsDouble(CONTEXT);
+    } catch (RuntimeException e) {
+      return e.getClass();
+    }
+  }
+
+  private static final class Context implements ExpressionContext {
+    @Override
+    public Set<String> getVariables() {
+      return VARIABLES.keySet();
+    }
+
+    @Override
+    public Double getVariable(String name) {
+      return VARIABLES.get(name);
+    }
+
+    @Override
+    public Set<String> getFunctions() {
+      return ARRAYS;
+    }
+
+    @Override
+    public Function getFunction(String name) {
+      return new Function(name, 1) {
+        @Override
+        public double apply(double... args) {
+          return arrayValue((int) args[0]);
+        }
+      };
+    }
+  }
+}
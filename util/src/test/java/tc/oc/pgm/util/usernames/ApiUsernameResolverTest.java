@@ -0,0 +1,129 @@
+package tc.oc.pgm.util.usernames;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public final class ApiUsernameResolverTest {
+
+  private HttpServer server;
+  private URI endpoint;
+  private final AtomicInteger requests = new AtomicInteger();
+  // How many of the next requests are answered with 429 Too Many Requests
+  private final AtomicInteger rateLimited = new AtomicInteger();
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/user/", this::handle);
+    server.start();
+    endpoint = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/user/");
+  }
+
+  @AfterEach
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+
+    if (rateLimited.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+      exchange.getResponseHeaders().add("Retry-After", "0");
+      exchange.sendResponseHeaders(429, -1);
+      exchange.close();
+      return;
+    }
+
+    final String path = exchange.getRequestURI().getPath();
+    final UUID id = UUID.fromString(path.substring(path.lastIndexOf('/') + 1));
+    final byte[] body =
+        ("{\"username\":\"" + nameOf(id) + "\"}").getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  private static String nameOf(UUID id) {
+    return "p" + id.toString().substring(0, 8);
+  }
+
+  private ApiUsernameResolver resolver(Path cacheFile) {
+    return new ApiUsernameResolver(endpoint, cacheFile, 4, 1000);
+  }
+
+  private static String await(CompletableFuture<UsernameResolver.UsernameResponse> future)
+      throws Exception {
+    return future.get(10, TimeUnit.SECONDS).getUsername();
+  }
+
+  @Test
+  public void testBatch() throws Exception {
+    final ApiUsernameResolver resolver = resolver(null);
+
+    final List<UUID> ids = new ArrayList<>();
+    final List<CompletableFuture<UsernameResolver.UsernameResponse>> futures = new ArrayList<>();
+    resolver.startBatch();
+    for (int i = 0; i < 20; i++) {
+      final UUID id = UUID.randomUUID();
+      ids.add(id);
+      futures.add(resolver.resolve(id));
+    }
+
+    // Process the batch directly, since ending it logs through the server
+    resolver.process(new ArrayList<>(resolver.currentBatch));
+
+    for (int i = 0; i < ids.size(); i++) {
+      assertEquals(nameOf(ids.get(i)), await(futures.get(i)));
+    }
+    assertEquals(ids.size(), requests.get());
+  }
+
+  @Test
+  public void testRetryWhenRateLimited() throws Exception {
+    final ApiUsernameResolver resolver = resolver(null);
+    rateLimited.set(2);
+
+    final UUID id = UUID.randomUUID();
+    assertEquals(nameOf(id), await(resolver.resolve(id)));
+    assertEquals(3, requests.get());
+  }
+
+  @Test
+  public void testCache(@TempDir Path dir) throws Exception {
+    final Path file = dir.resolve("usernames.json");
+    final UUID id = UUID.randomUUID();
+
+    final ApiUsernameResolver first = resolver(file);
+    first.startBatch();
+    final CompletableFuture<UsernameResolver.UsernameResponse> future = first.resolve(id);
+    first.process(new ArrayList<>(first.currentBatch));
+    assertEquals(nameOf(id), await(future));
+    assertTrue(Files.isRegularFile(file), "cache was not saved");
+
+    // A new resolver, like after a restart, reads the name from the cache
+    final ApiUsernameResolver second = resolver(file);
+    assertEquals(nameOf(id), await(second.resolve(id)));
+    assertEquals(1, requests.get());
+  }
+}